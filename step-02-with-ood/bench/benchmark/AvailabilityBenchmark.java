@@ -0,0 +1,68 @@
+package benchmark;
+
+import model.Reservation;
+import model.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room.isAvailable for one-night queries against a room with every other
+ * night booked, so half of the queries hit and half miss. "history" stays
+ * start in the past and are answered from the reservation index; "calendar"
+ * stays start today and fall inside the occupancy-calendar window.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AvailabilityBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int reservationsPerRoom;
+
+    @Param({"history", "calendar"})
+    public String window;
+
+    private Room room;
+    private LocalDate[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDate firstNight = window.equals("calendar") ? LocalDate.now() : BenchFixtures.BASE_DATE;
+        room = new Room(1, "Standard", 100.0);
+        for (int i = 0; i < reservationsPerRoom; i++) {
+            LocalDate checkIn = firstNight.plusDays(2L * i);
+            Reservation reservation = new Reservation(BenchFixtures.CUSTOMER, room, checkIn, checkIn.plusDays(1));
+            reservation.confirm();
+            room.addReservation(reservation);
+        }
+
+        int span = reservationsPerRoom * 2;
+        queries = new LocalDate[1024];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = firstNight.plusDays(random.nextInt(span));
+        }
+    }
+
+    @Benchmark
+    public boolean isAvailable() {
+        LocalDate checkIn = queries[next++ & 1023];
+        return room.isAvailable(checkIn, checkIn.plusDays(1));
+    }
+}
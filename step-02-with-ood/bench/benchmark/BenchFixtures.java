@@ -0,0 +1,77 @@
+package benchmark;
+
+import interfaces.INotificationMethod;
+import interfaces.IPaymentMethod;
+import model.Customer;
+import model.Money;
+import model.Room;
+import service.RoomInventory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/** Shared guests, rooms and no-op payment/notification channels for the benchmarks. */
+final class BenchFixtures {
+    static final LocalDate BASE_DATE = LocalDate.of(2025, 1, 1);
+    static final Customer CUSTOMER = new Customer("Bench Guest", "guest@example.com", "+10000000000");
+
+    private static final PrintStream CONSOLE = System.out;
+
+    private BenchFixtures() {}
+
+    /** Rooms firstRoom .. firstRoom + count - 1, alternating Standard and Deluxe. */
+    static RoomInventory inventory(int firstRoom, int count) {
+        RoomInventory inventory = new RoomInventory(count);
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rooms.add(new Room(firstRoom + i, i % 2 == 0 ? "Standard" : "Deluxe", 100.0 + i % 50));
+        }
+        inventory.addRooms(rooms);
+        return inventory;
+    }
+
+    // the service prints a line per booking; keep that out of the measurement
+    static void silenceConsole() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void restoreConsole() {
+        System.setOut(CONSOLE);
+    }
+
+    static final class InstantPayment implements IPaymentMethod {
+        @Override
+        public boolean processPayment(Money amount, String customerName) {
+            return true;
+        }
+
+        @Override
+        public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        @Override
+        public String getName() { return "Instant"; }
+
+        @Override
+        public String getType() { return "instant"; }
+    }
+
+    static final class DiscardNotification implements INotificationMethod {
+        @Override
+        public void sendMessage(String message, String recipient) {}
+
+        @Override
+        public String getName() { return "Discard"; }
+
+        @Override
+        public String getType() { return "discard"; }
+
+        @Override
+        public String getRecipient(Customer customer) { return customer.getEmail(); }
+    }
+}
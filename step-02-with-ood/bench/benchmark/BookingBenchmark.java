@@ -0,0 +1,176 @@
+package benchmark;
+
+import interfaces.INotificationMethod;
+import interfaces.IPaymentMethod;
+import model.Reservation;
+import model.Room;
+import model.RoomStay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import service.ReservationService;
+import service.RoomInventory;
+import service.ShardedReservationRouter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end booking throughput: hold, payment, confirm and notification,
+ * with payment and notification stubbed out. Every benchmark thread books
+ * its own slice of rooms, so the score shows how booking scales with
+ * threads (run with -t 1,2,4,...) rather than how it behaves under
+ * contention for one room. Each iteration starts from an empty hotel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+    static final int ROOMS_PER_THREAD = 64;
+    static final int ROOMS_PER_GROUP = 50;
+    static final int FIRST_ROOM = 1000;
+
+    private static final IPaymentMethod PAYMENT = new BenchFixtures.InstantPayment();
+    private static final INotificationMethod NOTIFICATION = new BenchFixtures.DiscardNotification();
+
+    /** One service for the whole hotel, ROOMS_PER_THREAD rooms per benchmark thread. */
+    @State(Scope.Benchmark)
+    public static class Hotel {
+        ReservationService service;
+        final AtomicInteger slices = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void setUp(BenchmarkParams params) {
+            BenchFixtures.silenceConsole();
+            service = new ReservationService(BenchFixtures.inventory(FIRST_ROOM, params.getThreads() * ROOMS_PER_THREAD));
+            slices.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            service.shutdown();
+            BenchFixtures.restoreConsole();
+        }
+    }
+
+    /** One property per benchmark thread, each on its own shard. */
+    @State(Scope.Benchmark)
+    public static class Chain {
+        ShardedReservationRouter router;
+        final AtomicInteger properties = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void setUp(BenchmarkParams params) {
+            BenchFixtures.silenceConsole();
+            router = new ShardedReservationRouter();
+            for (int s = 0; s < params.getThreads(); s++) {
+                router.addProperty("hotel-" + s, BenchFixtures.inventory(FIRST_ROOM, ROOMS_PER_THREAD));
+            }
+            properties.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            router.shutdown();
+            BenchFixtures.restoreConsole();
+        }
+    }
+
+    /** The slice of the hotel one thread books. */
+    @State(Scope.Thread)
+    public static class HotelClient {
+        int firstRoom;
+        int booked;
+
+        @Setup(Level.Iteration)
+        public void setUp(Hotel hotel) {
+            firstRoom = FIRST_ROOM + hotel.slices.getAndIncrement() * ROOMS_PER_THREAD;
+            booked = 0;
+        }
+    }
+
+    /** The property of the chain one thread books. */
+    @State(Scope.Thread)
+    public static class ChainClient {
+        String propertyId;
+        int booked;
+
+        @Setup(Level.Iteration)
+        public void setUp(Chain chain) {
+            propertyId = "hotel-" + chain.properties.getAndIncrement();
+            booked = 0;
+        }
+    }
+
+    @Benchmark
+    public Reservation book(Hotel hotel, HotelClient client) {
+        int i = client.booked++;
+        LocalDate checkIn = checkInFor(i);
+        return hotel.service.makeReservation(BenchFixtures.CUSTOMER, client.firstRoom + i % ROOMS_PER_THREAD,
+            checkIn, checkIn.plusDays(1), PAYMENT, NOTIFICATION);
+    }
+
+    @Benchmark
+    public Reservation bookSharded(Chain chain, ChainClient client) {
+        int i = client.booked++;
+        LocalDate checkIn = checkInFor(i);
+        return chain.router.makeReservation(client.propertyId, BenchFixtures.CUSTOMER, FIRST_ROOM + i % ROOMS_PER_THREAD,
+            checkIn, checkIn.plusDays(1), PAYMENT, NOTIFICATION);
+    }
+
+    // one night per room, moving a night forward once every room of the slice is taken
+    private static LocalDate checkInFor(int booking) {
+        return BenchFixtures.BASE_DATE.plusDays(booking / ROOMS_PER_THREAD);
+    }
+
+    /** A block of ROOMS_PER_GROUP rooms per call; the score is rooms per second. */
+    @State(Scope.Thread)
+    public static class Group {
+        ReservationService service;
+        List<Room> rooms;
+        int groups;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            BenchFixtures.silenceConsole();
+            RoomInventory inventory = BenchFixtures.inventory(FIRST_ROOM, ROOMS_PER_GROUP);
+            service = new ReservationService(inventory);
+            rooms = new ArrayList<>(inventory.getAll());
+            groups = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            service.shutdown();
+            BenchFixtures.restoreConsole();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROOMS_PER_GROUP)
+    public void bookGroup(Group group, Blackhole blackhole) {
+        LocalDate checkIn = BenchFixtures.BASE_DATE.plusDays(group.groups++);
+        List<RoomStay> stays = new ArrayList<>(ROOMS_PER_GROUP);
+        for (Room room : group.rooms) {
+            stays.add(new RoomStay(room.getRoomNumber(), checkIn, checkIn.plusDays(1)));
+        }
+        blackhole.consume(group.service.makeGroupReservation(BenchFixtures.CUSTOMER, stays, PAYMENT, NOTIFICATION));
+    }
+}
@@ -0,0 +1,166 @@
+package benchmark;
+
+import http.BookingHttpServer;
+import model.Room;
+import service.ReservationService;
+import service.RoomInventory;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against the booking API: N clients each send a request,
+ * wait for the answer and send the next, for a fixed duration. Reports
+ * requests/s and latency percentiles per endpoint. The first --warmup
+ * seconds are sent but not counted.
+ *
+ * Usage: java -cp out benchmark.HttpLoadGenerator [--url http://host:port] [--clients N] [--seconds S] [--warmup S] [--book-ratio R]
+ * Without --url an in-process server with 1024 rooms is started on a free port.
+ */
+public class HttpLoadGenerator {
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int clients = 64;
+        int seconds = 10;
+        int warmup = 2;
+        double bookRatio = 0.2;
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals("--url")) url = args[++i];
+            else if (args[i].equals("--clients")) clients = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--seconds")) seconds = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--warmup")) warmup = Integer.parseInt(args[++i]);
+            else if (args[i].equals("--book-ratio")) bookRatio = Double.parseDouble(args[++i]);
+        }
+
+        PrintStream console = System.out;
+        BookingHttpServer server = null;
+        ReservationService service = null;
+        int rooms = 1024;
+        if (url == null) {
+            RoomInventory inventory = new RoomInventory(rooms);
+            List<Room> generated = new ArrayList<>(rooms);
+            for (int i = 0; i < rooms; i++) {
+                generated.add(new Room(1000 + i, i % 2 == 0 ? "Standard" : "Deluxe", 100.0 + i % 50, 2 + i % 3));
+            }
+            inventory.addRooms(generated);
+            service = new ReservationService(inventory);
+            server = new BookingHttpServer(service, 0);
+            server.start();
+            url = "http://localhost:" + server.getPort();
+            // booking/payment/notification chatter would dominate the measurement
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+            .build();
+        Stats search = new Stats();
+        Stats book = new Stats();
+        AtomicLong sequence = new AtomicLong();
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(warmup).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(seconds).toNanos();
+        String base = url;
+        double ratio = bookRatio;
+        int roomCount = rooms;
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            running.add(workers.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long n = sequence.getAndIncrement();
+                    // every booking gets its own room-night, so conflicts only come from real races
+                    LocalDate checkIn = LocalDate.now().plusDays(1 + (n / roomCount) % 600);
+                    boolean booking = (n % 1000) < ratio * 1000;
+                    HttpRequest request = booking
+                        ? HttpRequest.newBuilder(URI.create(base + "/book"))
+                            .POST(HttpRequest.BodyPublishers.ofString(String.format(Locale.ROOT,
+                                "{\"name\":\"Load %d\",\"email\":\"load%d@example.com\",\"phone\":\"+1%010d\","
+                                    + "\"room\":%d,\"checkIn\":\"%s\",\"checkOut\":\"%s\",\"payment\":\"onsite\"}",
+                                n, n, n, 1000 + n % roomCount, checkIn, checkIn.plusDays(1))))
+                            .build()
+                        : HttpRequest.newBuilder(URI.create(base + "/search?checkIn=" + checkIn
+                            + "&checkOut=" + checkIn.plusDays(2) + "&cheapestFirst=true&limit=10")).GET().build();
+                    long sent = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+                    } catch (Exception e) {
+                        status = -1;
+                    }
+                    if (sent >= measureFrom) {
+                        (booking ? book : search).record(System.nanoTime() - sent, status);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : running) worker.get();
+        double elapsed = (System.nanoTime() - measureFrom) / 1e9;
+        workers.shutdown();
+
+        System.setOut(console);
+        System.out.printf(Locale.ROOT, "%d clients, %.1f s against %s%n", clients, elapsed, url);
+        search.print("GET /search", elapsed);
+        book.print("POST /book", elapsed);
+        System.out.printf(Locale.ROOT, "%-12s %10.0f req/s%n", "total", (search.count() + book.count()) / elapsed);
+
+        if (server != null) {
+            server.stop();
+            service.shutdown();
+        }
+        System.exit(0);
+    }
+
+    private static final class Stats {
+        private long[] latencies = new long[1 << 16];
+        private int size;
+        private long ok;
+        private long rejected;
+        private long failed;
+
+        synchronized void record(long nanos, int status) {
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            if (status >= 200 && status < 300) ok++;
+            else if (status >= 400 && status < 500) rejected++;
+            else failed++;
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized void print(String name, double seconds) {
+            if (size == 0) {
+                System.out.printf("%-12s no requests%n", name);
+                return;
+            }
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            System.out.printf(Locale.ROOT,
+                "%-12s %10.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  (%d ok, %d 4xx, %d failed)%n",
+                name, size / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                sorted[size - 1] / 1e6, ok, rejected, failed);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
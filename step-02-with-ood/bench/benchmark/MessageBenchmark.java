@@ -0,0 +1,97 @@
+package benchmark;
+
+import model.Reservation;
+import model.Room;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import registries.NotificationRegistry;
+import registries.PaymentRegistry;
+import service.BatchPricer;
+import service.ReservationService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/** Per-booking helpers: confirmation formatting, registry lookups and batch pricing. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark {
+    static final int QUOTES = 4096;
+
+    private static final String[] PAYMENT_TYPES = {"credit", "onsite", "CREDIT"};
+    private static final String[] NOTIFICATION_TYPES = {"email", "sms", "SMS"};
+
+    private ReservationService service;
+    private Reservation reservation;
+    private final List<Reservation> group = new ArrayList<>();
+    private int next;
+
+    private final long[] rates = new long[QUOTES];
+    private final int[] nights = new int[QUOTES];
+    private final long[] totals = new long[QUOTES];
+
+    @Setup
+    public void setUp() {
+        service = new ReservationService();
+        Room room = service.getAvailableRooms().get(0);
+        reservation = new Reservation(BenchFixtures.CUSTOMER, room,
+            BenchFixtures.BASE_DATE, BenchFixtures.BASE_DATE.plusDays(3));
+        for (Room groupRoom : service.getAvailableRooms().subList(0, 4)) {
+            group.add(new Reservation(BenchFixtures.CUSTOMER, groupRoom,
+                BenchFixtures.BASE_DATE, BenchFixtures.BASE_DATE.plusDays(3)));
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < QUOTES; i++) {
+            rates[i] = 80_00 + random.nextInt(200_00);
+            nights[i] = 1 + random.nextInt(14);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public String formatConfirmation() {
+        return service.buildConfirmationMessage(reservation);
+    }
+
+    @Benchmark
+    public String formatGroupConfirmation() {
+        return service.buildGroupConfirmationMessage(group);
+    }
+
+    @Benchmark
+    public Object findPaymentByType() {
+        return PaymentRegistry.findByType(PAYMENT_TYPES[next++ % 3]);
+    }
+
+    @Benchmark
+    public Object findNotificationByType() {
+        return NotificationRegistry.findByType(NOTIFICATION_TYPES[next++ % 3]);
+    }
+
+    /** All QUOTES stay totals plus their sum, per call. */
+    @Benchmark
+    public long batchPricing() {
+        BatchPricer.totals(rates, nights, totals, QUOTES);
+        return BatchPricer.sum(totals, QUOTES);
+    }
+}
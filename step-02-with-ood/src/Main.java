@@ -1,22 +1,52 @@
+import analytics.OccupancyAnalytics;
+import bulk.BulkExporter;
+import bulk.BulkImporter;
+import bulk.BulkReport;
+import http.BookingHttpServer;
 import interfaces.INotificationMethod;
 import interfaces.IPaymentMethod;
 import model.Customer;
+import model.Money;
 import model.Reservation;
 import model.Room;
+import model.RoomTypeBooking;
+import persistence.ColumnarReservationStore;
+import persistence.CorruptJournalException;
+import persistence.ReservationJournal;
+import pricing.OccupancyPricingRule;
+import pricing.PricingEngine;
+import pricing.SeasonalPricingRule;
+import pricing.WeekdayPricingRule;
 import registries.NotificationRegistry;
 import registries.PaymentRegistry;
+import service.PropertyShard;
 import service.ReservationService;
+import service.RoomTypeAvailability;
+import service.ShardedReservationRouter;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Main {
     private static final Scanner scanner = new Scanner(System.in);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final ReservationService reservationService = new ReservationService();
+    private static volatile BookingHttpServer httpServer;
+    private static ReservationJournal journal;
+    private static volatile ShardedReservationRouter chain;
+    private static final List<BookingHttpServer> chainServers = new CopyOnWriteArrayList<>();
     
     public static void main(String[] args) {
         System.out.println("=====================================");
@@ -24,6 +54,44 @@ public class Main {
         System.out.println("   🚀 Self-Describing Registry       ");
         System.out.println("      SOLID 100% Compliant           ");
         System.out.println("=====================================");
+
+        configurePricing(reservationService.getPricingEngine());
+        reservationService.getMetrics().registerMBean("main");
+        // تنها hook خاموشی برنامه: صف اعلان‌ها و ژورنال در هر نوع خروجی (حتی Ctrl+C) تخلیه می‌شوند
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::shutdown, "reservation-shutdown"));
+
+        // زنجیره هتل: java Main --chain hotel-a,hotel-b [port]
+        // هر هتل shard خودش، ژورنال خودش در data/properties/<id> و API خودش روی port + i را دارد
+        if (args.length > 1 && args[0].equals("--chain")) {
+            startChain(args[1].split(","), args.length > 2 ? Integer.parseInt(args[2]) : 8080);
+            return;
+        }
+
+        // بازیابی رزروهای قبلی از دیسک
+        try {
+            journal = ReservationJournal.open(Paths.get("data"), reservationService);
+        } catch (CorruptJournalException e) {
+            // با ژورنال خراب ادامه نمی‌دهیم تا رزروهای ثبت‌شده از دست نروند
+            System.out.println("❌ Cannot recover reservations, refusing to start: " + e.getMessage());
+            return;
+        } catch (IOException e) {
+            System.out.println("⚠️ Journal unavailable, running in memory only: " + e.getMessage());
+        }
+
+        // حالت بدون کنسول: java Main --http [port]
+        if (args.length > 0 && args[0].equals("--http")) {
+            startHttpApi(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+
+        // بارگذاری انبوه: java Main --import reservations <file>
+        // خروجی انبوه:   java Main --export rooms|customers|reservations <file>
+        // فقط رزروها در ژورنال ذخیره می‌شوند، پس import اتاق و مشتری از خط فرمان پس از خروج از دست می‌رفت
+        if (args.length == 3 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            runBulk(args[0].equals("--import"), args[1], Paths.get(args[2]));
+            reservationService.shutdown();
+            return;
+        }
         
         while (true) {
             showDynamicMainMenu();
@@ -37,7 +105,24 @@ public class Main {
                     showAvailableRooms();
                     break;
                 case 3:
+                    cancelReservation();
+                    break;
+                case 4:
+                    System.out.println("\n📊 Booking Metrics:");
+                    System.out.print(reservationService.getMetrics().dump());
+                    break;
+                case 5:
+                    showOccupancyReport();
+                    break;
+                case 6:
+                    makeTypeReservation();
+                    break;
+                case 7:
+                    assignRooms();
+                    break;
+                case 8:
                     System.out.println("👋 Thank you for using our system!");
+                    reservationService.shutdown();
                     scanner.close();
                     return;
                 default:
@@ -48,11 +133,100 @@ public class Main {
         }
     }
     
+    private static void startHttpApi(int port) {
+        try {
+            httpServer = new BookingHttpServer(reservationService, port);
+            httpServer.start();
+        } catch (IOException e) {
+            System.out.println("❌ Cannot start HTTP API on port " + port + ": " + e.getMessage());
+            reservationService.shutdown();
+        }
+    }
+
+    private static void startChain(String[] propertyIds, int firstPort) {
+        ShardedReservationRouter router = new ShardedReservationRouter(
+            Runtime.getRuntime().availableProcessors(), Paths.get("data", "properties"));
+        chain = router;
+        for (int i = 0; i < propertyIds.length; i++) {
+            String propertyId = propertyIds[i].trim();
+            int port = firstPort + i;
+            try {
+                PropertyShard shard = router.addProperty(propertyId, ReservationService.sampleRooms());
+                configurePricing(shard.getService().getPricingEngine());
+                System.out.println("🏨 Property " + propertyId + " (journal in " + shard.getJournalDirectory() + ")");
+                ReservationJournal.open(shard.getJournalDirectory(), shard.getService());
+                BookingHttpServer server = new BookingHttpServer(shard.getService(), port);
+                chainServers.add(server);
+                server.start();
+            } catch (IOException | IllegalArgumentException e) {
+                // یک هتل بدون ژورنال یا API، کل زنجیره را متوقف می‌کند تا رزروی بی‌صدا گم نشود
+                System.out.println("❌ Cannot start property " + propertyId + ": " + e.getMessage());
+                shutdown();
+                return;
+            }
+        }
+    }
+
+    private static void shutdown() {
+        BookingHttpServer server = httpServer;
+        if (server != null) {
+            server.stop();
+        }
+        for (BookingHttpServer chainServer : chainServers) {
+            chainServer.stop();
+        }
+        chainServers.clear();
+        ShardedReservationRouter router = chain;
+        if (router != null) {
+            router.shutdown();
+        }
+        reservationService.shutdown();
+    }
+
+    private static void runBulk(boolean isImport, String kind, Path file) {
+        if (isImport && !kind.equals("reservations")) {
+            System.out.println("❌ Only reservations can be imported from the command line: rooms and customers"
+                + " are not saved, so they would be gone when this process exits."
+                + " Reservations carry their guest; import rooms and customers through BulkImporter in a running service.");
+            return;
+        }
+        BulkImporter importer = new BulkImporter(reservationService);
+        BulkExporter exporter = new BulkExporter(reservationService);
+        try {
+            BulkReport report;
+            switch (kind) {
+                case "rooms":
+                    report = isImport ? importer.importRooms(file) : exporter.exportRooms(file);
+                    break;
+                case "customers":
+                    report = isImport ? importer.importCustomers(file) : exporter.exportCustomers(file);
+                    break;
+                case "reservations":
+                    report = isImport ? importer.importReservations(file) : exporter.exportReservations(file);
+                    break;
+                default:
+                    System.out.println("❌ Unknown kind '" + kind + "' (rooms, customers or reservations)");
+                    return;
+            }
+            System.out.println((isImport ? "📥 " : "📤 ") + report);
+            for (String rejection : report.getRejections()) {
+                System.out.println("   ⚠️ " + rejection);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("❌ Bulk " + (isImport ? "import" : "export") + " failed: " + e.getMessage());
+        }
+    }
+
     private static void showDynamicMainMenu() {
         System.out.println("\n📋 Main Menu:");
         System.out.println("1️⃣  Make Reservation");
         System.out.println("2️⃣  View Available Rooms");
-        System.out.println("3️⃣  Exit");
+        System.out.println("3️⃣  Cancel Reservation");
+        System.out.println("4️⃣  Show Metrics");
+        System.out.println("5️⃣  Occupancy Report");
+        System.out.println("6️⃣  Book by Room Type");
+        System.out.println("7️⃣  Assign Rooms");
+        System.out.println("8️⃣  Exit");
         
     
         System.out.print("\n➤ ");
@@ -77,7 +251,7 @@ public class Main {
         if (checkOutDate == null) return;
         
         // نمایش اتاق‌های در دسترس
-        Room[] rooms = reservationService.getAvailableRooms();
+        List<Room> rooms = reservationService.getAvailableRooms();
         showRoomsWithAvailability(rooms, checkInDate, checkOutDate);
         
         int roomNumber = getIntInput("Select room number: ");
@@ -103,6 +277,72 @@ public class Main {
         }
     }
     
+    // رزرو «یک اتاق Deluxe» بدون انتخاب شماره اتاق؛ شماره اتاق بعداً تخصیص داده می‌شود
+    private static void makeTypeReservation() {
+        System.out.println("\n🏨 Book by Room Type");
+        System.out.println("-".repeat(50));
+
+        Customer customer = createCustomer();
+        if (customer == null) {
+            System.out.println("❌ Customer creation cancelled.");
+            return;
+        }
+        LocalDate checkInDate = getDateInput("Enter check-in date (yyyy-MM-dd): ");
+        if (checkInDate == null) return;
+        LocalDate checkOutDate = getDateInput("Enter check-out date (yyyy-MM-dd): ");
+        if (checkOutDate == null) return;
+
+        RoomTypeAvailability availability = reservationService.getRoomTypeAvailability();
+        System.out.println("\nType        | Rooms | Free for all nights");
+        System.out.println("-".repeat(45));
+        Set<String> types = new TreeSet<>();
+        for (Room room : reservationService.getAvailableRooms()) {
+            types.add(room.getRoomType());
+        }
+        for (String type : types) {
+            System.out.printf("%-11s | %5d | %d%n", type, availability.getCapacity(type),
+                Math.max(0, availability.getAvailable(type, checkInDate, checkOutDate)));
+        }
+
+        System.out.print("Enter room type: ");
+        String roomType = scanner.nextLine().trim();
+        if (roomType.isEmpty()) return;
+
+        IPaymentMethod paymentMethod = selectPaymentMethod();
+        INotificationMethod notificationMethod = selectNotificationMethod();
+
+        System.out.println("\n🔄 Processing booking...");
+        RoomTypeBooking booking = reservationService.makeTypeReservation(
+            customer, roomType, checkInDate, checkOutDate, paymentMethod, notificationMethod);
+        if (booking != null) {
+            System.out.println("\n✅ " + booking);
+        }
+    }
+
+    private static void assignRooms() {
+        LocalDate upTo = getDateInput("Assign check-ins up to (yyyy-MM-dd, empty = tomorrow): ");
+        if (upTo == null) upTo = LocalDate.now().plusDays(1);
+        int placed = reservationService.assignRooms(upTo);
+        System.out.println("🛏️  " + placed + " bookings placed in rooms");
+        for (RoomTypeBooking booking : reservationService.getUnassignedBookings()) {
+            System.out.println("   ⏳ " + booking);
+        }
+    }
+
+    private static void cancelReservation() {
+        System.out.println("\n🗑️  Cancel Reservation");
+        System.out.println("-".repeat(50));
+
+        int reservationId = getIntInput("Enter reservation number: ");
+        Reservation reservation = reservationService.findReservation(reservationId);
+        if (reservation == null) {
+            System.out.println("❌ Reservation #" + reservationId + " not found");
+            return;
+        }
+        printReservationDetails(reservation);
+        reservationService.cancelReservation(reservation);
+    }
+
     private static IPaymentMethod selectPaymentMethod() {
         List<IPaymentMethod> methods = PaymentRegistry.getAll();
         System.out.println("\n💳 Select Payment Method:");
@@ -131,16 +371,24 @@ public class Main {
         return methods.get(choice);
     }
     
+    // قیمت‌گذاری پویا: فصل، آخر هفته، درصد اشغال
+    private static void configurePricing(PricingEngine pricing) {
+        pricing.addRule(new SeasonalPricingRule("Summer season", MonthDay.of(6, 15), MonthDay.of(9, 1), 12_500));
+        pricing.addRule(new SeasonalPricingRule("New year", MonthDay.of(12, 28), MonthDay.of(1, 3), 13_000));
+        pricing.addRule(new WeekdayPricingRule("Weekend", EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY), 12_000));
+        pricing.addRule(new OccupancyPricingRule("High demand", 50, 11_500));
+    }
+
     private static void showAvailableRooms() {
         System.out.println("\n🛏️  All Available Rooms:");
         System.out.println("-".repeat(50));
         
-        Room[] rooms = reservationService.getAvailableRooms();
+        List<Room> rooms = reservationService.getAvailableRooms();
         System.out.println("Room No | Type        | Price/night");
         System.out.println("-".repeat(50));
         
         for (Room room : rooms) {
-            System.out.printf("%7d | %-11s | $%10.2f%n",
+            System.out.printf("%7d | %-11s | %11s%n",
                 room.getRoomNumber(),
                 room.getRoomType(),
                 room.getPricePerNight()
@@ -148,18 +396,61 @@ public class Main {
         }
     }
     
-    private static void showRoomsWithAvailability(Room[] rooms, LocalDate checkIn, LocalDate checkOut) {
+    // اشغال، ADR و RevPAR هر نوع اتاق از تجمیع‌های آماده (بدون پیمایش رزروها)
+    private static void showOccupancyReport() {
+        LocalDate from = getDateInput("Enter report start date (yyyy-MM-dd, empty = today): ");
+        if (from == null) from = LocalDate.now();
+        LocalDate to = from.plusDays(30);
+        OccupancyAnalytics analytics = reservationService.getAnalytics();
+
+        System.out.println("\n📈 Occupancy " + from + " → " + to + ":");
+        System.out.println("-".repeat(70));
+        System.out.println("Type        | Occupancy | Nights sold |         ADR |      RevPAR");
+        System.out.println("-".repeat(70));
+        Set<String> types = new TreeSet<>();
+        for (Room room : reservationService.getAvailableRooms()) {
+            types.add(room.getRoomType());
+        }
+        for (String type : types) {
+            printOccupancyRow(analytics, type, type, from, to);
+        }
+        System.out.println("-".repeat(70));
+        printOccupancyRow(analytics, "All rooms", null, from, to);
+
+        // اقامت‌های قدیمی‌تر از پنجره تقویم فقط در آرشیو ستونی هستند
+        if (journal != null && journal.getHistory().size() > 0) {
+            ColumnarReservationStore history = journal.getHistory();
+            Money archivedRevenue = Money.of(
+                history.revenue(Money.USD.getNumericCode(), Integer.MIN_VALUE, Integer.MAX_VALUE), Money.USD);
+            System.out.println("🗄️  Archived history: " + history.size() + " older stays, "
+                + archivedRevenue + " in USD bookings");
+        }
+    }
+
+    private static void printOccupancyRow(OccupancyAnalytics analytics, String label, String roomType,
+                                          LocalDate from, LocalDate to) {
+        System.out.printf("%-11s | %8.1f%% | %11d | %11s | %11s%n",
+            label,
+            analytics.occupancyRate(roomType, from, to) * 100,
+            analytics.nightsSold(roomType, from, to),
+            analytics.adr(roomType, from, to),
+            analytics.revPar(roomType, from, to)
+        );
+    }
+
+    private static void showRoomsWithAvailability(List<Room> rooms, LocalDate checkIn, LocalDate checkOut) {
         System.out.println("\n🛏️  Available Rooms for " + checkIn + " → " + checkOut + ":");
         System.out.println("-".repeat(80));
-        System.out.println("Room No | Type        | Price/night | Available");
+        System.out.println("Room No | Type        | Price/night |  Stay total | Available");
         System.out.println("-".repeat(80));
         
         for (Room room : rooms) {
             boolean available = room.isAvailable(checkIn, checkOut);
-            System.out.printf("%7d | %-11s | $%10.2f | %s%n",
+            System.out.printf("%7d | %-11s | %11s | %11s | %s%n",
                 room.getRoomNumber(),
                 room.getRoomType(),
                 room.getPricePerNight(),
+                reservationService.quote(room, checkIn, checkOut),
                 available ? "✅ YES" : "❌ NO"
             );
         }
@@ -182,19 +473,21 @@ public class Main {
         String phone = scanner.nextLine().trim();
         if (phone.isEmpty()) return null;
         
-        return new Customer(name, email, phone);
+        // مهمان تکراری (همان ایمیل/تلفن) همان شیء قبلی را برمی‌گرداند
+        return reservationService.getCustomerDirectory().register(name, email, phone);
     }
     
     private static void printReservationDetails(Reservation reservation) {
         System.out.println("📄 Reservation Details:");
         System.out.println("-".repeat(40));
+        System.out.printf("   🔖 Reservation #: %d%n", reservation.getId());
         System.out.printf("   👤 Customer: %s%n", reservation.getCustomer().getName());
         System.out.printf("   🛏️  Room: %d (%s)%n", 
             reservation.getRoom().getRoomNumber(), 
             reservation.getRoom().getRoomType());
         System.out.printf("   📅 Check-in: %s%n", reservation.getCheckInDate());
         System.out.printf("   📅 Check-out: %s%n", reservation.getCheckOutDate());
-        System.out.printf("   💰 Total: $%.2f%n", reservation.getTotalAmount());
+        System.out.printf("   💰 Total: %s%n", reservation.getTotalAmount());
         System.out.printf("   ⏰ Booking Time: %s%n", reservation.getBookingTime());
         System.out.println("-".repeat(40));
     }
@@ -228,4 +521,4 @@ public class Main {
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package analytics;
+
+/**
+ * Room-nights sold and revenue (minor units) per day over a fixed window of
+ * epoch days. Each figure is kept in a pair of Fenwick trees that take a
+ * constant amount over a run of days in one step, so adding a stay and
+ * summing any date range are both O(log n), whatever the stay or range
+ * length. Updates and reads lock the series; they are short enough that
+ * concurrent bookings and a parallel rebuild hardly wait on each other.
+ */
+final class DailySeries {
+    private final long baseDay;
+    private final int days;
+    private final RangeSums nights;
+    private final RangeSums revenue;
+
+    DailySeries(long baseDay, int days) {
+        this.baseDay = baseDay;
+        this.days = days;
+        this.nights = new RangeSums(days);
+        this.revenue = new RangeSums(days);
+    }
+
+    /**
+     * Adds (sign = 1) or removes (sign = -1) a stay. The amount is spread
+     * over its nights with the remainder on the first ones, so the daily
+     * revenue always sums back to the exact total. Nights outside the
+     * window are ignored.
+     */
+    synchronized void add(long checkInDay, long checkOutDay, long amount, int sign) {
+        long stayNights = checkOutDay - checkInDay;
+        if (stayNights <= 0) return;
+        long perNight = amount / stayNights;
+        long remainder = amount % stayNights;
+        int from = clamp(checkInDay);
+        int to = clamp(checkOutDay);
+        if (from >= to) return;
+        nights.add(from, to, sign);
+        revenue.add(from, to, sign * perNight);
+        // one extra minor unit on each of the first `remainder` nights
+        int extraTo = clamp(checkInDay + remainder);
+        if (from < extraTo) revenue.add(from, extraTo, sign);
+    }
+
+    long nights(long day) {
+        return nights(day, day + 1);
+    }
+
+    long revenue(long day) {
+        return revenue(day, day + 1);
+    }
+
+    synchronized long nights(long fromDay, long toDay) {
+        int from = clamp(fromDay);
+        int to = clamp(toDay);
+        return from < to ? nights.sum(from, to) : 0;
+    }
+
+    synchronized long revenue(long fromDay, long toDay) {
+        int from = clamp(fromDay);
+        int to = clamp(toDay);
+        return from < to ? revenue.sum(from, to) : 0;
+    }
+
+    // offset of day in the window, pinned to [0, days]
+    private int clamp(long day) {
+        return (int) Math.max(0, Math.min(days, day - baseDay));
+    }
+
+    /**
+     * Range add and range sum over offsets [0, size): the classic pair of
+     * Fenwick trees, where prefix(i) = i · Σ slope[..i] − Σ offset[..i].
+     */
+    private static final class RangeSums {
+        private final long[] slope;
+        private final long[] offset;
+
+        RangeSums(int size) {
+            this.slope = new long[size + 1];
+            this.offset = new long[size + 1];
+        }
+
+        // value added to every offset in [from, to)
+        void add(int from, int to, long value) {
+            update(from + 1, value, value * from);
+            update(to + 1, -value, -value * to);
+        }
+
+        // sum of offsets [from, to)
+        long sum(int from, int to) {
+            return prefix(to) - prefix(from);
+        }
+
+        private void update(int position, long slopeDelta, long offsetDelta) {
+            for (int i = position; i < slope.length; i += i & -i) {
+                slope[i] += slopeDelta;
+                offset[i] += offsetDelta;
+            }
+        }
+
+        // sum of the first `count` offsets
+        private long prefix(int count) {
+            long slopeSum = 0;
+            long offsetSum = 0;
+            for (int i = count; i > 0; i -= i & -i) {
+                slopeSum += slope[i];
+                offsetSum += offset[i];
+            }
+            return slopeSum * count - offsetSum;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package analytics;
+
+import interfaces.IReservationListener;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import service.RoomInventory;
+
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materialized occupancy and revenue per night — for the whole hotel, per
+ * room type and per room — kept current by reservation events instead of
+ * walking every room's reservations. Any date range costs O(log n) in the
+ * window length (see {@link DailySeries}), whatever the number of rooms.
+ *
+ *   occupancy = room-nights sold / rooms available
+ *   ADR       = revenue / room-nights sold
+ *   RevPAR    = revenue / rooms available
+ *
+ * The window is the same one the rooms' occupancy calendars cover; nights
+ * outside it are not tracked. {@link #rebuild()} recomputes everything from
+ * the rooms in parallel (backfills, re-centring the window after midnight);
+ * {@link service.ReservationService#rollDay} runs it once a day.
+ */
+public class OccupancyAnalytics implements IReservationListener {
+    private static final class Aggregates {
+        final long baseDay;
+        final int days;
+        final DailySeries hotel;
+        final Map<String, DailySeries> byType = new ConcurrentHashMap<>();
+        final Map<Room, DailySeries> byRoom = new ConcurrentHashMap<>(); // only rooms that had a booking
+        // the stays in the figures, so an event and a rebuild scan never count one twice
+        final Set<Reservation> counted = ConcurrentHashMap.newKeySet();
+
+        Aggregates(long baseDay, int days) {
+            this.baseDay = baseDay;
+            this.days = days;
+            this.hotel = new DailySeries(baseDay, days);
+        }
+
+        void add(Reservation reservation, int sign) {
+            boolean changed = sign > 0 ? counted.add(reservation) : counted.remove(reservation);
+            if (!changed) return;
+            Room room = reservation.getRoom();
+            long checkIn = reservation.getCheckInDate().toEpochDay();
+            long checkOut = reservation.getCheckOutDate().toEpochDay();
+            long amount = reservation.getTotalAmount().getMinorUnits();
+            hotel.add(checkIn, checkOut, amount, sign);
+            byType.computeIfAbsent(RoomInventory.normalizeType(room.getRoomType()), t -> new DailySeries(baseDay, days))
+                .add(checkIn, checkOut, amount, sign);
+            byRoom.computeIfAbsent(room, r -> new DailySeries(baseDay, days))
+                .add(checkIn, checkOut, amount, sign);
+        }
+    }
+
+    private final RoomInventory inventory;
+    private volatile Aggregates aggregates;
+    // the aggregates a rebuild is filling, which also get every event while it runs
+    private volatile Aggregates building;
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public OccupancyAnalytics(RoomInventory inventory) {
+        this.inventory = inventory;
+        this.aggregates = emptyAggregates();
+    }
+
+    @Override
+    public void onConfirmed(Reservation reservation) {
+        apply(reservation, 1);
+    }
+
+    @Override
+    public void onCancelled(Reservation reservation) {
+        apply(reservation, -1);
+    }
+
+    // archived stays lie before the window; only forget them
+    @Override
+    public void onArchived(Reservation reservation) {
+        aggregates.counted.remove(reservation);
+    }
+
+    /**
+     * Recomputes all aggregates from the confirmed stays of every room, one
+     * room per task, and swaps them in. Bookings confirmed or cancelled
+     * while it runs go into both the live and the rebuilt aggregates; each
+     * set counts a stay at most once, so it does not matter whether the
+     * scan of its room came before or after the event. A stay the scan
+     * found confirmed is checked again once counted: if it was cancelled in
+     * between, its event may have found nothing to take back, so the scan
+     * takes its own count back instead.
+     *
+     * @return number of confirmed stays counted
+     */
+    public synchronized long rebuild() {
+        Aggregates rebuilt = emptyAggregates();
+        // from here on events reach rebuilt too, and any change made before it the scan will see
+        building = rebuilt;
+        long stays = inventory.getAll().parallelStream()
+            .mapToLong(room -> {
+                long count = 0;
+                for (Reservation reservation : room.getReservations()) {
+                    if (!reservation.isConfirmed()) continue;
+                    rebuilt.add(reservation, 1);
+                    // the cancel comes before its event, and whichever of the two -1s finds the stay counted removes it
+                    if (reservation.isConfirmed()) {
+                        count++;
+                    } else {
+                        rebuilt.add(reservation, -1);
+                    }
+                }
+                return count;
+            })
+            .sum();
+        aggregates = rebuilt;
+        building = null;
+        rebuilds.incrementAndGet();
+        return stays;
+    }
+
+    private void apply(Reservation reservation, int sign) {
+        // building before aggregates: an event that finds no rebuild either came
+        // before its scan started or after the swap, when aggregates is the new set
+        Aggregates pending = building;
+        Aggregates live = aggregates;
+        live.add(reservation, sign);
+        if (pending != null && pending != live) {
+            pending.add(reservation, sign);
+        }
+    }
+
+    // ---- whole hotel (roomType == null) or one room type ----
+
+    public double occupancyRate(String roomType, LocalDate night) {
+        return occupancyRate(roomType, night, night.plusDays(1));
+    }
+
+    public double occupancyRate(String roomType, LocalDate from, LocalDate to) {
+        long available = availableRoomNights(roomType, from, to);
+        return available == 0 ? 0.0 : (double) nightsSold(roomType, from, to) / available;
+    }
+
+    public long nightsSold(String roomType, LocalDate from, LocalDate to) {
+        DailySeries series = series(roomType);
+        return series == null ? 0 : series.nights(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public Money revenue(String roomType, LocalDate from, LocalDate to) {
+        DailySeries series = series(roomType);
+        long revenue = series == null ? 0 : series.revenue(from.toEpochDay(), to.toEpochDay());
+        return Money.of(revenue, currencyOf(rooms(roomType)));
+    }
+
+    /** Average daily rate: revenue per room-night sold. */
+    public Money adr(String roomType, LocalDate from, LocalDate to) {
+        return perUnit(revenue(roomType, from, to), nightsSold(roomType, from, to));
+    }
+
+    /** Revenue per available room-night. */
+    public Money revPar(String roomType, LocalDate from, LocalDate to) {
+        return perUnit(revenue(roomType, from, to), availableRoomNights(roomType, from, to));
+    }
+
+    // ---- one room ----
+
+    public double roomOccupancyRate(Room room, LocalDate from, LocalDate to) {
+        long nights = to.toEpochDay() - from.toEpochDay();
+        return nights <= 0 ? 0.0 : (double) roomNightsSold(room, from, to) / nights;
+    }
+
+    public long roomNightsSold(Room room, LocalDate from, LocalDate to) {
+        DailySeries series = aggregates.byRoom.get(room);
+        return series == null ? 0 : series.nights(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public Money roomRevenue(Room room, LocalDate from, LocalDate to) {
+        DailySeries series = aggregates.byRoom.get(room);
+        long revenue = series == null ? 0 : series.revenue(from.toEpochDay(), to.toEpochDay());
+        return Money.of(revenue, room.getPricePerNight().getCurrency());
+    }
+
+    public Money roomAdr(Room room, LocalDate from, LocalDate to) {
+        return perUnit(roomRevenue(room, from, to), roomNightsSold(room, from, to));
+    }
+
+    public Money roomRevPar(Room room, LocalDate from, LocalDate to) {
+        return perUnit(roomRevenue(room, from, to), Math.max(0, to.toEpochDay() - from.toEpochDay()));
+    }
+
+    public LocalDate getWindowStart() {
+        return LocalDate.ofEpochDay(aggregates.baseDay);
+    }
+
+    public LocalDate getWindowEnd() {
+        Aggregates current = aggregates;
+        return LocalDate.ofEpochDay(current.baseDay + current.days);
+    }
+
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    private DailySeries series(String roomType) {
+        Aggregates current = aggregates;
+        return roomType == null ? current.hotel : current.byType.get(RoomInventory.normalizeType(roomType));
+    }
+
+    private List<Room> rooms(String roomType) {
+        return roomType == null ? inventory.getAll() : inventory.getByType(roomType);
+    }
+
+    private long availableRoomNights(String roomType, LocalDate from, LocalDate to) {
+        return rooms(roomType).size() * Math.max(0, to.toEpochDay() - from.toEpochDay());
+    }
+
+    private static Money perUnit(Money total, long units) {
+        if (units == 0) return Money.zero(total.getCurrency());
+        long minor = total.getMinorUnits();
+        // half-up, like Money.ofMajor
+        long rounded = (Math.abs(minor) + units / 2) / units;
+        return Money.of(minor < 0 ? -rounded : rounded, total.getCurrency());
+    }
+
+    private static Currency currencyOf(List<Room> rooms) {
+        return rooms.isEmpty() ? Money.USD : rooms.get(0).getPricePerNight().getCurrency();
+    }
+
+    private static Aggregates emptyAggregates() {
+        return new Aggregates(LocalDate.now().toEpochDay() - Room.CALENDAR_PAST_DAYS, Room.CALENDAR_HORIZON_DAYS);
+    }
+}
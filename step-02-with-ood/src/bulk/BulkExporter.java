@@ -0,0 +1,135 @@
+package bulk;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import persistence.ReservationCodec;
+import service.CustomerDirectory;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams rooms, customers and confirmed reservations out of a
+ * {@link ReservationService} in the layouts {@link BulkImporter} reads, so
+ * an export can be loaded back as is.
+ */
+public class BulkExporter {
+    private final ReservationService service;
+
+    public BulkExporter(ReservationService service) {
+        this.service = service;
+    }
+
+    public BulkReport exportRooms(Path csv) throws IOException {
+        BulkReport report = new BulkReport("export rooms", "line");
+        try (CsvWriter out = CsvWriter.create(csv)) {
+            out.field("room").field("type").field("price").field("currency").field("maxGuests").endRow();
+            for (Room room : service.getInventory().getAll()) {
+                Money price = room.getPricePerNight();
+                out.field(room.getRoomNumber())
+                    .field(room.getRoomType())
+                    .decimal(price.getMinorUnits(), price.getCurrency().getDefaultFractionDigits())
+                    .field(price.getCurrency().getCurrencyCode())
+                    .field(room.getMaxGuests())
+                    .endRow();
+                report.rowRead();
+                report.accepted();
+            }
+            out.flush();
+            report.finish(out.getBytesWritten());
+        }
+        return report;
+    }
+
+    public BulkReport exportCustomers(Path csv) throws IOException {
+        BulkReport report = new BulkReport("export customers", "line");
+        CustomerDirectory directory = service.getCustomerDirectory();
+        try (CsvWriter out = CsvWriter.create(csv)) {
+            out.field("name").field("email").field("phone").endRow();
+            for (int id = 0, count = directory.size(); id < count; id++) {
+                Customer customer = directory.get(id);
+                out.field(customer.getName()).field(customer.getEmail()).field(customer.getPhoneNumber()).endRow();
+                report.rowRead();
+                report.accepted();
+            }
+            out.flush();
+            report.finish(out.getBytesWritten());
+        }
+        return report;
+    }
+
+    /** Every confirmed reservation, room by room; CSV or binary by file extension. */
+    public BulkReport exportReservations(Path file) throws IOException {
+        return BulkFormat.of(file) == BulkFormat.CSV ? exportReservationsCsv(file) : exportReservationsBinary(file);
+    }
+
+    private BulkReport exportReservationsCsv(Path csv) throws IOException {
+        BulkReport report = new BulkReport("export reservations", "line");
+        try (CsvWriter out = CsvWriter.create(csv)) {
+            out.field("room").field("checkIn").field("checkOut").field("total").field("currency")
+                .field("name").field("email").field("phone").field("bookingTime").endRow();
+            for (Room room : service.getInventory().getAll()) {
+                for (Reservation reservation : room.getReservations()) {
+                    if (!reservation.isConfirmed()) continue;
+                    Money total = reservation.getTotalAmount();
+                    Customer customer = reservation.getCustomer();
+                    out.field(room.getRoomNumber())
+                        .field(reservation.getCheckInDate())
+                        .field(reservation.getCheckOutDate())
+                        .decimal(total.getMinorUnits(), total.getCurrency().getDefaultFractionDigits())
+                        .field(total.getCurrency().getCurrencyCode())
+                        .field(customer.getName())
+                        .field(customer.getEmail())
+                        .field(customer.getPhoneNumber())
+                        .field(reservation.getBookingTime().toString())
+                        .endRow();
+                    report.rowRead();
+                    report.accepted();
+                }
+            }
+            out.flush();
+            report.finish(out.getBytesWritten());
+        }
+        return report;
+    }
+
+    private BulkReport exportReservationsBinary(Path file) throws IOException {
+        BulkReport report = new BulkReport("export reservations", "record");
+        long bytes = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            ReservationCodec.putHeader(ReservationCodec.EXPORT_MAGIC, buffer);
+            for (Room room : service.getInventory().getAll()) {
+                for (Reservation reservation : room.getReservations()) {
+                    if (!reservation.isConfirmed()) continue;
+                    if (ReservationCodec.maxEncodedSize(reservation) > buffer.remaining()) {
+                        bytes += drain(buffer, channel);
+                    }
+                    ReservationCodec.encode(ReservationCodec.CONFIRMED, reservation, buffer);
+                    report.rowRead();
+                    report.accepted();
+                }
+            }
+            bytes += drain(buffer, channel);
+        }
+        report.finish(bytes);
+        return report;
+    }
+
+    private static long drain(ByteBuffer buffer, FileChannel channel) throws IOException {
+        long written = 0;
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+        return written;
+    }
+}
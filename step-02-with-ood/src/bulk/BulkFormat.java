@@ -0,0 +1,18 @@
+package bulk;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/** File format of a bulk load, chosen by extension: *.csv or *.bin. */
+public enum BulkFormat {
+    CSV,
+    // framed records in the journal's encoding (see persistence.ReservationCodec)
+    BINARY;
+
+    public static BulkFormat of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".bin")) return BINARY;
+        throw new IllegalArgumentException("Unknown bulk file type (use .csv or .bin): " + file);
+    }
+}
@@ -0,0 +1,369 @@
+package bulk;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import persistence.ReservationCodec;
+import service.CustomerDirectory;
+import service.ReservationService;
+import service.RoomInventory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams rooms, customers and reservations from CSV or binary files into a
+ * {@link ReservationService}.
+ *
+ * Reservations are parsed on the calling thread and handed out in batches
+ * to a pool with one worker per core; each worker validates its rows and
+ * inserts them through {@link ReservationService#importReservation}, so
+ * conflicts are decided by the same per-room hold-and-confirm as live
+ * bookings. A bad or conflicting row is rejected and reported; the load
+ * carries on. No payment is taken and no confirmation is sent.
+ *
+ * CSV layouts (a header line is optional):
+ *   rooms:        room,type,price[,currency[,maxGuests]]
+ *   customers:    name,email,phone
+ *   reservations: room,checkIn,checkOut,total,currency,name,email,phone[,bookingTime]
+ * An empty total is priced by the service; an empty currency means the room's.
+ * Binary files hold reservations only, with the guest embedded in each record.
+ *
+ * Only reservations are journaled. Imported rooms and customers live as long
+ * as the service does, which is why the command line imports reservations
+ * only.
+ */
+public class BulkImporter {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    private static final int COL_ROOM = 0, COL_CHECK_IN = 1, COL_CHECK_OUT = 2, COL_TOTAL = 3, COL_CURRENCY = 4,
+        COL_NAME = 5, COL_EMAIL = 6, COL_PHONE = 7, COL_BOOKING_TIME = 8;
+
+    private final ReservationService service;
+    private final int batchSize;
+    private final int parallelism;
+
+    // one parsed reservation row; the customer is either raw fields (CSV) or already decoded (binary)
+    private static final class Row {
+        long number;
+        int roomNumber;
+        LocalDate checkIn;
+        LocalDate checkOut;
+        Money total;
+        Currency currency;
+        String name;
+        String email;
+        String phone;
+        Customer customer;
+        LocalDateTime bookingTime;
+    }
+
+    public BulkImporter(ReservationService service) {
+        this(service, DEFAULT_BATCH_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BulkImporter(ReservationService service, int batchSize, int parallelism) {
+        if (batchSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("batchSize and parallelism must be positive");
+        }
+        this.service = service;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    /** Adds every valid room in one inventory update; numbers already taken are rejected. */
+    public BulkReport importRooms(Path csv) throws IOException {
+        BulkReport report = new BulkReport("import rooms", "line");
+        RoomInventory inventory = service.getInventory();
+        List<Room> rooms = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        long bytes;
+        try (CsvReader reader = CsvReader.open(csv)) {
+            while (reader.next()) {
+                if (reader.getLineNumber() == 1 && reader.fieldEquals(0, "room")) continue;
+                report.rowRead();
+                try {
+                    int number = reader.intField(0);
+                    String type = reader.field(1).trim();
+                    Currency currency = reader.fieldCount() > 3 && !reader.isEmpty(3)
+                        ? Currency.getInstance(reader.field(3).trim())
+                        : Money.USD;
+                    Money price = Money.of(reader.decimalField(2, currency.getDefaultFractionDigits()), currency);
+                    int maxGuests = reader.fieldCount() > 4 && !reader.isEmpty(4) ? reader.intField(4) : 2;
+                    if (type.isEmpty() || price.isNegative() || maxGuests <= 0) {
+                        report.reject(reader.getLineNumber(), "type, price or max guests out of range");
+                    } else if (inventory.findByNumber(number) != null || !seen.add(number)) {
+                        report.reject(reader.getLineNumber(), "room " + number + " already exists");
+                    } else {
+                        rooms.add(new Room(number, type, price, maxGuests));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // bad number/date/amount or unknown currency code
+                    report.reject(reader.getLineNumber(), e.getMessage());
+                }
+            }
+            bytes = reader.getBytesRead();
+        }
+        inventory.addRooms(rooms);
+        report.accepted(rooms.size());
+        report.finish(bytes);
+        return report;
+    }
+
+    /** Registers guests; a row matching an existing guest's email or phone is merged into it. */
+    public BulkReport importCustomers(Path csv) throws IOException {
+        BulkReport report = new BulkReport("import customers", "line");
+        CustomerDirectory directory = service.getCustomerDirectory();
+        long bytes;
+        try (CsvReader reader = CsvReader.open(csv)) {
+            while (reader.next()) {
+                if (reader.getLineNumber() == 1 && reader.fieldEquals(0, "name")) continue;
+                report.rowRead();
+                try {
+                    String name = reader.field(0).trim();
+                    String email = reader.field(1).trim();
+                    String phone = reader.field(2).trim();
+                    if (name.isEmpty() || (email.isEmpty() && phone.isEmpty())) {
+                        report.reject(reader.getLineNumber(), "a customer needs a name and an email or phone");
+                        continue;
+                    }
+                    directory.register(name, email, phone);
+                    report.accepted();
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.getLineNumber(), e.getMessage());
+                }
+            }
+            bytes = reader.getBytesRead();
+        }
+        report.finish(bytes);
+        return report;
+    }
+
+    public BulkReport importReservations(Path file) throws IOException {
+        BulkFormat format = BulkFormat.of(file);
+        BulkReport report = new BulkReport("import reservations", format == BulkFormat.CSV ? "line" : "record");
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "bulk-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // at most two batches queued per worker, so parsing cannot run away from inserting
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        try {
+            long bytes = format == BulkFormat.CSV
+                ? readCsvReservations(file, report, workers, inFlight)
+                : readBinaryReservations(file, report, workers, inFlight);
+            inFlight.acquireUninterruptibly(parallelism * 2);
+            report.finish(bytes);
+            return report;
+        } finally {
+            workers.shutdown();
+            try {
+                workers.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long readCsvReservations(Path file, BulkReport report, ExecutorService workers,
+                                     Semaphore inFlight) throws IOException {
+        try (CsvReader reader = CsvReader.open(file)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            Currency lastCurrency = null;
+            while (reader.next()) {
+                if (reader.getLineNumber() == 1 && reader.fieldEquals(0, "room")) continue;
+                report.rowRead();
+                try {
+                    Row row = new Row();
+                    row.number = reader.getLineNumber();
+                    row.roomNumber = reader.intField(COL_ROOM);
+                    row.checkIn = reader.dateField(COL_CHECK_IN);
+                    row.checkOut = reader.dateField(COL_CHECK_OUT);
+                    if (!reader.isEmpty(COL_CURRENCY)) {
+                        if (lastCurrency == null || !reader.fieldEquals(COL_CURRENCY, lastCurrency.getCurrencyCode())) {
+                            lastCurrency = Currency.getInstance(reader.field(COL_CURRENCY).trim());
+                        }
+                        row.currency = lastCurrency;
+                    }
+                    if (!reader.isEmpty(COL_TOTAL)) {
+                        if (row.currency == null) {
+                            throw new IllegalArgumentException("a total needs a currency");
+                        }
+                        row.total = Money.of(reader.decimalField(COL_TOTAL, row.currency.getDefaultFractionDigits()), row.currency);
+                    }
+                    row.name = reader.field(COL_NAME).trim();
+                    row.email = reader.field(COL_EMAIL).trim();
+                    row.phone = reader.field(COL_PHONE).trim();
+                    row.bookingTime = reader.fieldCount() > COL_BOOKING_TIME && !reader.isEmpty(COL_BOOKING_TIME)
+                        ? LocalDateTime.parse(reader.field(COL_BOOKING_TIME).trim())
+                        : LocalDateTime.now();
+                    batch.add(row);
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    report.reject(reader.getLineNumber(), e.getMessage());
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    submit(batch, report, workers, inFlight);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            submit(batch, report, workers, inFlight);
+            return reader.getBytesRead();
+        }
+    }
+
+    private long readBinaryReservations(Path file, BulkReport report, ExecutorService workers,
+                                        Semaphore inFlight) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+            long bytesRead = 0;
+            while (buffer.position() < ReservationCodec.HEADER_SIZE && channel.read(buffer) > 0) {
+                // fill at least the header
+            }
+            bytesRead += buffer.position();
+            buffer.flip();
+            int version;
+            try {
+                version = ReservationCodec.readHeader(ReservationCodec.EXPORT_MAGIC, buffer);
+            } catch (IllegalStateException e) {
+                report.reject(0, "not a reservation export: " + e.getMessage());
+                return bytesRead;
+            }
+            List<Row> batch = new ArrayList<>(batchSize);
+            long records = 0;
+            boolean endOfInput = false;
+            while (true) {
+                ReservationCodec.Record record;
+                try {
+                    record = ReservationCodec.decode(buffer, version);
+                } catch (IllegalStateException e) {
+                    report.reject(records + 1, e.getMessage() + " at byte " + (bytesRead - buffer.remaining())
+                        + "; the rest of the file was skipped");
+                    break;
+                }
+                if (record != null) {
+                    report.rowRead();
+                    records++;
+                    if (record.type != ReservationCodec.CONFIRMED) {
+                        report.reject(records, "not a confirmed reservation");
+                        continue;
+                    }
+                    Row row = new Row();
+                    row.number = records;
+                    row.roomNumber = record.roomNumber;
+                    row.checkIn = record.checkInDate;
+                    row.checkOut = record.checkOutDate;
+                    row.total = record.totalAmount;
+                    row.currency = record.totalAmount.getCurrency();
+                    row.customer = record.customer;
+                    row.bookingTime = record.bookingTime;
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        submit(batch, report, workers, inFlight);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                    continue;
+                }
+                // no whole frame left: read more, unless the buffer is already full or the file is done
+                if (endOfInput || buffer.remaining() == buffer.capacity()) {
+                    if (buffer.hasRemaining()) {
+                        report.reject(0, "truncated record at byte " + (bytesRead - buffer.remaining())
+                            + "; the rest of the file was skipped");
+                    }
+                    break;
+                }
+                buffer.compact();
+                int read = channel.read(buffer);
+                if (read < 0) endOfInput = true;
+                else bytesRead += read;
+                buffer.flip();
+            }
+            submit(batch, report, workers, inFlight);
+            return bytesRead;
+        }
+    }
+
+    private void submit(List<Row> batch, BulkReport report, ExecutorService workers, Semaphore inFlight) {
+        if (batch.isEmpty()) return;
+        inFlight.acquireUninterruptibly();
+        try {
+            workers.execute(() -> {
+                try {
+                    insertBatch(batch, report);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void insertBatch(List<Row> batch, BulkReport report) {
+        RoomInventory inventory = service.getInventory();
+        CustomerDirectory directory = service.getCustomerDirectory();
+        List<CompletableFuture<Void>> durable = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            try {
+                Room room = inventory.findByNumber(row.roomNumber);
+                if (room == null) {
+                    report.reject(row.number, "room " + row.roomNumber + " not found");
+                    continue;
+                }
+                if (!row.checkOut.isAfter(row.checkIn)) {
+                    report.reject(row.number, "check-out must be after check-in");
+                    continue;
+                }
+                Currency roomCurrency = room.getPricePerNight().getCurrency();
+                if (row.currency != null && !row.currency.equals(roomCurrency)) {
+                    report.reject(row.number, "currency " + row.currency + " does not match room " + row.roomNumber
+                        + " (" + roomCurrency + ")");
+                    continue;
+                }
+                Customer customer = row.customer != null
+                    ? directory.intern(row.customer)
+                    : directory.register(row.name, row.email, row.phone);
+                Money total = row.total != null ? row.total : service.quote(room, row.checkIn, row.checkOut);
+                Reservation reservation = new Reservation(customer, room, row.checkIn, row.checkOut,
+                    row.bookingTime, total);
+                CompletableFuture<Void> journaled = service.importReservation(reservation);
+                if (journaled == null) {
+                    report.reject(row.number, "room " + row.roomNumber + " is already booked between "
+                        + row.checkIn + " and " + row.checkOut);
+                    continue;
+                }
+                durable.add(journaled);
+            } catch (RuntimeException e) {
+                report.reject(row.number, e.toString());
+            }
+        }
+        // one wait per batch; the journal commits the whole batch in a few group writes
+        try {
+            CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])).join();
+        } catch (RuntimeException e) {
+            System.out.println("⚠️ Imported reservations confirmed but not journaled: " + e.getMessage());
+        }
+        report.accepted(durable.size());
+    }
+}
@@ -0,0 +1,81 @@
+package bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outcome of one import or export: row counts, bytes, throughput and the
+ * first few rejected rows with their reasons. A rejected row never aborts
+ * the rest of the load.
+ */
+public final class BulkReport {
+    public static final int MAX_REJECTIONS_KEPT = 100;
+
+    private final String operation;
+    private final String rowLabel;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> rejections = new ArrayList<>();
+    private volatile long bytes;
+    private volatile long elapsedNanos = -1;
+
+    BulkReport(String operation, String rowLabel) {
+        this.operation = operation;
+        this.rowLabel = rowLabel;
+    }
+
+    void rowRead() { rows.incrementAndGet(); }
+    void accepted() { accepted.incrementAndGet(); }
+    void accepted(long count) { accepted.addAndGet(count); }
+
+    // row = line number (CSV) or record number (binary); 0 when the reason is not about one row
+    void reject(long row, String reason) {
+        rejected.incrementAndGet();
+        synchronized (rejections) {
+            if (rejections.size() < MAX_REJECTIONS_KEPT) {
+                rejections.add(row > 0 ? rowLabel + " " + row + ": " + reason : reason);
+            }
+        }
+    }
+
+    void finish(long bytes) {
+        this.bytes = bytes;
+        this.elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    public String getOperation() { return operation; }
+    public long getRows() { return rows.get(); }
+    public long getAccepted() { return accepted.get(); }
+    public long getRejected() { return rejected.get(); }
+    public long getBytes() { return bytes; }
+
+    public long getElapsedNanos() {
+        long elapsed = elapsedNanos;
+        return elapsed >= 0 ? elapsed : System.nanoTime() - startNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return getRows() * 1e9 / Math.max(1, getElapsedNanos());
+    }
+
+    /** At most {@link #MAX_REJECTIONS_KEPT} reasons, in the order they were found. */
+    public List<String> getRejections() {
+        synchronized (rejections) {
+            return Collections.unmodifiableList(new ArrayList<>(rejections));
+        }
+    }
+
+    @Override
+    public String toString() {
+        double seconds = getElapsedNanos() / 1e9;
+        return String.format(Locale.ROOT,
+            "%s: %,d rows, %,d ok, %,d rejected in %.2f s (%,.0f rows/s, %.1f MB/s)",
+            operation, getRows(), getAccepted(), getRejected(), seconds,
+            getRowsPerSecond(), bytes / 1e6 / Math.max(seconds, 1e-9));
+    }
+}
@@ -0,0 +1,255 @@
+package bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Streaming CSV cursor over a byte channel. Lines are split and fields
+ * parsed straight out of one reusable buffer: numbers, decimals and dates
+ * never become Strings, and only the fields the caller asks for as text are
+ * decoded. Fields may be double-quoted ("" escapes a quote) but a row must
+ * fit on one line.
+ */
+public final class CsvReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final ReadableByteChannel channel;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private boolean endOfInput;
+    private long lineNumber;
+    private long bytesRead;
+
+    private int lineStart;
+    private int lineEnd;
+    private int fieldCount;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] quoted = new boolean[16];
+
+    public CsvReader(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        buffer.flip();
+    }
+
+    public static CsvReader open(Path file) throws IOException {
+        return new CsvReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /** Moves to the next non-blank line; false at end of input. */
+    public boolean next() throws IOException {
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline < 0) {
+                if (endOfInput) {
+                    if (position == buffer.limit()) return false;
+                    newline = buffer.limit(); // last line without a trailing newline
+                } else {
+                    fill();
+                    continue;
+                }
+            }
+            lineNumber++;
+            lineStart = position;
+            lineEnd = newline > lineStart && bytes[newline - 1] == '\r' ? newline - 1 : newline;
+            position = Math.min(newline + 1, buffer.limit());
+            if (lineEnd > lineStart) {
+                split();
+                return true;
+            }
+        }
+    }
+
+    public long getLineNumber() { return lineNumber; }
+    public long getBytesRead() { return bytesRead; }
+    public int fieldCount() { return fieldCount; }
+
+    public boolean isEmpty(int field) {
+        check(field);
+        return ends[field] == starts[field];
+    }
+
+    public String field(int field) {
+        check(field);
+        String value = new String(bytes, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        return quoted[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    public boolean fieldEquals(int field, String ascii) {
+        check(field);
+        int length = ends[field] - starts[field];
+        if (length != ascii.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (bytes[starts[field] + i] != ascii.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public long longField(int field) {
+        check(field);
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = i < end && bytes[i] == '-';
+        if (negative) i++;
+        if (i == end || end - i > 18) throw bad(field, "number");
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) throw bad(field, "number");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    public int intField(int field) {
+        long value = longField(field);
+        if (value != (int) value) throw bad(field, "number");
+        return (int) value;
+    }
+
+    /**
+     * "250", "250.5" or "250.50" with {@code scale} = 2 → 25050; more decimals
+     * than the scale, or more than 18 digits once padded to it, is an error.
+     */
+    public long decimalField(int field, int scale) {
+        check(field);
+        int i = starts[field];
+        int end = ends[field];
+        boolean negative = i < end && bytes[i] == '-';
+        if (negative) i++;
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digits > 18) throw bad(field, "amount");
+            value = value * 10 + digit;
+            if (fractionDigits >= 0 && ++fractionDigits > scale) throw bad(field, "amount");
+        }
+        int padding = scale - Math.max(fractionDigits, 0);
+        // 18 digits, padding zeros included, always fit a long
+        if (digits == 0 || digits + padding > 18) throw bad(field, "amount");
+        for (int f = 0; f < padding; f++) {
+            value *= 10;
+        }
+        return negative ? -value : value;
+    }
+
+    /** yyyy-MM-dd */
+    public LocalDate dateField(int field) {
+        check(field);
+        int s = starts[field];
+        if (ends[field] - s != 10 || bytes[s + 4] != '-' || bytes[s + 7] != '-') throw bad(field, "date (yyyy-MM-dd)");
+        try {
+            return LocalDate.of(digits(field, s, 4), digits(field, s + 5, 2), digits(field, s + 8, 2));
+        } catch (DateTimeException e) {
+            throw bad(field, "date (yyyy-MM-dd)");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int digits(int field, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) throw bad(field, "date (yyyy-MM-dd)");
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void split() {
+        fieldCount = 0;
+        int i = lineStart;
+        while (true) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                ends = Arrays.copyOf(ends, fieldCount * 2);
+                quoted = Arrays.copyOf(quoted, fieldCount * 2);
+            }
+            int f = fieldCount++;
+            if (i < lineEnd && bytes[i] == '"') {
+                quoted[f] = true;
+                starts[f] = ++i;
+                while (i < lineEnd && !(bytes[i] == '"' && (i + 1 == lineEnd || bytes[i + 1] != '"'))) {
+                    i += bytes[i] == '"' ? 2 : 1;
+                }
+                ends[f] = i;
+                i++; // closing quote
+                while (i < lineEnd && bytes[i] != ',') i++;
+            } else {
+                quoted[f] = false;
+                starts[f] = i;
+                while (i < lineEnd && bytes[i] != ',') i++;
+                ends[f] = i;
+            }
+            if (i >= lineEnd) return;
+            i++; // comma
+        }
+    }
+
+    private int indexOfNewline() {
+        int limit = buffer.limit();
+        for (int i = position; i < limit; i++) {
+            if (bytes[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    // keeps the unread tail, grows only for a line longer than the buffer
+    private void fill() throws IOException {
+        int remaining = buffer.limit() - position;
+        if (position == 0 && remaining == buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            larger.put(bytes, 0, remaining);
+            buffer = larger;
+            bytes = larger.array();
+        } else {
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+            buffer.clear().position(remaining);
+        }
+        position = 0;
+        int read = channel.read(buffer);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            bytesRead += read;
+        }
+        buffer.flip();
+    }
+
+    private void check(int field) {
+        if (field >= fieldCount) {
+            throw new IllegalArgumentException("expected at least " + (field + 1) + " columns");
+        }
+    }
+
+    private IllegalArgumentException bad(int field, String what) {
+        return new IllegalArgumentException("column " + (field + 1) + " is not a valid " + what);
+    }
+}
@@ -0,0 +1,168 @@
+package bulk;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Streaming CSV writer into one reusable buffer, flushed to the channel in
+ * large writes. Numbers, decimals and dates are written digit by digit;
+ * text is quoted only when it contains a comma or a quote.
+ */
+public final class CsvWriter implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    // room for one row's worth of numbers and dates before a flush is forced
+    private static final int ROW_RESERVE = 256;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+    private boolean firstInRow = true;
+    private long bytesWritten;
+
+    public CsvWriter(WritableByteChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+    }
+
+    public static CsvWriter create(Path file) throws IOException {
+        return new CsvWriter(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    public CsvWriter field(String value) throws IOException {
+        separator();
+        boolean needsQuotes = false;
+        boolean ascii = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"') needsQuotes = true;
+            else if (c == '\n' || c == '\r') throw new IllegalArgumentException("CSV fields cannot span lines: " + value);
+            if (c >= 0x80) ascii = false;
+        }
+        if (needsQuotes) value = '"' + value.replace("\"", "\"\"") + '"';
+        if (!ascii || value.length() > buffer.remaining()) {
+            put(value.getBytes(StandardCharsets.UTF_8));
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                buffer.put((byte) value.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        separator();
+        putLong(value);
+        return this;
+    }
+
+    /** Writes {@code minorUnits} with {@code scale} decimals, e.g. 25050 at scale 2 → "250.50". */
+    public CsvWriter decimal(long minorUnits, int scale) throws IOException {
+        separator();
+        if (minorUnits < 0) {
+            buffer.put((byte) '-');
+            minorUnits = -minorUnits;
+        }
+        long divisor = 1;
+        for (int i = 0; i < scale; i++) divisor *= 10;
+        putLong(minorUnits / divisor);
+        if (scale > 0) {
+            buffer.put((byte) '.');
+            long fraction = minorUnits % divisor;
+            for (long pad = divisor / 10; pad > 0; pad /= 10) {
+                buffer.put((byte) ('0' + fraction / pad % 10));
+            }
+        }
+        return this;
+    }
+
+    public CsvWriter field(LocalDate date) throws IOException {
+        separator();
+        putDigits(date.getYear(), 4);
+        buffer.put((byte) '-');
+        putDigits(date.getMonthValue(), 2);
+        buffer.put((byte) '-');
+        putDigits(date.getDayOfMonth(), 2);
+        return this;
+    }
+
+    public CsvWriter endRow() throws IOException {
+        buffer.put((byte) '\n');
+        firstInRow = true;
+        if (buffer.remaining() < ROW_RESERVE) flush();
+        return this;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separator() throws IOException {
+        if (buffer.remaining() < ROW_RESERVE) flush();
+        if (!firstInRow) buffer.put((byte) ',');
+        firstInRow = false;
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flush();
+            if (bytes.length > buffer.remaining()) {
+                ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+                while (wrapped.hasRemaining()) bytesWritten += channel.write(wrapped);
+                return;
+            }
+        }
+        buffer.put(bytes);
+    }
+
+    private void putLong(long value) {
+        if (value < 0) {
+            buffer.put((byte) '-');
+            if (value == Long.MIN_VALUE) {
+                for (byte b : "9223372036854775808".getBytes(StandardCharsets.US_ASCII)) buffer.put(b);
+                return;
+            }
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) digits++;
+        int end = buffer.position() + digits;
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+
+    private void putDigits(int value, int width) {
+        int end = buffer.position() + width;
+        for (int i = end - 1; i >= buffer.position(); i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(end);
+    }
+}
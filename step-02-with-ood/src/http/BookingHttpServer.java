@@ -0,0 +1,351 @@
+package http;
+
+import analytics.OccupancyAnalytics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import interfaces.INotificationMethod;
+import interfaces.IPaymentMethod;
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import registries.NotificationRegistry;
+import registries.PaymentRegistry;
+import service.CustomerDirectory;
+import service.ReservationService;
+import service.RoomSearchCriteria;
+import service.VirtualThreads;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless JSON front end for {@link ReservationService}, on the JDK's
+ * built-in HTTP server with one (virtual, when available) thread per
+ * request, so a booking waiting on its payment never holds up others.
+ *
+ *   GET  /rooms
+ *   GET  /search?checkIn=&checkOut=[&type=&guests=&maxPrice=&cheapestFirst=&offset=&limit=]
+ *   POST /book    {"name","email","phone","room","checkIn","checkOut"[,"payment","notification"]}
+ *   POST /cancel  {"id"}
+ *   GET  /stays?email=|phone=   confirmed stays of one guest
+ *   GET  /occupancy?from=&to=[&type=]   occupancy, ADR and RevPAR
+ *   GET  /metrics (plain text)
+ */
+public class BookingHttpServer {
+    static {
+        // the JDK server leaves Nagle on by default; small JSON responses then wait on delayed ACKs
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // the largest request body read; /book and /cancel need a few hundred bytes
+    static final int MAX_BODY_BYTES = 16 * 1024;
+
+    private final ReservationService reservationService;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public BookingHttpServer(ReservationService reservationService, int port) throws IOException {
+        this.reservationService = reservationService;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = VirtualThreads.newPerTaskExecutor("http");
+        server.setExecutor(executor);
+        server.createContext("/rooms", exchange -> handle(exchange, "GET", this::rooms));
+        server.createContext("/search", exchange -> handle(exchange, "GET", this::search));
+        server.createContext("/book", exchange -> handle(exchange, "POST", this::book));
+        server.createContext("/cancel", exchange -> handle(exchange, "POST", this::cancel));
+        server.createContext("/stays", exchange -> handle(exchange, "GET", this::stays));
+        server.createContext("/occupancy", exchange -> handle(exchange, "GET", this::occupancy));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", this::metrics));
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("🌐 Booking API listening on http://localhost:" + getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface Endpoint {
+        Response serve(HttpExchange exchange) throws IOException;
+    }
+
+    private static final class PayloadTooLargeException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        PayloadTooLargeException() {
+            super("request body larger than " + MAX_BODY_BYTES + " bytes");
+        }
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+        final String contentType;
+
+        Response(int status, String body) {
+            this(status, body, "application/json; charset=utf-8");
+        }
+
+        Response(int status, String body, String contentType) {
+            this.status = status;
+            this.body = body;
+            this.contentType = contentType;
+        }
+    }
+
+    private Response rooms(HttpExchange exchange) {
+        Json.Writer json = Json.writer().beginObject().beginArray("rooms");
+        for (Room room : reservationService.getAvailableRooms()) {
+            writeRoom(json.beginObject(), room).endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response search(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        LocalDate checkIn = LocalDate.parse(required(query, "checkIn"));
+        LocalDate checkOut = LocalDate.parse(required(query, "checkOut"));
+
+        RoomSearchCriteria criteria = new RoomSearchCriteria(checkIn, checkOut);
+        if (query.containsKey("type")) criteria.roomType(query.get("type"));
+        if (query.containsKey("guests")) criteria.guests(Integer.parseInt(query.get("guests")));
+        if (query.containsKey("maxPrice")) criteria.maxPricePerNight(Money.ofMajor(Double.parseDouble(query.get("maxPrice")), Money.USD));
+        if (Boolean.parseBoolean(query.get("cheapestFirst"))) criteria.cheapestFirst();
+        if (query.containsKey("offset") || query.containsKey("limit")) {
+            criteria.page(Integer.parseInt(query.getOrDefault("offset", "0")),
+                Integer.parseInt(query.getOrDefault("limit", String.valueOf(Integer.MAX_VALUE))));
+        }
+
+        List<Room> rooms = reservationService.searchRooms(criteria);
+        Json.Writer json = Json.writer().beginObject().beginArray("rooms");
+        for (Room room : rooms) {
+            writeRoom(json.beginObject(), room)
+                .field("stayTotal", reservationService.quote(room, checkIn, checkOut).toDecimal())
+                .endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response book(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = Json.parseObject(readBody(exchange));
+        String name = requiredString(request, "name");
+        String email = requiredString(request, "email");
+        String phone = requiredString(request, "phone");
+        int roomNumber = requiredNumber(request, "room").intValueExact();
+        LocalDate checkIn = LocalDate.parse(requiredString(request, "checkIn"));
+        LocalDate checkOut = LocalDate.parse(requiredString(request, "checkOut"));
+        IPaymentMethod payment = PaymentRegistry.findByType(optionalString(request, "payment", "credit"));
+        INotificationMethod notification = NotificationRegistry.findByType(optionalString(request, "notification", "email"));
+
+        if (!checkOut.isAfter(checkIn)) {
+            return error(400, "check-out must be after check-in");
+        }
+        if (reservationService.getInventory().findByNumber(roomNumber) == null) {
+            return error(404, "room " + roomNumber + " not found");
+        }
+
+        // only a request that gets as far as booking creates a guest
+        Customer customer = reservationService.getCustomerDirectory().register(name, email, phone);
+        Reservation reservation = reservationService.makeReservation(
+            customer, roomNumber, checkIn, checkOut, payment, notification);
+        if (reservation == null || !reservation.isConfirmed()) {
+            return error(409, "room " + roomNumber + " could not be booked (taken or payment declined)");
+        }
+        Json.Writer json = Json.writer().beginObject()
+            .field("id", reservation.getId())
+            .field("status", reservation.getStatus().name())
+            .field("room", roomNumber)
+            .field("checkIn", checkIn.toString())
+            .field("checkOut", checkOut.toString())
+            .field("total", reservation.getTotalAmount().toDecimal())
+            .field("currency", reservation.getTotalAmount().getCurrency().getCurrencyCode())
+            .endObject();
+        return new Response(201, json.toString());
+    }
+
+    private Response cancel(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = Json.parseObject(readBody(exchange));
+        long id = requiredNumber(request, "id").longValueExact();
+        if (reservationService.findReservation(id) == null) {
+            return error(404, "reservation " + id + " not found");
+        }
+        if (!reservationService.cancelReservation(id)) {
+            return error(409, "reservation " + id + " is not active");
+        }
+        return new Response(200, Json.writer().beginObject()
+            .field("id", id).field("status", "CANCELLED").endObject().toString());
+    }
+
+    private Response stays(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        CustomerDirectory directory = reservationService.getCustomerDirectory();
+        Customer customer = query.containsKey("email")
+            ? directory.findByEmail(query.get("email"))
+            : directory.findByPhone(required(query, "phone"));
+        if (customer == null) {
+            return error(404, "guest not found");
+        }
+        Json.Writer json = Json.writer().beginObject()
+            .field("customerId", customer.getId())
+            .field("name", customer.getName())
+            .beginArray("stays");
+        for (Reservation reservation : directory.getStays(customer.getId())) {
+            json.beginObject()
+                .field("id", reservation.getId())
+                .field("room", reservation.getRoom().getRoomNumber())
+                .field("checkIn", reservation.getCheckInDate().toString())
+                .field("checkOut", reservation.getCheckOutDate().toString())
+                .field("total", reservation.getTotalAmount().toDecimal())
+                .endObject();
+        }
+        return new Response(200, json.endArray().endObject().toString());
+    }
+
+    private Response occupancy(HttpExchange exchange) {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        LocalDate from = LocalDate.parse(required(query, "from"));
+        LocalDate to = LocalDate.parse(required(query, "to"));
+        if (!to.isAfter(from)) {
+            return error(400, "to must be after from");
+        }
+        String roomType = query.get("type");
+        OccupancyAnalytics analytics = reservationService.getAnalytics();
+        String body = Json.writer().beginObject()
+            .field("type", roomType == null ? "all" : roomType)
+            .field("from", from.toString())
+            .field("to", to.toString())
+            .field("occupancy", BigDecimal.valueOf(analytics.occupancyRate(roomType, from, to)).setScale(4, RoundingMode.HALF_UP))
+            .field("roomNightsSold", analytics.nightsSold(roomType, from, to))
+            .field("revenue", analytics.revenue(roomType, from, to).toDecimal())
+            .field("adr", analytics.adr(roomType, from, to).toDecimal())
+            .field("revPar", analytics.revPar(roomType, from, to).toDecimal())
+            .endObject().toString();
+        return new Response(200, body);
+    }
+
+    private Response metrics(HttpExchange exchange) {
+        return new Response(200, reservationService.getMetrics().dump(), "text/plain; charset=utf-8");
+    }
+
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                response = error(405, "use " + method);
+            } else {
+                response = endpoint.serve(exchange);
+            }
+        } catch (PayloadTooLargeException e) {
+            response = error(413, e.getMessage());
+        } catch (DateTimeParseException e) {
+            response = error(400, "dates must be yyyy-MM-dd");
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // NumberFormatException, unknown payment/notification type, malformed JSON
+            response = error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("❌ " + exchange.getRequestURI() + " failed: " + e);
+            response = error(500, "internal error");
+        }
+
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Json.Writer writeRoom(Json.Writer json, Room room) {
+        return json.field("room", room.getRoomNumber())
+            .field("type", room.getRoomType())
+            .field("pricePerNight", room.getPricePerNight().toDecimal())
+            .field("currency", room.getPricePerNight().getCurrency().getCurrencyCode())
+            .field("maxGuests", room.getMaxGuests());
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, Json.writer().beginObject().field("error", message).endObject().toString());
+    }
+
+    // refuses a declared or actual body over MAX_BODY_BYTES without reading more than one byte past it
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            try {
+                if (Long.parseLong(declared.trim()) > MAX_BODY_BYTES) throw new PayloadTooLargeException();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bad Content-Length");
+            }
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) throw new PayloadTooLargeException();
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null) throw new IllegalArgumentException("missing parameter '" + name + "'");
+        return value;
+    }
+
+    private static String requiredString(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof String) || ((String) value).isBlank()) {
+            throw new IllegalArgumentException("missing field '" + name + "'");
+        }
+        return (String) value;
+    }
+
+    private static String optionalString(Map<String, Object> request, String name, String defaultValue) {
+        Object value = request.get(name);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    private static BigDecimal requiredNumber(Map<String, Object> request, String name) {
+        Object value = request.get(name);
+        if (!(value instanceof BigDecimal)) throw new IllegalArgumentException("missing number '" + name + "'");
+        return (BigDecimal) value;
+    }
+}
@@ -0,0 +1,242 @@
+package http;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the booking API: a streaming writer that appends
+ * straight into one StringBuilder, and a parser for flat request objects
+ * whose values are strings, numbers, booleans or null.
+ */
+public final class Json {
+    private Json() {}
+
+    public static Writer writer() {
+        return new Writer();
+    }
+
+    public static final class Writer {
+        private final StringBuilder out = new StringBuilder(256);
+        // true right after '{' / '[' — the next value needs no comma
+        private boolean first = true;
+
+        // top level or array element
+        public Writer beginObject() {
+            separator();
+            out.append('{');
+            first = true;
+            return this;
+        }
+
+        public Writer beginObject(String name) {
+            name(name);
+            out.append('{');
+            first = true;
+            return this;
+        }
+
+        public Writer endObject() {
+            out.append('}');
+            first = false;
+            return this;
+        }
+
+        public Writer beginArray(String name) {
+            name(name);
+            out.append('[');
+            first = true;
+            return this;
+        }
+
+        public Writer endArray() {
+            out.append(']');
+            first = false;
+            return this;
+        }
+
+        public Writer field(String name, String value) {
+            name(name);
+            if (value == null) out.append("null");
+            else appendString(value);
+            return this;
+        }
+
+        public Writer field(String name, long value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        public Writer field(String name, boolean value) {
+            name(name);
+            out.append(value);
+            return this;
+        }
+
+        public Writer field(String name, BigDecimal value) {
+            name(name);
+            out.append(value.toPlainString());
+            return this;
+        }
+
+        private void name(String name) {
+            separator();
+            appendString(name);
+            out.append(':');
+        }
+
+        private void separator() {
+            if (!first) out.append(',');
+            first = false;
+        }
+
+        private void appendString(String value) {
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': out.append("\\\""); break;
+                    case '\\': out.append("\\\\"); break;
+                    case '\n': out.append("\\n"); break;
+                    case '\r': out.append("\\r"); break;
+                    case '\t': out.append("\\t"); break;
+                    default:
+                        if (c < 0x20) out.append(String.format("\\u%04x", (int) c));
+                        else out.append(c);
+                }
+            }
+            out.append('"');
+        }
+
+        @Override
+        public String toString() {
+            return out.toString();
+        }
+    }
+
+    /** Parses {"key": value, ...}; nested objects and arrays are rejected. */
+    public static Map<String, Object> parseObject(String json) {
+        Parser parser = new Parser(json);
+        parser.skipWhitespace();
+        Map<String, Object> result = parser.object();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) throw parser.error("trailing characters");
+        return result;
+    }
+
+    private static final class Parser {
+        private final String in;
+        private int pos;
+
+        Parser(String in) {
+            this.in = in;
+        }
+
+        Map<String, Object> object() {
+            Map<String, Object> values = new LinkedHashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return values;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                values.put(key, value());
+                skipWhitespace();
+                char c = next();
+                if (c == '}') return values;
+                if (c != ',') throw error("expected ',' or '}'");
+            }
+        }
+
+        private Object value() {
+            char c = peek();
+            if (c == '"') return string();
+            if (c == '-' || (c >= '0' && c <= '9')) return number();
+            if (in.startsWith("true", pos)) { pos += 4; return Boolean.TRUE; }
+            if (in.startsWith("false", pos)) { pos += 5; return Boolean.FALSE; }
+            if (in.startsWith("null", pos)) { pos += 4; return null; }
+            throw error("unsupported value");
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return value.toString();
+                if (c < 0x20) throw error("unescaped control character");
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case '"': case '\\': case '/': value.append(escaped); break;
+                    case 'u': value.append(unicodeEscape()); break;
+                    default: throw error("bad escape '\\" + escaped + "'");
+                }
+            }
+        }
+
+        // exactly four ASCII hex digits; Integer.parseInt would also take a sign, Character.digit other scripts
+        private char unicodeEscape() {
+            if (pos + 4 > in.length()) throw error("bad unicode escape");
+            int code = 0;
+            for (int i = 0; i < 4; i++) {
+                char c = in.charAt(pos + i);
+                int digit = c >= '0' && c <= '9' ? c - '0'
+                    : c >= 'a' && c <= 'f' ? c - 'a' + 10
+                    : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+                if (digit < 0) throw error("bad unicode escape");
+                code = code << 4 | digit;
+            }
+            pos += 4;
+            return (char) code;
+        }
+
+        private BigDecimal number() {
+            int start = pos;
+            while (pos < in.length() && "+-0123456789.eE".indexOf(in.charAt(pos)) >= 0) pos++;
+            try {
+                return new BigDecimal(in.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+
+        void skipWhitespace() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) pos++;
+        }
+
+        private char peek() {
+            if (pos >= in.length()) throw error("unexpected end of input");
+            return in.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void expect(char c) {
+            if (next() != c) throw error("expected '" + c + "'");
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + message);
+        }
+    }
+}
@@ -1,12 +1,45 @@
 package implementations;
 
+import interfaces.IAsyncPaymentProcessor;
 import interfaces.IPaymentMethod;
+import interfaces.PluginDescriptor;
+import model.Money;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+@PluginDescriptor(type = "credit", name = "Credit Card")
 public class CreditCardPayment implements IPaymentMethod {
+    private final IAsyncPaymentProcessor gateway;
+
+    public CreditCardPayment() {
+        this(new SimulatedPaymentGateway(Duration.ofMillis(300)));
+    }
+
+    public CreditCardPayment(IAsyncPaymentProcessor gateway) {
+        this.gateway = gateway;
+    }
+
+    @Override
+    public boolean processPayment(Money amount, String customerName) {
+        return processPaymentAsync(amount, customerName).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+        return gateway.processPaymentAsync(amount, customerName).thenApply(approved -> {
+            if (approved) {
+                System.out.println("💳 Credit card payment of " + amount + " for " + customerName + " processed successfully");
+            } else {
+                System.out.println("💳 Credit card payment of " + amount + " for " + customerName + " was declined");
+            }
+            return approved;
+        });
+    }
+
     @Override
-    public boolean processPayment(double amount, String customerName) {
-        System.out.println("💳 Credit card payment of $" + amount + " for " + customerName + " processed successfully");
-        return true;
+    public CompletableFuture<Void> voidPaymentAsync(Money amount, String customerName) {
+        return gateway.voidPaymentAsync(amount, customerName);
     }
 
     @Override
@@ -18,4 +51,4 @@ public class CreditCardPayment implements IPaymentMethod {
     public String getType() {
         return "credit";
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,10 @@
 package implementations;
 
 import interfaces.INotificationMethod;
+import interfaces.PluginDescriptor;
 import model.Customer;
 
+@PluginDescriptor(type = "email", name = "Email")
 public class EmailNotification implements INotificationMethod {
     @Override
     public void sendMessage(String message, String recipient) {
@@ -1,15 +1,26 @@
 package implementations;
 
 import interfaces.IPaymentMethod;
+import interfaces.PluginDescriptor;
+import model.Money;
+
+import java.util.concurrent.CompletableFuture;
 
 //  new class implementing new payment method
+@PluginDescriptor(type = "onsite", name = "On-site Payment")
 public class OnSitePayment implements IPaymentMethod {
     @Override
-    public boolean processPayment(double amount, String customerName) {
-        System.out.println("🏢 On-site payment of $" + amount + " for " + customerName + " received successfully");
+    public boolean processPayment(Money amount, String customerName) {
+        System.out.println("🏢 On-site payment of " + amount + " for " + customerName + " received successfully");
         return true;
     }
 
+    // nothing to wait on at the front desk, so the async path completes immediately
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+        return CompletableFuture.completedFuture(processPayment(amount, customerName));
+    }
+
     @Override
     public String getName() {
         return "On-site Payment";
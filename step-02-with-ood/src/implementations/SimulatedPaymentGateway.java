@@ -0,0 +1,45 @@
+package implementations;
+
+import interfaces.IAsyncPaymentProcessor;
+import model.Money;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Local stand-in for a remote card gateway: answers after a simulated network
+// round trip without parking a thread for the duration of the call.
+public class SimulatedPaymentGateway implements IAsyncPaymentProcessor {
+    private final Duration latency;
+    private final double failureRate;
+
+    public SimulatedPaymentGateway(Duration latency) {
+        this(latency, 0.0);
+    }
+
+    public SimulatedPaymentGateway(Duration latency, double failureRate) {
+        this.latency = latency;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+        Executor afterLatency = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS);
+        return CompletableFuture.supplyAsync(
+            () -> ThreadLocalRandom.current().nextDouble() >= failureRate, afterLatency);
+    }
+
+    // a void is one more round trip and always goes through
+    @Override
+    public CompletableFuture<Void> voidPaymentAsync(Money amount, String customerName) {
+        Executor afterLatency = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS);
+        return CompletableFuture.runAsync(
+            () -> System.out.println("↩️ Payment of " + amount + " for " + customerName + " voided"), afterLatency);
+    }
+
+    public Duration getLatency() {
+        return latency;
+    }
+}
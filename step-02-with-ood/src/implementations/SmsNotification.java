@@ -1,9 +1,11 @@
 package implementations;
 
 import interfaces.INotificationMethod;
+import interfaces.PluginDescriptor;
 import model.Customer;
 
 // new class implementing new notification method
+@PluginDescriptor(type = "sms", name = "SMS")
 public class SmsNotification implements INotificationMethod {
     @Override
     public void sendMessage(String message, String recipient) {
@@ -0,0 +1,19 @@
+package interfaces;
+
+import model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IAsyncPaymentProcessor {
+    CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName);
+
+    /**
+     * Takes back an approved payment nobody waited for (it answered after
+     * the booking gave up on it). Processors that cannot void leave a
+     * refund to the front desk.
+     */
+    default CompletableFuture<Void> voidPaymentAsync(Money amount, String customerName) {
+        System.out.println("↩️ Refund of " + amount + " to " + customerName + " required");
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -1,6 +1,6 @@
 package interfaces;
 
-public interface IPaymentMethod extends IPaymentProcessor {
+public interface IPaymentMethod extends IPaymentProcessor, IAsyncPaymentProcessor {
     String getName();
     String getType();
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package interfaces;
 
+import model.Money;
+
 public interface IPaymentProcessor {
-    boolean processPayment(double amount, String customerName);
+    boolean processPayment(Money amount, String customerName);
 }
\ No newline at end of file
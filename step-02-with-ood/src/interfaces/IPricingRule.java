@@ -0,0 +1,21 @@
+package interfaces;
+
+import java.time.LocalDate;
+
+public interface IPricingRule {
+    int BASIS_POINTS_UNCHANGED = 10_000;
+
+    /**
+     * Multiplier for one night of the given room type, in basis points
+     * (10_000 = base price, 12_000 = +20%). Must be a pure function of its
+     * arguments: results are cached in rate tables.
+     */
+    int basisPoints(String roomType, LocalDate night, int occupancyPercent);
+
+    // قوانینی که به درصد اشغال وابسته‌اند با هر تأیید/لغو رزرو فقط شب‌های همان رزرو را دوباره قیمت می‌دهند
+    default boolean dependsOnOccupancy() {
+        return false;
+    }
+
+    String getName();
+}
@@ -0,0 +1,21 @@
+package interfaces;
+
+import model.Reservation;
+import model.RoomTypeBooking;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IReservationJournal {
+    // completes once the record is durable on disk
+    CompletableFuture<Void> recordConfirmed(Reservation reservation);
+    CompletableFuture<Void> recordRolledBack(Reservation reservation);
+    CompletableFuture<Void> recordCancelled(Reservation reservation);
+
+    // a paid type booking waiting for a room, and its cancellation while it still has none
+    CompletableFuture<Void> recordTypeBooked(RoomTypeBooking booking);
+    CompletableFuture<Void> recordTypeCancelled(RoomTypeBooking booking);
+    // the room a type booking was given; stands in for recordConfirmed of that reservation
+    CompletableFuture<Void> recordAssigned(RoomTypeBooking booking, Reservation reservation);
+
+    void close();
+}
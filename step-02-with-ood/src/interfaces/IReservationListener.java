@@ -0,0 +1,14 @@
+package interfaces;
+
+import model.Reservation;
+
+// called by ReservationService after a stay becomes (or stops being) a confirmed booking
+public interface IReservationListener {
+    void onConfirmed(Reservation reservation);
+
+    void onCancelled(Reservation reservation);
+
+    // a past stay moved out of memory into the history store; it is still a confirmed booking
+    default void onArchived(Reservation reservation) {
+    }
+}
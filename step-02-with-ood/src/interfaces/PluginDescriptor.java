@@ -0,0 +1,18 @@
+package interfaces;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Type and display name of a payment/notification plugin, readable from the
+ * class alone so the registries can list a plugin without instantiating it.
+ * Must match what the instance returns from getType()/getName().
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface PluginDescriptor {
+    String type();
+    String name();
+}
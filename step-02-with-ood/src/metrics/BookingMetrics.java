@@ -0,0 +1,167 @@
+package metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Where booking time goes: one {@link LatencyHistogram} per stage of the
+ * booking flow and per payment / notification type, plus counters for the
+ * ways a booking can fail. Recording never allocates (histograms for a new
+ * payment or notification type are created once, on first sight).
+ * Readable as a text {@link #dump()} or over JMX after {@link #registerMBean}.
+ */
+public class BookingMetrics implements BookingMetricsMXBean {
+    public enum Stage {
+        VALIDATION, ROOM_LOOKUP, AVAILABILITY, PRICING, HOLD, PAYMENT, CONFIRM, JOURNAL, FORMAT, NOTIFICATION,
+        // end to end: TOTAL for bookings that were confirmed, TOTAL_FAILED for every other outcome
+        TOTAL, TOTAL_FAILED
+    }
+
+    private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+    private final Map<String, LatencyHistogram> byPaymentType = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> byNotificationType = new ConcurrentHashMap<>();
+
+    private final LongAdder bookingsStarted = new LongAdder();
+    private final LongAdder bookingsConfirmed = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder paymentFailures = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder expiredHolds = new LongAdder();
+
+    private volatile ObjectName registeredAs;
+
+    public BookingMetrics() {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new LatencyHistogram();
+        }
+    }
+
+    /** Records the time since {@code startNanos} and returns the current time, so stages can be chained. */
+    public long record(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stages[stage.ordinal()].record(now - startNanos);
+        return now;
+    }
+
+    public void recordPayment(String paymentType, long nanos) {
+        histogramFor(byPaymentType, paymentType).record(nanos);
+    }
+
+    public void recordNotification(String notificationType, long nanos) {
+        histogramFor(byNotificationType, notificationType).record(nanos);
+    }
+
+    public void bookingStarted() { bookingsStarted.increment(); }
+    public void bookingConfirmed() { bookingsConfirmed.increment(); }
+    public void conflict() { conflicts.increment(); }
+    public void paymentFailed() { paymentFailures.increment(); }
+    public void rolledBack() { rollbacks.increment(); }
+    public void holdExpired() { expiredHolds.increment(); }
+
+    public LatencyHistogram getStage(Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    @Override public long getBookingsStarted() { return bookingsStarted.sum(); }
+    @Override public long getBookingsConfirmed() { return bookingsConfirmed.sum(); }
+    @Override public long getConflicts() { return conflicts.sum(); }
+    @Override public long getPaymentFailures() { return paymentFailures.sum(); }
+    @Override public long getRollbacks() { return rollbacks.sum(); }
+    @Override public long getExpiredHolds() { return expiredHolds.sum(); }
+
+    @Override
+    public Map<String, Double> getStageP50Micros() {
+        return stagePercentiles(50);
+    }
+
+    @Override
+    public Map<String, Double> getStageP99Micros() {
+        return stagePercentiles(99);
+    }
+
+    @Override
+    public Map<String, Double> getPaymentP99Micros() {
+        return percentiles(byPaymentType, 99);
+    }
+
+    @Override
+    public Map<String, Double> getNotificationP99Micros() {
+        return percentiles(byNotificationType, 99);
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format(Locale.ROOT,
+            "bookings started=%d confirmed=%d conflicts=%d paymentFailures=%d rollbacks=%d expiredHolds=%d%n",
+            getBookingsStarted(), getBookingsConfirmed(), getConflicts(), getPaymentFailures(),
+            getRollbacks(), getExpiredHolds()));
+        out.append(String.format(Locale.ROOT, "%-24s %10s %12s %12s %12s %12s%n",
+            "latency (µs)", "count", "mean", "p50", "p99", "max"));
+        for (Stage stage : Stage.values()) {
+            appendRow(out, "stage." + stage.name().toLowerCase(Locale.ROOT), stages[stage.ordinal()]);
+        }
+        new TreeMap<>(byPaymentType).forEach((type, histogram) -> appendRow(out, "payment." + type, histogram));
+        new TreeMap<>(byNotificationType).forEach((type, histogram) -> appendRow(out, "notification." + type, histogram));
+        return out.toString();
+    }
+
+    public synchronized void registerMBean(String name) {
+        if (registeredAs != null) return;
+        try {
+            ObjectName objectName = new ObjectName("hotel.reservation:type=BookingMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredAs = objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            System.out.println("⚠️ Metrics '" + name + "' already registered over JMX");
+        } catch (JMException e) {
+            System.out.println("⚠️ Could not register metrics over JMX: " + e.getMessage());
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredAs == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(registeredAs);
+        } catch (JMException e) {
+            // already gone
+        }
+        registeredAs = null;
+    }
+
+    private static LatencyHistogram histogramFor(Map<String, LatencyHistogram> byType, String type) {
+        LatencyHistogram histogram = byType.get(type);
+        return histogram != null ? histogram : byType.computeIfAbsent(type, t -> new LatencyHistogram());
+    }
+
+    private Map<String, Double> stagePercentiles(double percentile) {
+        Map<String, Double> result = new TreeMap<>();
+        for (Stage stage : Stage.values()) {
+            result.put(stage.name(), stages[stage.ordinal()].percentileNanos(percentile) / 1_000.0);
+        }
+        return result;
+    }
+
+    private static Map<String, Double> percentiles(Map<String, LatencyHistogram> byType, double percentile) {
+        Map<String, Double> result = new TreeMap<>();
+        byType.forEach((type, histogram) -> result.put(type, histogram.percentileNanos(percentile) / 1_000.0));
+        return result;
+    }
+
+    private static void appendRow(StringBuilder out, String name, LatencyHistogram histogram) {
+        if (histogram.getCount() == 0) return;
+        out.append(String.format(Locale.ROOT, "%-24s %10d %12.1f %12.1f %12.1f %12.1f%n",
+            name, histogram.getCount(), histogram.getMeanNanos() / 1_000.0,
+            histogram.percentileNanos(50) / 1_000.0, histogram.percentileNanos(99) / 1_000.0,
+            histogram.getMaxNanos() / 1_000.0));
+    }
+}
@@ -0,0 +1,21 @@
+package metrics;
+
+import java.util.Map;
+
+// JMX view of BookingMetrics (jconsole: hotel.reservation → BookingMetrics)
+public interface BookingMetricsMXBean {
+    long getBookingsStarted();
+    long getBookingsConfirmed();
+    long getConflicts();
+    long getPaymentFailures();
+    long getRollbacks();
+    long getExpiredHolds();
+
+    // stage → latency in microseconds
+    Map<String, Double> getStageP50Micros();
+    Map<String, Double> getStageP99Micros();
+    Map<String, Double> getPaymentP99Micros();
+    Map<String, Double> getNotificationP99Micros();
+
+    String dump();
+}
@@ -1,16 +1,26 @@
 package model;
 
 public class Customer {
+    // مشتری‌ای که هنوز در CustomerDirectory ثبت نشده
+    public static final int UNREGISTERED = -1;
+
+    private final int id;
     private String name;
     private String email;
     private String phoneNumber;
 
     public Customer(String name, String email, String phoneNumber) {
+        this(UNREGISTERED, name, email, phoneNumber);
+    }
+
+    public Customer(int id, String name, String email, String phoneNumber) {
+        this.id = id;
         this.name = name;
         this.email = email;
         this.phoneNumber = phoneNumber;
     }
 
+    public int getId() { return id; }
     public String getName() { return name; }
     public String getEmail() { return email; }
     public String getPhoneNumber() { return phoneNumber; }
@@ -0,0 +1,122 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * An amount of money as a whole number of minor units (cents for USD) plus
+ * its currency. All arithmetic is exact long arithmetic, so totals never
+ * drift the way summed doubles do; mixing currencies is an error.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Currency USD = Currency.getInstance("USD");
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private final long minorUnits;
+    private final Currency currency;
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money of(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    // برای ورودی‌های اعشاری (مثلاً قیمت‌های ثابت در کد)؛ گرد کردن HALF_UP به واحد خرد
+    public static Money ofMajor(double amount, Currency currency) {
+        BigDecimal minor = BigDecimal.valueOf(amount)
+            .movePointRight(currency.getDefaultFractionDigits())
+            .setScale(0, RoundingMode.HALF_UP);
+        return new Money(minor.longValueExact(), currency);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long factor) {
+        return new Money(Math.multiplyExact(minorUnits, factor), currency);
+    }
+
+    public boolean isZero() { return minorUnits == 0; }
+    public boolean isNegative() { return minorUnits < 0; }
+
+    public long getMinorUnits() { return minorUnits; }
+    public Currency getCurrency() { return currency; }
+
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    /** Appends e.g. "$301.50", "-$5.00" or "CHF 12.00" without going through String.format. */
+    public StringBuilder appendTo(StringBuilder out) {
+        long value = minorUnits;
+        if (value < 0) {
+            out.append('-');
+            // -Long.MIN_VALUE wraps to itself, which read unsigned is the right magnitude
+            value = -value;
+        }
+        String symbol = currency.getSymbol(Locale.US);
+        out.append(symbol);
+        if (symbol.length() > 1) out.append(' ');
+
+        int digits = Math.max(0, currency.getDefaultFractionDigits());
+        long scale = POWERS_OF_TEN[digits];
+        out.append(Long.toUnsignedString(Long.divideUnsigned(value, scale)));
+        if (digits > 0) {
+            out.append('.');
+            long fraction = Long.remainderUnsigned(value, scale);
+            for (long pad = scale / 10; pad > 1 && fraction < pad; pad /= 10) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(16)).toString();
+    }
+}
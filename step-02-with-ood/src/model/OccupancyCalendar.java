@@ -0,0 +1,127 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Booked nights of one room as a bitset over a fixed window of epoch days.
+ * Bit i of the window is night (baseDay + i). A stay check costs one AND per
+ * 64 nights instead of a date comparison per reservation.
+ */
+class OccupancyCalendar {
+    private long baseDay;
+    private final int horizonDays;
+    private final long[] words;
+
+    OccupancyCalendar(long baseDay, int horizonDays) {
+        this.baseDay = baseDay;
+        this.horizonDays = horizonDays;
+        this.words = new long[(horizonDays + 63) >>> 6];
+    }
+
+    long getBaseDay() {
+        return baseDay;
+    }
+
+    long getEndDay() {
+        return baseDay + horizonDays;
+    }
+
+    boolean covers(long fromDay, long toDay) {
+        return fromDay >= baseDay && toDay <= baseDay + horizonDays;
+    }
+
+    // nights [fromDay, toDay) must be inside the window
+    boolean isFree(long fromDay, long toDay) {
+        int from = (int) (fromDay - baseDay);
+        int to = (int) (toDay - baseDay);
+        if (from >= to) return true;
+
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << (from & 63);
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) == 0;
+        }
+        if ((words[firstWord] & firstMask) != 0) return false;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (words[i] != 0) return false;
+        }
+        return (words[lastWord] & lastMask) == 0;
+    }
+
+    void mark(long fromDay, long toDay) {
+        update(fromDay, toDay, true);
+    }
+
+    void clear(long fromDay, long toDay) {
+        update(fromDay, toDay, false);
+    }
+
+    /** First free night in [fromDay, toDay), or -1; days outside the window count as unknown. */
+    long nextFreeNight(long fromDay, long toDay) {
+        int from = (int) (Math.max(fromDay, baseDay) - baseDay);
+        int to = (int) (Math.min(toDay, baseDay + horizonDays) - baseDay);
+        for (int i = from; i < to; ) {
+            long free = ~words[i >>> 6] & (-1L << (i & 63));
+            if (free != 0) {
+                int night = (i & ~63) + Long.numberOfTrailingZeros(free);
+                return night < to ? baseDay + night : -1;
+            }
+            i = (i & ~63) + 64;
+        }
+        return -1;
+    }
+
+    /** Booked nights in [fromDay, toDay), clipped to the window. */
+    int countBooked(long fromDay, long toDay) {
+        int count = 0;
+        int from = (int) (Math.max(fromDay, baseDay) - baseDay);
+        int to = (int) (Math.min(toDay, baseDay + horizonDays) - baseDay);
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            long mask = (-1L << (i & 63)) & (-1L >>> (63 - ((end - 1) & 63)));
+            count += Long.bitCount(words[word] & mask);
+            i = end;
+        }
+        return count;
+    }
+
+    /** counts[d] += 1 for every booked night fromDay + d, clipped to the window. */
+    void addBookedNights(long fromDay, int[] counts) {
+        int from = (int) (Math.max(fromDay, baseDay) - baseDay);
+        int to = (int) (Math.min(fromDay + counts.length, baseDay + horizonDays) - baseDay);
+        int offset = (int) (baseDay - fromDay);
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            long booked = words[word] & (-1L << (i & 63));
+            while (booked != 0) {
+                int night = (word << 6) + Long.numberOfTrailingZeros(booked);
+                if (night >= to) break;
+                counts[night + offset]++;
+                booked &= booked - 1;
+            }
+            i = (word + 1) << 6;
+        }
+    }
+
+    /** Moves the window start and clears it; the caller re-marks the stays it still holds. */
+    void reset(long newBaseDay) {
+        baseDay = newBaseDay;
+        Arrays.fill(words, 0L);
+    }
+
+    private void update(long fromDay, long toDay, boolean booked) {
+        int from = (int) (Math.max(fromDay, baseDay) - baseDay);
+        int to = (int) (Math.min(toDay, baseDay + horizonDays) - baseDay);
+        for (int i = from; i < to; ) {
+            int word = i >>> 6;
+            int end = Math.min(to, (word + 1) << 6);
+            long mask = (-1L << (i & 63)) & (-1L >>> (63 - ((end - 1) & 63)));
+            if (booked) words[word] |= mask;
+            else words[word] &= ~mask;
+            i = end;
+        }
+    }
+}
@@ -4,41 +4,96 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Reservation {
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final long id;
     private Customer customer;
     private Room room;
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
     private LocalDateTime bookingTime;
-    private double totalAmount;
-    private boolean isConfirmed;
+    private Money totalAmount;
+    private volatile ReservationStatus status;
 
     public Reservation(Customer customer, Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        this.id = NEXT_ID.getAndIncrement();
         this.customer = customer;
         this.room = room;
         this.checkInDate = checkInDate;
         this.checkOutDate = checkOutDate;
         this.bookingTime = LocalDateTime.now();
         this.totalAmount = calculateTotalAmount(room, checkInDate, checkOutDate);
-        this.isConfirmed = false;
+        this.status = ReservationStatus.PENDING;
+    }
+
+    // مبلغ از موتور قیمت‌گذاری می‌آید (نرخ شبانه متغیر)
+    public Reservation(Customer customer, Room room, LocalDate checkInDate, LocalDate checkOutDate, Money totalAmount) {
+        this(customer, room, checkInDate, checkOutDate, LocalDateTime.now(), totalAmount);
+    }
+
+    // برای بازسازی رزروهای ذخیره‌شده (زمان و مبلغ اصلی حفظ می‌شود)
+    public Reservation(Customer customer, Room room, LocalDate checkInDate, LocalDate checkOutDate,
+                       LocalDateTime bookingTime, Money totalAmount) {
+        this(NEXT_ID.getAndIncrement(), customer, room, checkInDate, checkOutDate, bookingTime, totalAmount);
     }
 
-    private double calculateTotalAmount(Room room, LocalDate checkIn, LocalDate checkOut) {
+    // بازسازی با شناسه اصلی؛ شناسه‌های بعدی همیشه از آن بزرگ‌ترند
+    public Reservation(long id, Customer customer, Room room, LocalDate checkInDate, LocalDate checkOutDate,
+                       LocalDateTime bookingTime, Money totalAmount) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Reservation id must be positive: " + id);
+        }
+        reserveIdsThrough(id);
+        this.id = id;
+        this.customer = customer;
+        this.room = room;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.bookingTime = bookingTime;
+        this.totalAmount = totalAmount;
+        this.status = ReservationStatus.PENDING;
+    }
+
+    /** Ids handed out from now on are all greater than {@code id}. */
+    public static void reserveIdsThrough(long id) {
+        NEXT_ID.accumulateAndGet(id + 1, Math::max);
+    }
+
+    public static long peekNextId() {
+        return NEXT_ID.get();
+    }
+
+    private Money calculateTotalAmount(Room room, LocalDate checkIn, LocalDate checkOut) {
         long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
-        return nights * room.getPricePerNight();
+        return room.getPricePerNight().times(nights);
     }
 
     // Getters
+    public long getId() { return id; }
     public Customer getCustomer() { return customer; }
     public Room getRoom() { return room; }
     public LocalDate getCheckInDate() { return checkInDate; }
     public LocalDate getCheckOutDate() { return checkOutDate; }
     public LocalDateTime getBookingTime() { return bookingTime; }
-    public double getTotalAmount() { return totalAmount; }
-    public boolean isConfirmed() { return isConfirmed; }
-    
-    public void confirm() { this.isConfirmed = true; }
+    public Money getTotalAmount() { return totalAmount; }
+    public ReservationStatus getStatus() { return status; }
+    public boolean isConfirmed() { return status == ReservationStatus.CONFIRMED; }
+    public boolean isPending() { return status == ReservationStatus.PENDING; }
+
+    public void confirm() { transitionTo(ReservationStatus.CONFIRMED); }
+    public void cancel() { transitionTo(ReservationStatus.CANCELLED); }
+    public void expire() { transitionTo(ReservationStatus.EXPIRED); }
+
+    private synchronized void transitionTo(ReservationStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new IllegalStateException("Reservation " + id + " cannot go from " + status + " to " + next);
+        }
+        status = next;
+    }
     
     public boolean overlapsWith(LocalDate start, LocalDate end) {
         return (checkInDate.isBefore(end) && checkOutDate.isAfter(start));
@@ -46,12 +101,12 @@ public class Reservation {
     
     @Override
     public String toString() {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        return String.format("Reservation: %s | Room: %d | %s to %s | $%.2f",
+        return String.format("Reservation #%d: %s | Room: %d | %s to %s | %s",
+            id,
             customer.getName(),
             room.getRoomNumber(),
-            checkInDate.format(dateFormatter),
-            checkOutDate.format(dateFormatter),
+            checkInDate.format(DATE_FORMATTER),
+            checkOutDate.format(DATE_FORMATTER),
             totalAmount
         );
     }
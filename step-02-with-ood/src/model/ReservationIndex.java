@@ -0,0 +1,52 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-room index of confirmed reservations keyed on check-in epoch day.
+ * Confirmed stays of one room never overlap, so the only stay that can
+ * overlap [checkIn, checkOut) is the one with the latest check-in before
+ * checkOut — a single floor lookup, O(log n).
+ */
+class ReservationIndex {
+    private final TreeMap<Long, Reservation> byCheckIn = new TreeMap<>();
+
+    boolean isFree(LocalDate checkInDate, LocalDate checkOutDate) {
+        return findOverlap(checkInDate, checkOutDate) == null;
+    }
+
+    Reservation findOverlap(LocalDate checkInDate, LocalDate checkOutDate) {
+        Map.Entry<Long, Reservation> candidate = byCheckIn.lowerEntry(checkOutDate.toEpochDay());
+        if (candidate == null) return null;
+
+        Reservation reservation = candidate.getValue();
+        return reservation.getCheckOutDate().isAfter(checkInDate) ? reservation : null;
+    }
+
+    boolean add(Reservation reservation) {
+        if (!isFree(reservation.getCheckInDate(), reservation.getCheckOutDate())) {
+            return false;
+        }
+        byCheckIn.put(reservation.getCheckInDate().toEpochDay(), reservation);
+        return true;
+    }
+
+    boolean remove(Reservation reservation) {
+        return byCheckIn.remove(reservation.getCheckInDate().toEpochDay(), reservation);
+    }
+
+    Reservation get(LocalDate checkInDate) {
+        return byCheckIn.get(checkInDate.toEpochDay());
+    }
+
+    Collection<Reservation> all() {
+        return byCheckIn.values();
+    }
+
+    int size() {
+        return byCheckIn.size();
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+// PENDING → CONFIRMED → CANCELLED, or PENDING → CANCELLED / EXPIRED
+public enum ReservationStatus {
+    PENDING,
+    CONFIRMED,
+    CANCELLED,
+    EXPIRED;
+
+    public boolean canTransitionTo(ReservationStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == CONFIRMED || next == CANCELLED || next == EXPIRED;
+            case CONFIRMED:
+                return next == CANCELLED;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isLive() {
+        return this == PENDING || this == CONFIRMED;
+    }
+}
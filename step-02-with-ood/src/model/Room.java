@@ -5,38 +5,226 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Room {
+    // تقویم اشغال: یک سال گذشته تا دو سال آینده
+    public static final int CALENDAR_PAST_DAYS = 366;
+    public static final int CALENDAR_HORIZON_DAYS = 3 * 366;
+
     private int roomNumber;
     private String roomType;
-    private double pricePerNight;
+    private final Money pricePerNight;
+    private int maxGuests;
     private List<Reservation> reservations;
+    private final ReservationIndex confirmedIndex = new ReservationIndex();
+    private final List<Reservation> pendingHolds = new ArrayList<>();
+    private final OccupancyCalendar calendar = new OccupancyCalendar(
+        LocalDate.now().toEpochDay() - CALENDAR_PAST_DAYS, CALENDAR_HORIZON_DAYS);
 
     public Room(int roomNumber, String roomType, double pricePerNight) {
+        this(roomNumber, roomType, pricePerNight, 2);
+    }
+
+    public Room(int roomNumber, String roomType, double pricePerNight, int maxGuests) {
+        this(roomNumber, roomType, Money.ofMajor(pricePerNight, Money.USD), maxGuests);
+    }
+
+    public Room(int roomNumber, String roomType, Money pricePerNight, int maxGuests) {
         this.roomNumber = roomNumber;
         this.roomType = roomType;
         this.pricePerNight = pricePerNight;
+        this.maxGuests = maxGuests;
         this.reservations = new ArrayList<>();
     }
 
-    public boolean isAvailable(LocalDate checkInDate, LocalDate checkOutDate) {
-        for (Reservation reservation : reservations) {
-            if (reservation.isConfirmed() && 
-                reservation.overlapsWith(checkInDate, checkOutDate)) {
-                return false;
-            }
+    // همه متدهای وضعیت‌دار روی مانیتور همین اتاق قفل می‌شوند؛ اتاق‌های مختلف کاملاً موازی‌اند
+    public synchronized boolean isAvailable(LocalDate checkInDate, LocalDate checkOutDate) {
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        boolean free = calendar.covers(from, to)
+            ? calendar.isFree(from, to)
+            : confirmedIndex.isFree(checkInDate, checkOutDate);
+        if (!free) {
+            return false;
+        }
+        for (Reservation hold : pendingHolds) {
+            if (hold.overlapsWith(checkInDate, checkOutDate)) return false;
         }
         return true;
     }
 
-    public void addReservation(Reservation reservation) {
+    /**
+     * Atomic check-then-insert: the reservation is added as a pending hold
+     * only if no confirmed stay or other hold overlaps it.
+     */
+    public synchronized boolean tryHold(Reservation reservation) {
+        if (!isAvailable(reservation.getCheckInDate(), reservation.getCheckOutDate())) {
+            return false;
+        }
         reservations.add(reservation);
+        pendingHolds.add(reservation);
+        return true;
+    }
+
+    public synchronized void addReservation(Reservation reservation) {
+        reservations.add(reservation);
+        if (reservation.isConfirmed() && confirmedIndex.add(reservation)) {
+            markNights(reservation);
+        }
+    }
+
+    // confirm + index در یک قدم، تا index فقط رزروهای تأییدشده را داشته باشد
+    public synchronized boolean confirmReservation(Reservation reservation) {
+        // only a live hold can be confirmed; an expired or released one is gone
+        if (!pendingHolds.remove(reservation)
+                || !confirmedIndex.isFree(reservation.getCheckInDate(), reservation.getCheckOutDate())) {
+            return false;
+        }
+        reservation.confirm();
+        confirmedIndex.add(reservation);
+        markNights(reservation);
+        return true;
+    }
+
+    // لغو هولد (مثلاً پرداخت ناموفق): PENDING → CANCELLED و حذف از لیست
+    public synchronized boolean releaseHold(Reservation reservation) {
+        if (!pendingHolds.remove(reservation)) return false;
+        reservation.cancel();
+        reservations.remove(reservation);
+        return true;
+    }
+
+    public synchronized boolean expireHold(Reservation reservation) {
+        if (!pendingHolds.remove(reservation)) return false;
+        reservation.expire();
+        reservations.remove(reservation);
+        return true;
+    }
+
+    public synchronized boolean cancelReservation(Reservation reservation) {
+        if (!reservation.isConfirmed() || !confirmedIndex.remove(reservation)) return false;
+        calendar.clear(reservation.getCheckInDate().toEpochDay(), reservation.getCheckOutDate().toEpochDay());
+        reservation.cancel();
+        reservations.remove(reservation);
+        return true;
+    }
+
+    /**
+     * Atomically swaps a confirmed stay for a new one in this room: the new
+     * dates are checked as if the old stay were already gone, and the old
+     * stay is kept untouched if they are not free.
+     */
+    public synchronized boolean reschedule(Reservation current, Reservation replacement) {
+        if (!current.isConfirmed() || !confirmedIndex.remove(current)) return false;
+        calendar.clear(current.getCheckInDate().toEpochDay(), current.getCheckOutDate().toEpochDay());
+
+        if (!isAvailable(replacement.getCheckInDate(), replacement.getCheckOutDate())) {
+            confirmedIndex.add(current);
+            markNights(current);
+            return false;
+        }
+        current.cancel();
+        reservations.remove(current);
+
+        replacement.confirm();
+        reservations.add(replacement);
+        confirmedIndex.add(replacement);
+        markNights(replacement);
+        return true;
+    }
+
+    public synchronized Reservation findConfirmed(LocalDate checkInDate) {
+        return confirmedIndex.get(checkInDate);
+    }
+
+    public synchronized boolean removeReservation(Reservation reservation) {
+        pendingHolds.remove(reservation);
+        if (confirmedIndex.remove(reservation)) {
+            calendar.clear(reservation.getCheckInDate().toEpochDay(), reservation.getCheckOutDate().toEpochDay());
+        }
+        return reservations.remove(reservation);
+    }
+
+    /** Nights in [from, to) with no confirmed stay, found by scanning the occupancy bitset. */
+    public synchronized List<LocalDate> findFreeNights(LocalDate from, LocalDate to) {
+        List<LocalDate> free = new ArrayList<>();
+        long end = to.toEpochDay();
+        for (long day = from.toEpochDay(); day < end; ) {
+            if (calendar.covers(day, day + 1)) {
+                long windowEnd = Math.min(end, calendar.getEndDay());
+                long next = calendar.nextFreeNight(day, windowEnd);
+                if (next < 0) {
+                    day = windowEnd;
+                    continue;
+                }
+                day = next;
+            } else if (!confirmedIndex.isFree(LocalDate.ofEpochDay(day), LocalDate.ofEpochDay(day + 1))) {
+                day++;
+                continue;
+            }
+            free.add(LocalDate.ofEpochDay(day));
+            day++;
+        }
+        return free;
+    }
+
+    /**
+     * For a stay that fits this room: how many free nights directly precede
+     * and follow it, each counted up to {@code limit}. Null if the stay does
+     * not fit.
+     */
+    public synchronized int[] freeNightsAround(LocalDate checkInDate, LocalDate checkOutDate, int limit) {
+        if (!isAvailable(checkInDate, checkOutDate)) {
+            return null;
+        }
+        long checkIn = checkInDate.toEpochDay();
+        long checkOut = checkOutDate.toEpochDay();
+        int before = 0;
+        while (before < limit && isNightFree(checkIn - before - 1)) before++;
+        int after = 0;
+        while (after < limit && isNightFree(checkOut + after)) after++;
+        return new int[] {before, after};
+    }
+
+    private boolean isNightFree(long day) {
+        return calendar.covers(day, day + 1)
+            ? calendar.isFree(day, day + 1) && !heldOn(day)
+            : isAvailable(LocalDate.ofEpochDay(day), LocalDate.ofEpochDay(day + 1));
+    }
+
+    private boolean heldOn(long day) {
+        for (Reservation hold : pendingHolds) {
+            if (hold.getCheckInDate().toEpochDay() <= day && hold.getCheckOutDate().toEpochDay() > day) return true;
+        }
+        return false;
+    }
+
+    public synchronized int countBookedNights(LocalDate from, LocalDate to) {
+        return calendar.countBooked(from.toEpochDay(), to.toEpochDay());
+    }
+
+    // برای محاسبه درصد اشغال: counts[d]++ برای هر شب رزروشده from + d (فقط داخل پنجره تقویم)
+    public synchronized void addBookedNights(LocalDate from, int[] counts) {
+        calendar.addBookedNights(from.toEpochDay(), counts);
+    }
+
+    // جابه‌جایی پنجره تقویم (مثلاً روزانه) و بازسازی آن از index
+    public synchronized void rollCalendar(LocalDate today) {
+        calendar.reset(today.toEpochDay() - CALENDAR_PAST_DAYS);
+        for (Reservation reservation : confirmedIndex.all()) {
+            markNights(reservation);
+        }
+    }
+
+    private void markNights(Reservation reservation) {
+        calendar.mark(reservation.getCheckInDate().toEpochDay(), reservation.getCheckOutDate().toEpochDay());
     }
 
-    public List<Reservation> getReservations() {
+    public synchronized List<Reservation> getReservations() {
         return new ArrayList<>(reservations);
     }
 
     // Getters
     public int getRoomNumber() { return roomNumber; }
     public String getRoomType() { return roomType; }
-    public double getPricePerNight() { return pricePerNight; }
+    public Money getPricePerNight() { return pricePerNight; }
+    public int getMaxGuests() { return maxGuests; }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package model;
+
+import java.time.LocalDate;
+
+// one line of a group booking request: which room, which nights
+public class RoomStay {
+    private final int roomNumber;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+
+    public RoomStay(int roomNumber, LocalDate checkInDate, LocalDate checkOutDate) {
+        this.roomNumber = roomNumber;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+    }
+
+    // Getters
+    public int getRoomNumber() { return roomNumber; }
+    public LocalDate getCheckInDate() { return checkInDate; }
+    public LocalDate getCheckOutDate() { return checkOutDate; }
+}
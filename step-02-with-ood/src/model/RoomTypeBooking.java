@@ -0,0 +1,96 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A paid stay in "a room of this type". It holds a unit of the type's
+ * nightly capacity until a concrete room is assigned, at which point it
+ * points at the confirmed {@link Reservation} for that room.
+ */
+public class RoomTypeBooking {
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    private final long id;
+    private final Customer customer;
+    private final String roomType;
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private final LocalDateTime bookingTime;
+    private final Money totalAmount;
+    private volatile ReservationStatus status = ReservationStatus.PENDING;
+    private volatile Reservation assignment;
+
+    public RoomTypeBooking(Customer customer, String roomType, LocalDate checkInDate, LocalDate checkOutDate,
+                           Money totalAmount) {
+        this(NEXT_ID.getAndIncrement(), customer, roomType, checkInDate, checkOutDate, LocalDateTime.now(), totalAmount);
+    }
+
+    // بازسازی از ژورنال با شناسه و زمان اصلی؛ شناسه‌های بعدی همیشه از آن بزرگ‌ترند
+    public RoomTypeBooking(long id, Customer customer, String roomType, LocalDate checkInDate, LocalDate checkOutDate,
+                           LocalDateTime bookingTime, Money totalAmount) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Booking id must be positive: " + id);
+        }
+        reserveIdsThrough(id);
+        this.id = id;
+        this.customer = customer;
+        this.roomType = roomType;
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.bookingTime = bookingTime;
+        this.totalAmount = totalAmount;
+    }
+
+    /** Ids handed out from now on are all greater than {@code id}. */
+    public static void reserveIdsThrough(long id) {
+        NEXT_ID.accumulateAndGet(id + 1, Math::max);
+    }
+
+    public static long peekNextId() {
+        return NEXT_ID.get();
+    }
+
+    // Getters
+    public long getId() { return id; }
+    public Customer getCustomer() { return customer; }
+    public String getRoomType() { return roomType; }
+    public LocalDate getCheckInDate() { return checkInDate; }
+    public LocalDate getCheckOutDate() { return checkOutDate; }
+    public LocalDateTime getBookingTime() { return bookingTime; }
+    public Money getTotalAmount() { return totalAmount; }
+    public ReservationStatus getStatus() { return status; }
+    public Reservation getAssignment() { return assignment; }
+    public boolean isAssigned() { return assignment != null; }
+
+    public synchronized void confirm() { transitionTo(ReservationStatus.CONFIRMED); }
+    public synchronized void cancel() { transitionTo(ReservationStatus.CANCELLED); }
+
+    public synchronized void assign(Reservation reservation) {
+        if (status != ReservationStatus.CONFIRMED || assignment != null) {
+            throw new IllegalStateException("Booking T-" + id + " cannot be assigned (" + status + ")");
+        }
+        this.assignment = reservation;
+    }
+
+    private void transitionTo(ReservationStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new IllegalStateException("Booking T-" + id + " cannot go from " + status + " to " + next);
+        }
+        status = next;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Booking T-%d: %s | %s%s | %s to %s | %s",
+            id,
+            customer.getName(),
+            roomType,
+            assignment != null ? " → room " + assignment.getRoom().getRoomNumber() : " (room not assigned)",
+            checkInDate,
+            checkOutDate,
+            totalAmount
+        );
+    }
+}
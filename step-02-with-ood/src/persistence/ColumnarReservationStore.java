@@ -0,0 +1,318 @@
+package persistence;
+
+import model.Customer;
+import model.Reservation;
+import service.CustomerDirectory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Off-heap, memory-mapped store for historical reservations.
+ *
+ * Each field lives in its own file (one column), so a scan touches only the
+ * columns it needs and the data never enters the Java heap:
+ * check-in/check-out as int epoch days, room number, customer id and ISO
+ * currency number as ints, booking time as long epoch millis and amount as
+ * long minor units. Rows are append-only; read them through a
+ * {@link ReservationView}.
+ *
+ * The customer column indexes the store's own guest table (name, email and
+ * phone, appended to {@code guests.dat} once per guest key), not the
+ * {@link CustomerDirectory}'s ids, which are handed out again on every
+ * start. A guest keeps its row in the table across restarts.
+ *
+ * Appends become durable on {@link #force()}, which flushes the guest
+ * table and the columns before it records the new row count, so a crash
+ * never leaves the count ahead of the data.
+ */
+public class ColumnarReservationStore implements AutoCloseable {
+    private static final int INITIAL_ROWS = 1 << 16;
+    // a mapping is indexed by int, so the widest column must stay below 2 GiB
+    static final int MAX_ROWS = Integer.MAX_VALUE / Long.BYTES;
+
+    private final Column checkIn;
+    private final Column checkOut;
+    private final Column room;
+    private final Column customer;
+    private final Column currency;
+    private final Column bookingTime;
+    private final Column amount;
+    private final Column meta;
+    private final Column[] columns;
+    private final FileChannel guestFile;
+    private final List<Customer> guests = new ArrayList<>();
+    private final Map<String, Integer> guestIds = new HashMap<>();
+    private long guestBytes;
+    private volatile int size;
+    private int capacity;
+
+    private static final class Column {
+        final FileChannel channel;
+        final int width;
+        // replaced by a larger mapping under the store's lock, read without it
+        volatile MappedByteBuffer buffer;
+
+        Column(Path file, int width) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.width = width;
+        }
+
+        void map(int rows) throws IOException {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) rows * width);
+            mapped.order(ByteOrder.nativeOrder());
+            buffer = mapped;
+        }
+
+        int offset(int row) {
+            return (int) ((long) row * width);
+        }
+    }
+
+    public ColumnarReservationStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        checkIn = new Column(directory.resolve("check_in.i32"), Integer.BYTES);
+        checkOut = new Column(directory.resolve("check_out.i32"), Integer.BYTES);
+        room = new Column(directory.resolve("room.i32"), Integer.BYTES);
+        customer = new Column(directory.resolve("customer.i32"), Integer.BYTES);
+        currency = new Column(directory.resolve("currency.i32"), Integer.BYTES);
+        bookingTime = new Column(directory.resolve("booked_at.i64"), Long.BYTES);
+        amount = new Column(directory.resolve("amount_minor.i64"), Long.BYTES);
+        meta = new Column(directory.resolve("rows.meta"), Integer.BYTES);
+        columns = new Column[] {checkIn, checkOut, room, customer, currency, bookingTime, amount};
+        guestFile = FileChannel.open(directory.resolve("guests.dat"), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        loadGuests();
+
+        meta.map(1);
+        size = meta.buffer.getInt(0);
+        capacity = capacityFor(size);
+        mapColumns(capacity);
+    }
+
+    /** Appends a stay under {@code guest}'s row in the guest table, adding one for a new guest. */
+    public synchronized int append(Reservation reservation, Customer guest) throws IOException {
+        return append(
+            reservation.getRoom().getRoomNumber(),
+            guestId(guest),
+            (int) reservation.getCheckInDate().toEpochDay(),
+            (int) reservation.getCheckOutDate().toEpochDay(),
+            reservation.getBookingTime().toInstant(ZoneOffset.UTC).toEpochMilli(),
+            reservation.getTotalAmount().getMinorUnits(),
+            reservation.getTotalAmount().getCurrency().getNumericCode());
+    }
+
+    public synchronized int append(int roomNumber, int customerId, int checkInEpochDay, int checkOutEpochDay,
+                                   long bookingTimeMillis, long amountMinor, int currencyNumericCode) throws IOException {
+        int row = size;
+        if (row == capacity) {
+            if (capacity == MAX_ROWS) {
+                throw new IllegalStateException("History store is full (" + MAX_ROWS + " rows)");
+            }
+            capacity = (int) Math.min(MAX_ROWS, 2L * capacity);
+            mapColumns(capacity);
+        }
+        room.buffer.putInt(room.offset(row), roomNumber);
+        customer.buffer.putInt(customer.offset(row), customerId);
+        checkIn.buffer.putInt(checkIn.offset(row), checkInEpochDay);
+        checkOut.buffer.putInt(checkOut.offset(row), checkOutEpochDay);
+        currency.buffer.putInt(currency.offset(row), currencyNumericCode);
+        bookingTime.buffer.putLong(bookingTime.offset(row), bookingTimeMillis);
+        amount.buffer.putLong(amount.offset(row), amountMinor);
+        // volatile write after the row: a scan that sees the new size sees the row
+        size = row + 1;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The guest with this customer id, or null for ids the table does not hold. */
+    public synchronized Customer guest(int customerId) {
+        return customerId >= 0 && customerId < guests.size() ? guests.get(customerId) : null;
+    }
+
+    public synchronized int guestCount() {
+        return guests.size();
+    }
+
+    /**
+     * Forgets rows appended after the first {@code rows}, e.g. ones written
+     * by an archive pass that crashed before it was committed elsewhere.
+     */
+    public synchronized void truncate(int rows) {
+        if (rows < 0 || rows > size) {
+            throw new IllegalArgumentException("Cannot truncate " + size + " rows to " + rows);
+        }
+        size = rows;
+        meta.buffer.putInt(0, rows);
+        meta.buffer.force();
+    }
+
+    public ReservationView newView() {
+        return new ReservationView(this);
+    }
+
+    /** Visits every row with one reused view; the view must not escape the callback. */
+    public void forEach(Consumer<ReservationView> visitor) {
+        ReservationView view = newView();
+        int rows = size();
+        for (int row = 0; row < rows; row++) {
+            visitor.accept(view.moveTo(row));
+        }
+    }
+
+    public boolean isRoomFree(int roomNumber, int checkInEpochDay, int checkOutEpochDay) {
+        int rows = size();
+        for (int row = 0; row < rows; row++) {
+            if (roomNumber(row) == roomNumber
+                    && checkIn(row) < checkOutEpochDay
+                    && checkOut(row) > checkInEpochDay) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Revenue in minor units of one currency, for stays checking in within [fromEpochDay, toEpochDay). */
+    public long revenue(int currencyNumericCode, int fromEpochDay, int toEpochDay) {
+        long total = 0;
+        int rows = size();
+        for (int row = 0; row < rows; row++) {
+            int day = checkIn(row);
+            if (day >= fromEpochDay && day < toEpochDay && currencyCode(row) == currencyNumericCode) {
+                total += amountMinor(row);
+            }
+        }
+        return total;
+    }
+
+    public long bookedNights(int roomNumber) {
+        long nights = 0;
+        int rows = size();
+        for (int row = 0; row < rows; row++) {
+            if (roomNumber(row) == roomNumber) nights += checkOut(row) - checkIn(row);
+        }
+        return nights;
+    }
+
+    /** Flushes the guest table and the column data, then records the row count. */
+    public synchronized void force() throws IOException {
+        guestFile.force(false);
+        for (Column column : columns) {
+            column.buffer.force();
+        }
+        meta.buffer.putInt(0, size);
+        meta.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Column column : columns) {
+            column.channel.close();
+        }
+        meta.channel.close();
+        guestFile.close();
+    }
+
+    // the guest's row in the table, written now and made durable by the next force()
+    private int guestId(Customer guest) throws IOException {
+        String key = CustomerDirectory.guestKey(guest);
+        Integer existing = guestIds.get(key);
+        if (existing != null) return existing;
+
+        byte[][] fields = {utf8(guest.getName()), utf8(guest.getEmail()), utf8(guest.getPhoneNumber())};
+        ByteBuffer record = ByteBuffer.allocate(3 * Short.BYTES + fields[0].length + fields[1].length + fields[2].length);
+        for (byte[] field : fields) {
+            record.putShort((short) field.length).put(field);
+        }
+        record.flip();
+        while (record.hasRemaining()) {
+            guestBytes += guestFile.write(record, guestBytes);
+        }
+        int id = guests.size();
+        guests.add(new Customer(guest.getName(), guest.getEmail(), guest.getPhoneNumber()));
+        guestIds.put(key, id);
+        return id;
+    }
+
+    // reads the guest table, cutting off a record whose write was cut short
+    private void loadGuests() throws IOException {
+        ByteBuffer in = ByteBuffer.allocate((int) guestFile.size());
+        while (in.hasRemaining() && guestFile.read(in, in.position()) >= 0) {
+            // read the whole table
+        }
+        in.flip();
+        while (in.hasRemaining()) {
+            int start = in.position();
+            String name = readField(in);
+            String email = name == null ? null : readField(in);
+            String phone = email == null ? null : readField(in);
+            if (phone == null) {
+                in.position(start);
+                break;
+            }
+            Customer guest = new Customer(name, email, phone);
+            guestIds.putIfAbsent(CustomerDirectory.guestKey(guest), guests.size());
+            guests.add(guest);
+        }
+        guestBytes = in.position();
+        if (guestBytes < guestFile.size()) {
+            guestFile.truncate(guestBytes);
+        }
+    }
+
+    // null if the field runs past the end of the table
+    private static String readField(ByteBuffer in) {
+        if (in.remaining() < Short.BYTES) return null;
+        int length = Short.toUnsignedInt(in.getShort());
+        if (in.remaining() < length) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Guest field longer than 65535 bytes");
+        }
+        return bytes;
+    }
+
+    // column accessors used by ReservationView and scans
+    int roomNumber(int row) { return room.buffer.getInt(room.offset(row)); }
+    int customerId(int row) { return customer.buffer.getInt(customer.offset(row)); }
+    int checkIn(int row) { return checkIn.buffer.getInt(checkIn.offset(row)); }
+    int checkOut(int row) { return checkOut.buffer.getInt(checkOut.offset(row)); }
+    int currencyCode(int row) { return currency.buffer.getInt(currency.offset(row)); }
+    long bookingTime(int row) { return bookingTime.buffer.getLong(bookingTime.offset(row)); }
+    long amountMinor(int row) { return amount.buffer.getLong(amount.offset(row)); }
+
+    private static int capacityFor(int rows) {
+        long wanted = Math.max(INITIAL_ROWS, Long.highestOneBit(Math.max(1, rows)) << 1);
+        return (int) Math.min(MAX_ROWS, wanted);
+    }
+
+    private void mapColumns(int rows) throws IOException {
+        for (Column column : columns) {
+            column.map(rows);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A journal or snapshot file that cannot be replayed as written: a damaged
+ * record before the end of the file, or a header this build does not
+ * understand. Nothing is truncated; the file is left as found for repair.
+ */
+public class CorruptJournalException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CorruptJournalException(Path file, long offset, String reason) {
+        super(file + " at byte " + offset + ": " + reason);
+    }
+}
@@ -0,0 +1,310 @@
+package persistence;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.RoomTypeBooking;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary framing shared by the journal, snapshots and bulk files.
+ * Every file starts with an 8-byte header [int magic][int format version],
+ * followed by frames:
+ * [int payloadLength][payload][int crc32(payload)]
+ * payload = type, reservation id, room, check-in/out epoch days, booking time,
+ *           amount (long minor units + 3-letter currency code), customer strings,
+ *           then per type: ASSIGNED adds the type booking's id; TYPE_BOOKED and
+ *           TYPE_CANCELLED carry the booking id in place of the reservation id,
+ *           room 0 and a trailing room-type string.
+ */
+public final class ReservationCodec {
+    public static final byte CONFIRMED = 1;
+    public static final byte ROLLED_BACK = 2;
+    public static final byte CANCELLED = 3;
+    // a type booking paid for, with no room yet
+    public static final byte TYPE_BOOKED = 4;
+    // a type booking cancelled before it got a room
+    public static final byte TYPE_CANCELLED = 5;
+    // CONFIRMED for the room a type booking was assigned to
+    public static final byte ASSIGNED = 6;
+
+    /**
+     * Bumped whenever a file layout changes; files of a newer version are refused.
+     * 1: first versioned layout
+     * 2: journal and snapshot carry a generation, the snapshot a history row count
+     * 3: records carry the reservation id, the snapshot the next unused id
+     * 4: type booking records (TYPE_BOOKED, TYPE_CANCELLED, ASSIGNED), the
+     *    snapshot also the next unused type booking id
+     */
+    public static final int FORMAT_VERSION = 4;
+    /**
+     * Files from before the header existed. Their frames stored the amount
+     * either as a double in dollars or, later, as minor units plus currency.
+     */
+    public static final int LEGACY_VERSION = 0;
+
+    public static final int JOURNAL_MAGIC = 0x48524A4E;   // "HRJN"
+    public static final int SNAPSHOT_MAGIC = 0x4852534E;  // "HRSN"
+    public static final int EXPORT_MAGIC = 0x48524258;    // "HRBX"
+    public static final int HEADER_SIZE = 8;
+
+    private static final int FIXED_PAYLOAD = 1 + 8 + 4 + 4 + 4 + 8 + 4 + 8 + 3;
+    // before version 3 there was no id
+    private static final int FIXED_PAYLOAD_V2 = FIXED_PAYLOAD - 8;
+    // the headerless double-amount layout is the shortest
+    private static final int FIXED_PAYLOAD_LEGACY = FIXED_PAYLOAD_V2 - 3;
+    // a booking id or up to four strings of at most 64 KiB each
+    private static final int MAX_PAYLOAD = FIXED_PAYLOAD + Long.BYTES + 4 * (2 + 0xFFFF);
+
+    private ReservationCodec() {}
+
+    public static final class Record {
+        public final byte type;
+        // 0 in files older than version 3
+        public final long id;
+        public final int roomNumber;
+        public final LocalDate checkInDate;
+        public final LocalDate checkOutDate;
+        public final LocalDateTime bookingTime;
+        public final Money totalAmount;
+        public final Customer customer;
+        // ASSIGNED only
+        public final long typeBookingId;
+        // TYPE_BOOKED and TYPE_CANCELLED only, whose id is the booking's
+        public final String roomType;
+
+        Record(byte type, long id, int roomNumber, LocalDate checkInDate, LocalDate checkOutDate,
+               LocalDateTime bookingTime, Money totalAmount, Customer customer, long typeBookingId, String roomType) {
+            this.type = type;
+            this.id = id;
+            this.roomNumber = roomNumber;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.bookingTime = bookingTime;
+            this.totalAmount = totalAmount;
+            this.customer = customer;
+            this.typeBookingId = typeBookingId;
+            this.roomType = roomType;
+        }
+    }
+
+    public static void putHeader(int magic, ByteBuffer out) {
+        out.putInt(magic);
+        out.putInt(FORMAT_VERSION);
+    }
+
+    /**
+     * Reads the file header and returns its format version. A file that
+     * instead starts straight with a frame (or is empty) predates the header
+     * and is reported as {@link #LEGACY_VERSION}, with nothing consumed.
+     *
+     * @throws IllegalStateException if the header is missing, belongs to
+     *         another kind of file or was written by a newer version
+     */
+    public static int readHeader(int magic, ByteBuffer in) {
+        if (!in.hasRemaining() || (in.remaining() >= 4 && isLegacyFrameLength(in.getInt(in.position())))) {
+            return LEGACY_VERSION;
+        }
+        if (in.remaining() < HEADER_SIZE || in.getInt(in.position()) != magic) {
+            throw new IllegalStateException("missing or unknown file header");
+        }
+        in.getInt();
+        int version = in.getInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IllegalStateException("format version " + version
+                + " is not supported (this build reads up to " + FORMAT_VERSION + ")");
+        }
+        return version;
+    }
+
+    // every magic is far above any frame length, so the two cannot be confused
+    private static boolean isLegacyFrameLength(int length) {
+        return length >= FIXED_PAYLOAD_LEGACY && length <= MAX_PAYLOAD;
+    }
+
+    /** Room records, ASSIGNED included. */
+    public static int maxEncodedSize(Reservation reservation) {
+        return 4 + FIXED_PAYLOAD + Long.BYTES + 4 + customerSize(reservation.getCustomer());
+    }
+
+    public static int maxEncodedSize(RoomTypeBooking booking) {
+        return 4 + FIXED_PAYLOAD + 4 + customerSize(booking.getCustomer()) + stringSize(booking.getRoomType());
+    }
+
+    public static void encode(byte type, Reservation reservation, ByteBuffer out) {
+        int payloadStart = startFrame(type, reservation.getId(), reservation.getRoom().getRoomNumber(),
+            reservation.getCheckInDate(), reservation.getCheckOutDate(), reservation.getBookingTime(),
+            reservation.getTotalAmount(), reservation.getCustomer(), out);
+        endFrame(payloadStart, out);
+    }
+
+    /** The room a type booking was placed in, as an ASSIGNED record. */
+    public static void encodeAssigned(RoomTypeBooking booking, Reservation reservation, ByteBuffer out) {
+        int payloadStart = startFrame(ASSIGNED, reservation.getId(), reservation.getRoom().getRoomNumber(),
+            reservation.getCheckInDate(), reservation.getCheckOutDate(), reservation.getBookingTime(),
+            reservation.getTotalAmount(), reservation.getCustomer(), out);
+        out.putLong(booking.getId());
+        endFrame(payloadStart, out);
+    }
+
+    /** A TYPE_BOOKED or TYPE_CANCELLED record. */
+    public static void encode(byte type, RoomTypeBooking booking, ByteBuffer out) {
+        int payloadStart = startFrame(type, booking.getId(), 0, booking.getCheckInDate(), booking.getCheckOutDate(),
+            booking.getBookingTime(), booking.getTotalAmount(), booking.getCustomer(), out);
+        putString(out, booking.getRoomType());
+        endFrame(payloadStart, out);
+    }
+
+    // the length is filled in by endFrame
+    private static int startFrame(byte type, long id, int roomNumber, LocalDate checkInDate, LocalDate checkOutDate,
+                                  LocalDateTime bookingTime, Money amount, Customer customer, ByteBuffer out) {
+        out.putInt(0);
+        int payloadStart = out.position();
+        out.put(type);
+        out.putLong(id);
+        out.putInt(roomNumber);
+        out.putInt((int) checkInDate.toEpochDay());
+        out.putInt((int) checkOutDate.toEpochDay());
+        out.putLong(bookingTime.toEpochSecond(ZoneOffset.UTC));
+        out.putInt(bookingTime.getNano());
+        out.putLong(amount.getMinorUnits());
+        String currencyCode = amount.getCurrency().getCurrencyCode();
+        for (int i = 0; i < 3; i++) {
+            out.put((byte) currencyCode.charAt(i));
+        }
+        putString(out, customer.getName());
+        putString(out, customer.getEmail());
+        putString(out, customer.getPhoneNumber());
+        return payloadStart;
+    }
+
+    private static void endFrame(int payloadStart, ByteBuffer out) {
+        int payloadEnd = out.position();
+        out.putInt(payloadStart - 4, payloadEnd - payloadStart);
+        out.putInt(crc(out, payloadStart, payloadEnd));
+    }
+
+    public static Record decode(ByteBuffer in) {
+        return decode(in, FORMAT_VERSION);
+    }
+
+    /**
+     * Decodes the next frame written in the given format version, or returns
+     * null (leaving the position untouched) when the buffer ends before the
+     * frame does: a torn write, or a frame that has not been read in yet.
+     *
+     * @throws IllegalStateException (position untouched) if the frame is
+     *         complete but corrupt: bad length, checksum or contents
+     */
+    public static Record decode(ByteBuffer in, int version) {
+        int start = in.position();
+        if (in.remaining() < 4) {
+            return null;
+        }
+        int length = in.getInt(start);
+        int minLength = version >= 3 ? FIXED_PAYLOAD : version >= 1 ? FIXED_PAYLOAD_V2 : FIXED_PAYLOAD_LEGACY;
+        if (length < minLength || length > MAX_PAYLOAD) {
+            throw new IllegalStateException("corrupt record length " + length);
+        }
+        if (length > in.remaining() - 8) {
+            return null;
+        }
+        int payloadStart = start + 4;
+        if (crc(in, payloadStart, payloadStart + length) != in.getInt(payloadStart + length)) {
+            throw new IllegalStateException("record checksum mismatch");
+        }
+        try {
+            in.position(payloadStart);
+
+            byte type = in.get();
+            long id = version >= 3 ? in.getLong() : 0;
+            int roomNumber = in.getInt();
+            LocalDate checkIn = LocalDate.ofEpochDay(in.getInt());
+            LocalDate checkOut = LocalDate.ofEpochDay(in.getInt());
+            LocalDateTime bookingTime = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+            int amountStart = in.position();
+            Money amount;
+            Customer customer;
+            try {
+                amount = getAmount(in);
+                customer = getCustomer(in);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                if (version != LEGACY_VERSION) throw e;
+                amount = null;
+                customer = null;
+            }
+            if (version == LEGACY_VERSION && (amount == null || in.position() != payloadStart + length)) {
+                // not minor units + currency, so the original layout: a double in dollars
+                in.position(amountStart);
+                amount = Money.ofMajor(in.getDouble(), Money.USD);
+                customer = getCustomer(in);
+            }
+            long typeBookingId = 0;
+            String roomType = null;
+            if (version >= 4 && type == ASSIGNED) {
+                typeBookingId = in.getLong();
+            } else if (version >= 4 && (type == TYPE_BOOKED || type == TYPE_CANCELLED)) {
+                roomType = getString(in);
+            }
+            if (in.position() != payloadStart + length) {
+                throw new IllegalArgumentException("payload is " + length + " bytes, fields end at "
+                    + (in.position() - payloadStart));
+            }
+            in.position(payloadStart + length + 4);
+
+            return new Record(type, id, roomNumber, checkIn, checkOut, bookingTime, amount, customer,
+                typeBookingId, roomType);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+                 | ArithmeticException | DateTimeException e) {
+            in.position(start);
+            throw new IllegalStateException("undecodable record: " + e.getMessage());
+        }
+    }
+
+    private static Money getAmount(ByteBuffer in) {
+        long minorUnits = in.getLong();
+        char[] currencyCode = {(char) in.get(), (char) in.get(), (char) in.get()};
+        return Money.of(minorUnits, Currency.getInstance(new String(currencyCode)));
+    }
+
+    private static Customer getCustomer(ByteBuffer in) {
+        return new Customer(getString(in), getString(in), getString(in));
+    }
+
+    private static int customerSize(Customer customer) {
+        return stringSize(customer.getName()) + stringSize(customer.getEmail()) + stringSize(customer.getPhoneNumber());
+    }
+
+    private static int stringSize(String value) {
+        return 2 + value.length() * 3;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(to).position(from);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+}
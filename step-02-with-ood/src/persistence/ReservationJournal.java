@@ -0,0 +1,575 @@
+package persistence;
+
+import interfaces.IReservationJournal;
+import model.Customer;
+import model.Reservation;
+import model.Room;
+import model.RoomTypeBooking;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only write-ahead journal for reservations, and for type bookings
+ * from payment until they are given a room.
+ *
+ * A single writer thread drains whatever has been appended since its last
+ * pass, writes it in one go and issues one fsync for the whole group. Every
+ * {@code snapshotEvery} records it writes a snapshot of all confirmed
+ * reservations and unassigned type bookings and truncates the journal, so recovery only ever reads one
+ * snapshot plus a short tail no matter how long the history is.
+ *
+ * Replay is idempotent: a record already reflected in the snapshot is
+ * skipped, which is what makes it safe to snapshot live state while new
+ * records are still being queued.
+ *
+ * Both files start with a versioned header and a generation number that
+ * every snapshot bumps; a journal older than the snapshot is already fully
+ * contained in it. Recovery drops a write that was cut short at the very
+ * end of the journal, upgrades files of an older format (headerless ones
+ * from before versioning included) by snapshotting them, and refuses anything else it cannot read
+ * ({@link CorruptJournalException}) rather than truncating it.
+ *
+ * Each snapshot also moves stays that checked out before the occupancy
+ * calendar's window into the columnar history store, so neither the heap
+ * nor the snapshot grows with the hotel's age. The snapshot records how
+ * many history rows it accounts for; rows beyond that are dropped on
+ * recovery.
+ */
+public class ReservationJournal implements IReservationJournal {
+    public static final String JOURNAL_FILE = "reservations.journal";
+    public static final String SNAPSHOT_FILE = "reservations.snapshot";
+    public static final String HISTORY_DIRECTORY = "history";
+
+    // codec header + generation
+    private static final int JOURNAL_HEADER_SIZE = ReservationCodec.HEADER_SIZE + Long.BYTES;
+
+    private static final int MAX_GROUP = 1024;
+
+    private final Path directory;
+    private final ReservationService service;
+    private final FileChannel channel;
+    private final ColumnarReservationStore history;
+    private final int snapshotEvery;
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    // appends and close() take it, so nothing is queued after the writer saw the journal closed
+    private final Object appendLock = new Object();
+    private volatile boolean closed;
+    private int writesSinceSnapshot;
+    private long generation;
+    // history rows the current snapshot accounts for
+    private int archivedRows;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    private static final class PendingWrite {
+        final byte type;
+        // either or, for ASSIGNED, both
+        final Reservation reservation;
+        final RoomTypeBooking booking;
+        final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        PendingWrite(byte type, Reservation reservation, RoomTypeBooking booking) {
+            this.type = type;
+            this.reservation = reservation;
+            this.booking = booking;
+        }
+
+        int maxEncodedSize() {
+            return reservation != null
+                ? ReservationCodec.maxEncodedSize(reservation)
+                : ReservationCodec.maxEncodedSize(booking);
+        }
+
+        void encode(ByteBuffer out) {
+            if (booking == null) {
+                ReservationCodec.encode(type, reservation, out);
+            } else if (reservation == null) {
+                ReservationCodec.encode(type, booking, out);
+            } else {
+                ReservationCodec.encodeAssigned(booking, reservation, out);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the service state from the latest snapshot and journal tail
+     * in {@code directory}, then attaches a journal to the service so every
+     * later confirmation and rollback is recorded.
+     */
+    public static ReservationJournal open(Path directory, ReservationService service) throws IOException {
+        return open(directory, service, 10_000);
+    }
+
+    public static ReservationJournal open(Path directory, ReservationService service, int snapshotEvery) throws IOException {
+        Files.createDirectories(directory);
+        RecoveryStats stats = new RecoveryStats();
+        long start = System.nanoTime();
+        boolean outdated = false;
+
+        long snapshotGeneration = 0;
+        int archivedRows = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            // written to a temp file and renamed, so it is never legitimately torn
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            int version = readHeader(snapshot, ReservationCodec.SNAPSHOT_MAGIC, in);
+            if (version >= 2) {
+                int preamble = Long.BYTES + Integer.BYTES + (version >= 3 ? Long.BYTES : 0)
+                    + (version >= 4 ? Long.BYTES : 0);
+                if (in.remaining() < preamble) {
+                    throw new CorruptJournalException(snapshot, in.position(), "truncated snapshot header");
+                }
+                snapshotGeneration = in.getLong();
+                archivedRows = in.getInt();
+                if (version >= 3) {
+                    // covers archived stays too, whose ids are no longer in memory
+                    Reservation.reserveIdsThrough(in.getLong() - 1);
+                }
+                if (version >= 4) {
+                    // covers assigned and cancelled type bookings too
+                    RoomTypeBooking.reserveIdsThrough(in.getLong() - 1);
+                }
+            }
+            replay(snapshot, in, version, false, service, stats);
+            outdated = version != ReservationCodec.FORMAT_VERSION;
+        }
+
+        Path historyDirectory = directory.resolve(HISTORY_DIRECTORY);
+        ColumnarReservationStore history = new ColumnarReservationStore(historyDirectory);
+        if (history.size() < archivedRows) {
+            history.close();
+            throw new CorruptJournalException(historyDirectory, 0, "history holds " + history.size()
+                + " stays, the snapshot expects " + archivedRows);
+        }
+        if (history.size() > archivedRows) {
+            // an archive pass that crashed before its snapshot was in place
+            history.truncate(archivedRows);
+        }
+
+        Path journalFile = directory.resolve(JOURNAL_FILE);
+        FileChannel channel = FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int snapshotRecords = stats.records;
+        ByteBuffer tail = ByteBuffer.allocate((int) channel.size());
+        while (tail.hasRemaining() && channel.read(tail) >= 0) {
+            // read the whole tail
+        }
+        tail.flip();
+        int version = ReservationCodec.FORMAT_VERSION;
+        long journalGeneration = snapshotGeneration;
+        // shorter than a header: a new file, or one whose header write was cut short
+        boolean hasHeader = false;
+        if (tail.remaining() >= ReservationCodec.HEADER_SIZE) {
+            version = readHeader(journalFile, ReservationCodec.JOURNAL_MAGIC, tail);
+            if (version < 2) {
+                journalGeneration = 0;
+                hasHeader = true;
+            } else if (tail.remaining() >= Long.BYTES) {
+                journalGeneration = tail.getLong();
+                hasHeader = true;
+            }
+        }
+        if (journalGeneration > snapshotGeneration) {
+            throw new CorruptJournalException(journalFile, ReservationCodec.HEADER_SIZE, "journal generation "
+                + journalGeneration + " is newer than the snapshot's " + snapshotGeneration);
+        }
+        // an older generation was fully snapshotted, the crash came before the journal was reset
+        boolean stale = journalGeneration < snapshotGeneration;
+        int validBytes = 0;
+        if (hasHeader && !stale) {
+            validBytes = replay(journalFile, tail, version, true, service, stats);
+            outdated |= version != ReservationCodec.FORMAT_VERSION;
+        }
+        if (validBytes < channel.size()) {
+            if (hasHeader && !stale) {
+                System.out.println("⚠️ Dropping " + (channel.size() - validBytes)
+                    + " bytes of a write cut short at the end of the journal");
+            }
+            channel.truncate(validBytes);
+        }
+        if (validBytes == 0) {
+            writeHeader(channel, snapshotGeneration);
+            channel.force(true);
+        } else {
+            channel.position(validBytes);
+        }
+
+        System.out.printf("💾 Recovered %d reservations and %d cancellations (%d records skipped, %d archived stays) in %d ms%n",
+            stats.restored, stats.cancelled, stats.skipped, archivedRows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        ReservationJournal journal = new ReservationJournal(directory, service, channel, history, snapshotEvery);
+        journal.generation = snapshotGeneration;
+        journal.archivedRows = archivedRows;
+        journal.writesSinceSnapshot = stats.records - snapshotRecords;
+        if (outdated) {
+            // rewrite everything in the current format before appending to it
+            journal.snapshot();
+            System.out.println("💾 Journal upgraded to format version " + ReservationCodec.FORMAT_VERSION);
+        } else if (journal.hasStaysToArchive()) {
+            journal.snapshot();
+        }
+        journal.writer.start();
+        service.setJournal(journal);
+        return journal;
+    }
+
+    private ReservationJournal(Path directory, ReservationService service, FileChannel channel,
+                               ColumnarReservationStore history, int snapshotEvery) {
+        this.directory = directory;
+        this.service = service;
+        this.channel = channel;
+        this.history = history;
+        this.snapshotEvery = snapshotEvery;
+        this.writer = new Thread(this::writeLoop, "reservation-journal");
+        this.writer.setDaemon(true);
+    }
+
+    /** Stays moved out of memory by earlier snapshots; scan it rather than the rooms for old history. */
+    public ColumnarReservationStore getHistory() {
+        return history;
+    }
+
+    @Override
+    public CompletableFuture<Void> recordConfirmed(Reservation reservation) {
+        return append(ReservationCodec.CONFIRMED, reservation);
+    }
+
+    @Override
+    public CompletableFuture<Void> recordRolledBack(Reservation reservation) {
+        return append(ReservationCodec.ROLLED_BACK, reservation);
+    }
+
+    @Override
+    public CompletableFuture<Void> recordCancelled(Reservation reservation) {
+        return append(ReservationCodec.CANCELLED, reservation);
+    }
+
+    @Override
+    public CompletableFuture<Void> recordTypeBooked(RoomTypeBooking booking) {
+        return append(new PendingWrite(ReservationCodec.TYPE_BOOKED, null, booking));
+    }
+
+    @Override
+    public CompletableFuture<Void> recordTypeCancelled(RoomTypeBooking booking) {
+        return append(new PendingWrite(ReservationCodec.TYPE_CANCELLED, null, booking));
+    }
+
+    @Override
+    public CompletableFuture<Void> recordAssigned(RoomTypeBooking booking, Reservation reservation) {
+        return append(new PendingWrite(ReservationCodec.ASSIGNED, reservation, booking));
+    }
+
+    private CompletableFuture<Void> append(byte type, Reservation reservation) {
+        return append(new PendingWrite(type, reservation, null));
+    }
+
+    private CompletableFuture<Void> append(PendingWrite write) {
+        synchronized (appendLock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Journal is closed"));
+            }
+            queue.add(write);
+        }
+        return write.durable;
+    }
+
+    @Override
+    public void close() {
+        synchronized (appendLock) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            writer.join();
+            channel.close();
+            history.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("❌ Failed to close journal: " + e.getMessage());
+        } finally {
+            // the writer drains the queue before it exits; this only catches a writer that died or never ran
+            List<PendingWrite> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            for (PendingWrite write : leftover) {
+                write.durable.completeExceptionally(new IllegalStateException("Journal closed before the write"));
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> group = new ArrayList<>(MAX_GROUP);
+        while (!closed || !queue.isEmpty()) {
+            PendingWrite first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) continue;
+
+            group.add(first);
+            queue.drainTo(group, MAX_GROUP - 1);
+            try {
+                writeGroup(group);
+                for (PendingWrite write : group) write.durable.complete(null);
+            } catch (IOException e) {
+                for (PendingWrite write : group) write.durable.completeExceptionally(e);
+            }
+
+            writesSinceSnapshot += group.size();
+            group.clear();
+            if (writesSinceSnapshot >= snapshotEvery) {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    System.out.println("❌ Snapshot failed, journal kept: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingWrite> group) throws IOException {
+        buffer.clear();
+        for (PendingWrite write : group) {
+            ensureCapacity(write.maxEncodedSize());
+            write.encode(buffer);
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    // runs on the writer thread only, so nothing is appended between snapshot and truncate
+    private void snapshot() throws IOException {
+        // 1. move long-past stays into the history columns (not yet committed)
+        if (history.size() != archivedRows) {
+            history.truncate(archivedRows);
+        }
+        long cutoff = archiveCutoff();
+        Set<Reservation> archived = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Room room : service.getAvailableRooms()) {
+            for (Reservation reservation : room.getReservations()) {
+                if (reservation.isConfirmed() && reservation.getCheckOutDate().toEpochDay() <= cutoff) {
+                    // the directory's instance, so spellings of one guest share a row of the guest table
+                    history.append(reservation, service.getCustomerDirectory().intern(reservation.getCustomer()));
+                    archived.add(reservation);
+                }
+            }
+        }
+        history.force();
+
+        // 2. the snapshot of everything else commits the archive pass and the new generation
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.clear();
+            ReservationCodec.putHeader(ReservationCodec.SNAPSHOT_MAGIC, buffer);
+            buffer.putLong(generation + 1);
+            buffer.putInt(history.size());
+            buffer.putLong(Reservation.peekNextId());
+            buffer.putLong(RoomTypeBooking.peekNextId());
+            for (Room room : service.getAvailableRooms()) {
+                for (Reservation reservation : room.getReservations()) {
+                    if (!reservation.isConfirmed() || archived.contains(reservation)) continue;
+                    int size = ReservationCodec.maxEncodedSize(reservation);
+                    if (buffer.remaining() < size) {
+                        flushTo(out);
+                        ensureCapacity(size);
+                    }
+                    ReservationCodec.encode(ReservationCodec.CONFIRMED, reservation, buffer);
+                }
+            }
+            for (RoomTypeBooking booking : service.getUnassignedBookings()) {
+                int size = ReservationCodec.maxEncodedSize(booking);
+                if (buffer.remaining() < size) {
+                    flushTo(out);
+                    ensureCapacity(size);
+                }
+                ReservationCodec.encode(ReservationCodec.TYPE_BOOKED, booking, buffer);
+            }
+            flushTo(out);
+            out.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation++;
+        archivedRows = history.size();
+
+        // 3. only now drop the archived stays from memory and start the new journal generation
+        for (Reservation reservation : archived) {
+            service.archiveReservation(reservation);
+        }
+        channel.truncate(0);
+        writeHeader(channel, generation);
+        channel.force(true);
+        writesSinceSnapshot = 0;
+    }
+
+    private boolean hasStaysToArchive() {
+        long cutoff = archiveCutoff();
+        for (Room room : service.getAvailableRooms()) {
+            for (Reservation reservation : room.getReservations()) {
+                if (reservation.isConfirmed() && reservation.getCheckOutDate().toEpochDay() <= cutoff) return true;
+            }
+        }
+        return false;
+    }
+
+    // stays that ended before the occupancy calendar's window
+    private static long archiveCutoff() {
+        return LocalDate.now().toEpochDay() - Room.CALENDAR_PAST_DAYS;
+    }
+
+    private static void writeHeader(FileChannel channel, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER_SIZE);
+        ReservationCodec.putHeader(ReservationCodec.JOURNAL_MAGIC, header);
+        header.putLong(generation);
+        header.flip();
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private static int readHeader(Path file, int magic, ByteBuffer in) throws CorruptJournalException {
+        try {
+            return ReservationCodec.readHeader(magic, in);
+        } catch (IllegalStateException e) {
+            throw new CorruptJournalException(file, 0, e.getMessage());
+        }
+    }
+
+    private void flushTo(FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    private static final class RecoveryStats {
+        int restored;
+        int cancelled;
+        int skipped;
+        int records;
+    }
+
+    /**
+     * Applies every frame and returns the offset where valid frames end.
+     * Only the journal tail may end in a torn write, and only as its very
+     * last frame; any other damage fails recovery instead of being cut off.
+     */
+    private static int replay(Path file, ByteBuffer in, int version, boolean tornTailAllowed,
+                              ReservationService service, RecoveryStats stats) throws CorruptJournalException {
+        while (in.hasRemaining()) {
+            ReservationCodec.Record record;
+            try {
+                record = ReservationCodec.decode(in, version);
+            } catch (IllegalStateException e) {
+                if (tornTailAllowed && isTornTail(in)) break;
+                throw new CorruptJournalException(file, in.position(), e.getMessage());
+            }
+            if (record == null) {
+                // the frame runs past the end of the file
+                if (tornTailAllowed) break;
+                throw new CorruptJournalException(file, in.position(), "truncated record");
+            }
+            stats.records++;
+            if (record.type == ReservationCodec.TYPE_BOOKED) {
+                Customer customer = service.getCustomerDirectory().intern(record.customer);
+                RoomTypeBooking booking = new RoomTypeBooking(record.id, customer, record.roomType,
+                    record.checkInDate, record.checkOutDate, record.bookingTime, record.totalAmount);
+                if (service.restoreTypeBooking(booking)) stats.restored++;
+                else stats.skipped++;
+                continue;
+            }
+            if (record.type == ReservationCodec.TYPE_CANCELLED) {
+                if (service.forgetTypeBooking(record.id)) stats.cancelled++;
+                else stats.skipped++;
+                continue;
+            }
+            Room room = service.getInventory().findByNumber(record.roomNumber);
+            if (room == null) {
+                stats.skipped++;
+                continue;
+            }
+            if (record.type == ReservationCodec.CONFIRMED || record.type == ReservationCodec.ASSIGNED) {
+                Reservation reservation = record.id != 0 ? service.findReservation(record.id) : null;
+                if (reservation != null) {
+                    // already in the snapshot
+                    stats.skipped++;
+                } else {
+                    Customer customer = service.getCustomerDirectory().intern(record.customer);
+                    reservation = record.id != 0
+                        ? new Reservation(record.id, customer, room, record.checkInDate, record.checkOutDate,
+                            record.bookingTime, record.totalAmount)
+                        : new Reservation(customer, room, record.checkInDate, record.checkOutDate,
+                            record.bookingTime, record.totalAmount);
+                    if (service.restoreReservation(reservation)) {
+                        stats.restored++;
+                    } else {
+                        stats.skipped++;
+                        continue;
+                    }
+                }
+                if (record.type == ReservationCodec.ASSIGNED) {
+                    // the booking may already be gone from the snapshot; then there is nothing to hand over
+                    service.restoreAssignment(record.typeBookingId, reservation);
+                }
+            } else if (record.type == ReservationCodec.CANCELLED) {
+                Reservation existing = record.id != 0
+                    ? service.findReservation(record.id)
+                    : room.findConfirmed(record.checkInDate);
+                if (existing != null && existing.getBookingTime().equals(record.bookingTime)
+                        && room.cancelReservation(existing)) {
+                    service.forgetReservation(existing);
+                    stats.cancelled++;
+                } else {
+                    stats.skipped++;
+                }
+            }
+            // ROLLED_BACK records describe holds that were never confirmed, so nothing to undo
+        }
+        return in.position();
+    }
+
+    // a damaged frame is a torn write only if it is the last thing in the file:
+    // it ends exactly at EOF, or everything from it on is zero-filled
+    private static boolean isTornTail(ByteBuffer in) {
+        int length = in.getInt(in.position());
+        if (length >= 0 && (long) in.position() + 4 + length + 4 == in.limit()) {
+            return true;
+        }
+        for (int i = in.position(); i < in.limit(); i++) {
+            if (in.get(i) != 0) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package persistence;
+
+import model.Customer;
+
+/**
+ * Flyweight over one row of a {@link ColumnarReservationStore}.
+ * A single instance is repositioned with {@link #moveTo(int)} while
+ * scanning, so reading millions of rows allocates nothing.
+ */
+public final class ReservationView {
+    private final ColumnarReservationStore store;
+    private int row = -1;
+
+    ReservationView(ColumnarReservationStore store) {
+        this.store = store;
+    }
+
+    public ReservationView moveTo(int row) {
+        this.row = row;
+        return this;
+    }
+
+    public int getRow() { return row; }
+    public int getRoomNumber() { return store.roomNumber(row); }
+    /** The guest's row in the store's guest table; stable across restarts, unlike directory ids. */
+    public int getCustomerId() { return store.customerId(row); }
+    /** Null for rows written before the store kept a guest table. */
+    public Customer getCustomer() { return store.guest(getCustomerId()); }
+    public int getCheckInEpochDay() { return store.checkIn(row); }
+    public int getCheckOutEpochDay() { return store.checkOut(row); }
+    public long getBookingTimeMillis() { return store.bookingTime(row); }
+    public long getAmountMinor() { return store.amountMinor(row); }
+    public int getCurrencyNumericCode() { return store.currencyCode(row); }
+
+    public int getNights() {
+        return getCheckOutEpochDay() - getCheckInEpochDay();
+    }
+
+    public boolean overlapsWith(int startEpochDay, int endEpochDay) {
+        return getCheckInEpochDay() < endEpochDay && getCheckOutEpochDay() > startEpochDay;
+    }
+}
@@ -0,0 +1,40 @@
+package pricing;
+
+import interfaces.IPricingRule;
+
+import java.time.LocalDate;
+
+// e.g. +15% once 80% of the rooms of a type are booked that night
+public class OccupancyPricingRule implements IPricingRule {
+    private final String name;
+    private final int thresholdPercent;
+    private final int basisPoints;
+    private final String roomType;
+
+    public OccupancyPricingRule(String name, int thresholdPercent, int basisPoints) {
+        this(name, thresholdPercent, basisPoints, null);
+    }
+
+    public OccupancyPricingRule(String name, int thresholdPercent, int basisPoints, String roomType) {
+        this.name = name;
+        this.thresholdPercent = thresholdPercent;
+        this.basisPoints = basisPoints;
+        this.roomType = roomType;
+    }
+
+    @Override
+    public int basisPoints(String roomType, LocalDate night, int occupancyPercent) {
+        if (!PricingEngine.appliesTo(this.roomType, roomType)) return BASIS_POINTS_UNCHANGED;
+        return occupancyPercent >= thresholdPercent ? basisPoints : BASIS_POINTS_UNCHANGED;
+    }
+
+    @Override
+    public boolean dependsOnOccupancy() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,333 @@
+package pricing;
+
+import interfaces.IPricingRule;
+import interfaces.IReservationListener;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import service.RoomInventory;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prices stays night by night from a room's base rate and a list of
+ * {@link IPricingRule}s (season, weekday, occupancy, room type).
+ *
+ * For every room type a rate table covering the next {@code windowDays}
+ * nights is built once: the combined multiplier of each night, summed in a
+ * Fenwick tree, so quoting a stay inside the window is O(log n) whatever
+ * its length. Occupancy comes from a booked-room count per type and night,
+ * kept current from confirm and cancel events; each event re-prices only
+ * the nights of its stay. Tables are rebuilt when the rules change, when
+ * the day rolls over and when rooms of the type are added. Nights outside
+ * the window are evaluated one by one.
+ *
+ * The booked counts cover the occupancy-calendar window and move with it
+ * ({@link #roll}); nights past its end are counted in a sparse map and
+ * folded in as the window reaches them, so no stay is lost to the roll.
+ */
+public class PricingEngine implements IReservationListener {
+    public static final int DEFAULT_WINDOW_DAYS = 366;
+
+    private static final class RateTable {
+        final long startDay;
+        final long validUntilMillis;
+        final int roomCount;
+        // basis points of night startDay + i, and their Fenwick tree (1-based)
+        final long[] nightly;
+        final long[] tree;
+
+        RateTable(long startDay, long validUntilMillis, int roomCount, long[] nightly) {
+            this.startDay = startDay;
+            this.validUntilMillis = validUntilMillis;
+            this.roomCount = roomCount;
+            this.nightly = nightly;
+            this.tree = new long[nightly.length + 1];
+            for (int i = 1; i <= nightly.length; i++) {
+                tree[i] += nightly[i - 1];
+                int parent = i + (i & -i);
+                if (parent <= nightly.length) tree[parent] += tree[i];
+            }
+        }
+
+        long endDay() {
+            return startDay + nightly.length;
+        }
+
+        // sum of nights [from, to), as offsets from startDay
+        synchronized long sum(int from, int to) {
+            return prefix(to) - prefix(from);
+        }
+
+        synchronized void set(int night, long basisPoints) {
+            long delta = basisPoints - nightly[night];
+            if (delta == 0) return;
+            nightly[night] = basisPoints;
+            for (int i = night + 1; i < tree.length; i += i & -i) tree[i] += delta;
+        }
+
+        private long prefix(int count) {
+            long sum = 0;
+            for (int i = count; i > 0; i -= i & -i) sum += tree[i];
+            return sum;
+        }
+    }
+
+    private final RoomInventory inventory;
+    private final int windowDays;
+    private final List<IPricingRule> rules = new CopyOnWriteArrayList<>();
+    private volatile boolean occupancySensitive;
+
+    // booked rooms per normalized type and night, over the occupancy-calendar window;
+    // counts are read and updated under the read lock, roll() shifts them under the write lock
+    private final ReadWriteLock bookedWindow = new ReentrantReadWriteLock();
+    private volatile long bookedBaseDay;
+    private final Map<String, AtomicIntegerArray> bookedByType = new ConcurrentHashMap<>();
+    // nights at or past bookedBaseDay + Room.CALENDAR_HORIZON_DAYS
+    private final Map<String, Map<Long, Integer>> bookedLaterByType = new ConcurrentHashMap<>();
+
+    // keyed by the normalized room type
+    private final Map<String, RateTable> tables = new ConcurrentHashMap<>();
+    // bumped on every invalidation or booking change so a rebuild that raced with one is not cached
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    public PricingEngine(RoomInventory inventory) {
+        this(inventory, DEFAULT_WINDOW_DAYS);
+    }
+
+    public PricingEngine(RoomInventory inventory, int windowDays) {
+        this.inventory = inventory;
+        this.windowDays = windowDays;
+        this.bookedBaseDay = LocalDate.now().toEpochDay() - Room.CALENDAR_PAST_DAYS;
+    }
+
+    public void addRule(IPricingRule rule) {
+        rules.add(rule);
+        rulesChanged();
+    }
+
+    public boolean removeRule(IPricingRule rule) {
+        boolean removed = rules.remove(rule);
+        if (removed) rulesChanged();
+        return removed;
+    }
+
+    public List<IPricingRule> getRules() {
+        return new ArrayList<>(rules);
+    }
+
+    public Money quote(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        Money base = room.getPricePerNight();
+        long basisPointNights = basisPointNights(RoomInventory.normalizeType(room.getRoomType()),
+            checkInDate.toEpochDay(), checkOutDate.toEpochDay());
+        return Money.of(applyBasisPoints(base.getMinorUnits(), basisPointNights), base.getCurrency());
+    }
+
+    @Override
+    public void onConfirmed(Reservation reservation) {
+        bookingChanged(reservation, 1);
+    }
+
+    @Override
+    public void onCancelled(Reservation reservation) {
+        bookingChanged(reservation, -1);
+    }
+
+    public void invalidate(String roomType) {
+        String key = RoomInventory.normalizeType(roomType);
+        if (generations.containsKey(key)) {
+            drop(key);
+        }
+    }
+
+    public void invalidateAll() {
+        for (String key : generations.keySet()) {
+            drop(key);
+        }
+    }
+
+    public long getTableRebuilds() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Moves the booked counts on to {@code today}, as the rooms' calendars
+     * are: nights that fell out of the window are dropped, the new ones at
+     * its end are taken from the sparse map. Prices do not change.
+     */
+    public void roll(LocalDate today) {
+        long newBaseDay = today.toEpochDay() - Room.CALENDAR_PAST_DAYS;
+        int days = Room.CALENDAR_HORIZON_DAYS;
+        bookedWindow.writeLock().lock();
+        try {
+            long oldBaseDay = bookedBaseDay;
+            if (newBaseDay <= oldBaseDay) return;
+            for (String roomType : bookedLaterByType.keySet()) {
+                booked(roomType);
+            }
+            for (Map.Entry<String, AtomicIntegerArray> entry : bookedByType.entrySet()) {
+                AtomicIntegerArray old = entry.getValue();
+                Map<Long, Integer> later = bookedLaterByType.get(entry.getKey());
+                AtomicIntegerArray rolled = new AtomicIntegerArray(days);
+                for (int i = 0; i < days; i++) {
+                    long day = newBaseDay + i;
+                    if (day < oldBaseDay + days) {
+                        rolled.set(i, old.get((int) (day - oldBaseDay)));
+                    } else if (later != null) {
+                        Integer count = later.remove(day);
+                        if (count != null) rolled.set(i, count);
+                    }
+                }
+                entry.setValue(rolled);
+            }
+            bookedBaseDay = newBaseDay;
+        } finally {
+            bookedWindow.writeLock().unlock();
+        }
+    }
+
+    // Sum over the nights [fromDay, toDay) of each night's multiplier in basis points
+    long basisPointNights(String roomType, long fromDay, long toDay) {
+        RateTable table = tableFor(roomType);
+        long sum = 0;
+        long inFrom = Math.max(fromDay, table.startDay);
+        long inTo = Math.min(toDay, table.endDay());
+        if (inFrom < inTo) {
+            sum += table.sum((int) (inFrom - table.startDay), (int) (inTo - table.startDay));
+        }
+        // nights before today or beyond the window
+        int roomCount = inventory.getByType(roomType).size();
+        for (long day = fromDay, end = Math.min(toDay, table.startDay); day < end; day++) {
+            sum += nightlyBasisPoints(roomType, day, roomCount);
+        }
+        for (long day = Math.max(fromDay, table.endDay()); day < toDay; day++) {
+            sum += nightlyBasisPoints(roomType, day, roomCount);
+        }
+        return sum;
+    }
+
+    private RateTable tableFor(String roomType) {
+        RateTable table = tables.get(roomType);
+        if (table != null && System.currentTimeMillis() < table.validUntilMillis
+                && table.roomCount == inventory.getByType(roomType).size()) {
+            return table;
+        }
+        AtomicLong generation = generations.computeIfAbsent(roomType, key -> new AtomicLong());
+        long builtAt = generation.get();
+        RateTable built = build(roomType);
+        tables.compute(roomType, (key, current) -> generation.get() == builtAt ? built : current);
+        return built;
+    }
+
+    private RateTable build(String roomType) {
+        LocalDate today = LocalDate.now();
+        long validUntil = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        int roomCount = inventory.getByType(roomType).size();
+
+        long[] nightly = new long[windowDays];
+        for (int i = 0; i < windowDays; i++) {
+            nightly[i] = nightlyBasisPoints(roomType, today.toEpochDay() + i, roomCount);
+        }
+        rebuilds.incrementAndGet();
+        return new RateTable(today.toEpochDay(), validUntil, roomCount, nightly);
+    }
+
+    // a stay of this type was booked (+1) or freed (-1): count it, then re-price just its nights
+    private void bookingChanged(Reservation reservation, int delta) {
+        String roomType = RoomInventory.normalizeType(reservation.getRoom().getRoomType());
+        long from = reservation.getCheckInDate().toEpochDay();
+        long to = reservation.getCheckOutDate().toEpochDay();
+        bookedWindow.readLock().lock();
+        try {
+            AtomicIntegerArray booked = booked(roomType);
+            long windowEnd = bookedBaseDay + booked.length();
+            for (long day = Math.max(from, bookedBaseDay); day < to; day++) {
+                if (day < windowEnd) {
+                    booked.addAndGet((int) (day - bookedBaseDay), delta);
+                } else {
+                    bookedLaterByType.computeIfAbsent(roomType, key -> new ConcurrentHashMap<>())
+                        .merge(day, delta, (a, b) -> a + b == 0 ? null : a + b);
+                }
+            }
+        } finally {
+            bookedWindow.readLock().unlock();
+        }
+        if (!occupancySensitive) return;
+
+        AtomicLong generation = generations.get(roomType);
+        if (generation == null) return;
+        // a table being built right now may or may not have read the new counts
+        generation.incrementAndGet();
+        RateTable table = tables.get(roomType);
+        if (table == null) return;
+        // prices are recomputed from the counts, not adjusted by delta, so a table
+        // that already saw this booking is left as it is
+        for (long day = Math.max(from, table.startDay), end = Math.min(to, table.endDay()); day < end; day++) {
+            table.set((int) (day - table.startDay), nightlyBasisPoints(roomType, day, table.roomCount));
+        }
+    }
+
+    private long nightlyBasisPoints(String roomType, long day, int roomCount) {
+        int occupancyPercent = occupancySensitive ? occupancyPercent(roomType, day, roomCount) : 0;
+        LocalDate night = LocalDate.ofEpochDay(day);
+        long basisPoints = IPricingRule.BASIS_POINTS_UNCHANGED;
+        for (IPricingRule rule : rules) {
+            basisPoints = applyBasisPoints(basisPoints, rule.basisPoints(roomType, night, occupancyPercent));
+        }
+        return basisPoints;
+    }
+
+    private int occupancyPercent(String roomType, long day, int roomCount) {
+        if (roomCount == 0) return 0;
+        bookedWindow.readLock().lock();
+        try {
+            AtomicIntegerArray booked = booked(roomType);
+            long i = day - bookedBaseDay;
+            if (i < 0) return 0;
+            if (i < booked.length()) return booked.get((int) i) * 100 / roomCount;
+            Map<Long, Integer> later = bookedLaterByType.get(roomType);
+            return later == null ? 0 : later.getOrDefault(day, 0) * 100 / roomCount;
+        } finally {
+            bookedWindow.readLock().unlock();
+        }
+    }
+
+    private AtomicIntegerArray booked(String roomType) {
+        return bookedByType.computeIfAbsent(roomType, key -> new AtomicIntegerArray(Room.CALENDAR_HORIZON_DAYS));
+    }
+
+    private void rulesChanged() {
+        boolean sensitive = false;
+        for (IPricingRule rule : rules) {
+            sensitive |= rule.dependsOnOccupancy();
+        }
+        occupancySensitive = sensitive;
+        invalidateAll();
+    }
+
+    private void drop(String key) {
+        generations.get(key).incrementAndGet();
+        tables.remove(key);
+    }
+
+    // amount × basisPoints / 10000, rounded half up
+    private static long applyBasisPoints(long amount, long basisPoints) {
+        return Math.floorDiv(Math.multiplyExact(amount, basisPoints) + 5_000, 10_000);
+    }
+
+    static boolean appliesTo(String ruleRoomType, String roomType) {
+        return ruleRoomType == null
+            || RoomInventory.normalizeType(ruleRoomType).equals(RoomInventory.normalizeType(roomType));
+    }
+}
@@ -0,0 +1,43 @@
+package pricing;
+
+import interfaces.IPricingRule;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+
+// e.g. summer high season: new SeasonalPricingRule("Summer", MonthDay.of(6, 15), MonthDay.of(9, 1), 12_500)
+public class SeasonalPricingRule implements IPricingRule {
+    private final String name;
+    private final MonthDay from;
+    private final MonthDay until;
+    private final int basisPoints;
+    private final String roomType;
+
+    public SeasonalPricingRule(String name, MonthDay from, MonthDay until, int basisPoints) {
+        this(name, from, until, basisPoints, null);
+    }
+
+    /** Nights in [from, until) of every year; the season may wrap past new year. roomType null = all types. */
+    public SeasonalPricingRule(String name, MonthDay from, MonthDay until, int basisPoints, String roomType) {
+        this.name = name;
+        this.from = from;
+        this.until = until;
+        this.basisPoints = basisPoints;
+        this.roomType = roomType;
+    }
+
+    @Override
+    public int basisPoints(String roomType, LocalDate night, int occupancyPercent) {
+        if (!PricingEngine.appliesTo(this.roomType, roomType)) return BASIS_POINTS_UNCHANGED;
+        MonthDay day = MonthDay.from(night);
+        boolean inSeason = from.isBefore(until)
+            ? !day.isBefore(from) && day.isBefore(until)
+            : !day.isBefore(from) || day.isBefore(until);
+        return inSeason ? basisPoints : BASIS_POINTS_UNCHANGED;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
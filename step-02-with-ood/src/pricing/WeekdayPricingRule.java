@@ -0,0 +1,38 @@
+package pricing;
+
+import interfaces.IPricingRule;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+// e.g. weekend nights +20%: new WeekdayPricingRule("Weekend", EnumSet.of(FRIDAY, SATURDAY), 12_000)
+public class WeekdayPricingRule implements IPricingRule {
+    private final String name;
+    private final Set<DayOfWeek> days;
+    private final int basisPoints;
+    private final String roomType;
+
+    public WeekdayPricingRule(String name, Set<DayOfWeek> days, int basisPoints) {
+        this(name, days, basisPoints, null);
+    }
+
+    public WeekdayPricingRule(String name, Set<DayOfWeek> days, int basisPoints, String roomType) {
+        this.name = name;
+        this.days = EnumSet.copyOf(days);
+        this.basisPoints = basisPoints;
+        this.roomType = roomType;
+    }
+
+    @Override
+    public int basisPoints(String roomType, LocalDate night, int occupancyPercent) {
+        if (!PricingEngine.appliesTo(this.roomType, roomType)) return BASIS_POINTS_UNCHANGED;
+        return days.contains(night.getDayOfWeek()) ? basisPoints : BASIS_POINTS_UNCHANGED;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
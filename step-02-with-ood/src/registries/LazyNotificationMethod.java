@@ -0,0 +1,33 @@
+package registries;
+
+import interfaces.INotificationMethod;
+import model.Customer;
+
+// what NotificationRegistry hands out: name/type from the descriptor, the real sender built on first message
+final class LazyNotificationMethod implements INotificationMethod {
+    private final LazyPlugin<INotificationMethod> plugin;
+
+    LazyNotificationMethod(LazyPlugin<INotificationMethod> plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void sendMessage(String message, String recipient) {
+        plugin.get().sendMessage(message, recipient);
+    }
+
+    @Override
+    public String getRecipient(Customer customer) {
+        return plugin.get().getRecipient(customer);
+    }
+
+    @Override
+    public String getName() {
+        return plugin.getName();
+    }
+
+    @Override
+    public String getType() {
+        return plugin.getType();
+    }
+}
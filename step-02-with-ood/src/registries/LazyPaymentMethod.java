@@ -0,0 +1,40 @@
+package registries;
+
+import interfaces.IPaymentMethod;
+import model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+// what PaymentRegistry hands out: name/type from the descriptor, the real method built on first payment
+final class LazyPaymentMethod implements IPaymentMethod {
+    private final LazyPlugin<IPaymentMethod> plugin;
+
+    LazyPaymentMethod(LazyPlugin<IPaymentMethod> plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean processPayment(Money amount, String customerName) {
+        return plugin.get().processPayment(amount, customerName);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+        return plugin.get().processPaymentAsync(amount, customerName);
+    }
+
+    @Override
+    public CompletableFuture<Void> voidPaymentAsync(Money amount, String customerName) {
+        return plugin.get().voidPaymentAsync(amount, customerName);
+    }
+
+    @Override
+    public String getName() {
+        return plugin.getName();
+    }
+
+    @Override
+    public String getType() {
+        return plugin.getType();
+    }
+}
@@ -0,0 +1,93 @@
+package registries;
+
+import interfaces.PluginDescriptor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+/**
+ * One discovered plugin: its descriptor is known up front, the instance is
+ * created on the first call to {@link #get()} (at most once, even under
+ * concurrent first use) and its construction time recorded.
+ */
+final class LazyPlugin<T> {
+    private final String service;
+    private final PluginDescriptor descriptor;
+    private final Supplier<? extends T> factory;
+    private volatile T instance;
+
+    private LazyPlugin(String service, PluginDescriptor descriptor, Supplier<? extends T> factory) {
+        this.service = service;
+        this.descriptor = descriptor;
+        this.factory = factory;
+    }
+
+    /**
+     * Lists the implementations named in META-INF/services without
+     * instantiating any of them. The built-in classes are used when no
+     * provider file is on the classpath (e.g. a plain javac build that did
+     * not copy resources); that is a supported setup, so it is only noted in
+     * {@link PluginTimings}.
+     */
+    @SafeVarargs
+    static <T> List<LazyPlugin<T>> discover(Class<T> serviceType, String service, Class<? extends T>... builtIns) {
+        long start = System.nanoTime();
+        List<LazyPlugin<T>> plugins = new ArrayList<>();
+        ServiceLoader.load(serviceType).stream()
+            .forEach(provider -> plugins.add(new LazyPlugin<>(service, descriptorOf(provider.type()), provider::get)));
+        boolean builtIn = plugins.isEmpty();
+        if (builtIn) {
+            for (Class<? extends T> type : builtIns) {
+                plugins.add(new LazyPlugin<>(service, descriptorOf(type), () -> instantiate(type)));
+            }
+        }
+        PluginTimings.recordDiscovery(service, plugins.size(), builtIn, System.nanoTime() - start);
+        return plugins;
+    }
+
+    private static PluginDescriptor descriptorOf(Class<?> type) {
+        PluginDescriptor descriptor = type.getAnnotation(PluginDescriptor.class);
+        if (descriptor == null) {
+            throw new IllegalStateException(type.getName() + " is missing @PluginDescriptor");
+        }
+        return descriptor;
+    }
+
+    private static <T> T instantiate(Class<? extends T> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot instantiate plugin " + type.getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Plugin " + type.getName() + " failed to start", e.getCause());
+        }
+    }
+
+    String getType() {
+        return descriptor.type();
+    }
+
+    String getName() {
+        return descriptor.name();
+    }
+
+    T get() {
+        T current = instance;
+        if (current != null) return current;
+        synchronized (this) {
+            if (instance == null) {
+                long start = System.nanoTime();
+                instance = factory.get();
+                PluginTimings.recordInstantiation(service, descriptor.name(), System.nanoTime() - start);
+            }
+            return instance;
+        }
+    }
+
+    boolean isInstantiated() {
+        return instance != null;
+    }
+}
@@ -0,0 +1,63 @@
+package registries;
+
+import templates.GroupMessageTemplate;
+import templates.MessageTemplate;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MessageTemplateRegistry {
+    private static final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+    private static final Map<String, GroupMessageTemplate> groupTemplates = new ConcurrentHashMap<>();
+
+    private static final MessageTemplate DEFAULT = new MessageTemplate(
+        "✅ Reservation confirmed for {customer}\n" +
+        "Room: {room} ({roomType})\n" +
+        "Check-in: {checkIn}\n" +
+        "Check-out: {checkOut}\n" +
+        "Total: {total}\n" +
+        "Booking Time: {bookingTime}");
+
+    private static final GroupMessageTemplate GROUP_DEFAULT = new GroupMessageTemplate(
+        "✅ Group reservation confirmed for {customer}\n" +
+        "Rooms: {rooms}\n",
+        new MessageTemplate("  - Room {room} ({roomType}): {checkIn} → {checkOut}, {total}\n"),
+        "Total: {total}");
+
+    public static void register(String notificationType, MessageTemplate template) {
+        templates.put(notificationType.toLowerCase(Locale.ROOT), template);
+    }
+
+    public static void registerGroup(String notificationType, GroupMessageTemplate template) {
+        groupTemplates.put(notificationType.toLowerCase(Locale.ROOT), template);
+    }
+
+    // ✅ Static registration
+    static {
+        register("email", DEFAULT);
+        // one segment: 160 characters, or 70 once a name or room type needs UCS-2
+        register("sms", MessageTemplate.forSms(
+            "Booking #{id} confirmed: room {room} ({roomType}), {checkIn} to {checkOut}, total {total}. Thank you, {customer}!"));
+        registerGroup("email", GROUP_DEFAULT);
+        // a list of rooms does not fit a segment, so SMS gets the summary only
+        registerGroup("sms", GroupMessageTemplate.forSms(
+            "Group booking confirmed: {rooms} rooms, total {total}. Details by email. Thank you, {customer}!"));
+    }
+
+    public static MessageTemplate getDefault() {
+        return DEFAULT;
+    }
+
+    public static MessageTemplate forType(String notificationType) {
+        return templates.getOrDefault(notificationType.toLowerCase(Locale.ROOT), DEFAULT);
+    }
+
+    public static GroupMessageTemplate getGroupDefault() {
+        return GROUP_DEFAULT;
+    }
+
+    public static GroupMessageTemplate groupForType(String notificationType) {
+        return groupTemplates.getOrDefault(notificationType.toLowerCase(Locale.ROOT), GROUP_DEFAULT);
+    }
+}
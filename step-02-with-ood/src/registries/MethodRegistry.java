@@ -0,0 +1,88 @@
+package registries;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Copy-on-write registry of methods keyed by type. Every change publishes a
+ * new immutable snapshot (ordered list + normalized type → method map)
+ * with a CAS, so readers never lock and never see a half-applied update,
+ * while plugins can still come and go at runtime.
+ */
+public class MethodRegistry<T> {
+    private static final class Snapshot<T> {
+        final List<T> methods;
+        final Map<String, T> byType;
+
+        Snapshot(List<T> methods, Map<String, T> byType) {
+            this.methods = methods;
+            this.byType = byType;
+        }
+    }
+
+    private final String kind;
+    private final Function<T, String> typeOf;
+    private final AtomicReference<Snapshot<T>> snapshot =
+        new AtomicReference<>(new Snapshot<>(Collections.emptyList(), Collections.emptyMap()));
+
+    public MethodRegistry(String kind, Function<T, String> typeOf) {
+        this.kind = kind;
+        this.typeOf = typeOf;
+    }
+
+    public void register(T method) {
+        String type = normalize(typeOf.apply(method));
+        snapshot.updateAndGet(current -> {
+            if (current.byType.containsKey(type)) {
+                throw new IllegalArgumentException(kind + " type '" + type + "' is already registered");
+            }
+            List<T> methods = new ArrayList<>(current.methods);
+            methods.add(method);
+            Map<String, T> byType = new HashMap<>(current.byType);
+            byType.put(type, method);
+            return new Snapshot<>(Collections.unmodifiableList(methods), Collections.unmodifiableMap(byType));
+        });
+    }
+
+    /** @return the removed method, or null if none was registered under that type */
+    public T unregister(String type) {
+        String key = normalize(type);
+        Snapshot<T> previous = snapshot.getAndUpdate(current -> {
+            T removed = current.byType.get(key);
+            if (removed == null) return current;
+            List<T> methods = new ArrayList<>(current.methods);
+            methods.remove(removed);
+            Map<String, T> byType = new HashMap<>(current.byType);
+            byType.remove(key);
+            return new Snapshot<>(Collections.unmodifiableList(methods), Collections.unmodifiableMap(byType));
+        });
+        return previous.byType.get(key);
+    }
+
+    // read-only snapshot in registration order; later changes do not show up in it
+    public List<T> getAll() {
+        return snapshot.get().methods;
+    }
+
+    public T findByType(String type) {
+        T method = snapshot.get().byType.get(normalize(type));
+        if (method == null) {
+            throw new IllegalArgumentException("Unknown " + kind + " type: " + type);
+        }
+        return method;
+    }
+
+    public boolean contains(String type) {
+        return snapshot.get().byType.containsKey(normalize(type));
+    }
+
+    static String normalize(String type) {
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,30 +2,34 @@ package registries;
 
 import interfaces.INotificationMethod;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class NotificationRegistry {
-    private static final List<INotificationMethod> methods = new ArrayList<>();
+    private static final MethodRegistry<INotificationMethod> methods =
+        new MethodRegistry<>("notification method", INotificationMethod::getType);
     
     public static void register(INotificationMethod method) {
-        methods.add(method);
+        methods.register(method);
+    }
+
+    public static INotificationMethod unregister(String type) {
+        return methods.unregister(type);
     }
     
-    // ✅ Static registration
+    // ✅ Plugins listed in META-INF/services/interfaces.INotificationMethod; each is built on first use
     static {
-        register(new implementations.EmailNotification());
-        register(new implementations.SmsNotification()); // adding new feature by just adding one line the regestry class
+        for (LazyPlugin<INotificationMethod> plugin : LazyPlugin.discover(INotificationMethod.class, "notification",
+                implementations.EmailNotification.class, implementations.SmsNotification.class)) {
+            register(new LazyNotificationMethod(plugin));
+        }
     }
     
     public static List<INotificationMethod> getAll() {
-        return new ArrayList<>(methods);
+        return methods.getAll();
     }
     
+    // throws IllegalArgumentException for a type nobody registered
     public static INotificationMethod findByType(String type) {
-        return methods.stream()
-            .filter(m -> m.getType().equalsIgnoreCase(type))
-            .findFirst()
-            .orElse(methods.get(0));
+        return methods.findByType(type);
     }
-}
\ No newline at end of file
+}
@@ -2,30 +2,34 @@ package registries;
 
 import interfaces.IPaymentMethod;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class PaymentRegistry {
-    private static final List<IPaymentMethod> methods = new ArrayList<>();
+    private static final MethodRegistry<IPaymentMethod> methods =
+        new MethodRegistry<>("payment method", IPaymentMethod::getType);
     
     public static void register(IPaymentMethod method) {
-        methods.add(method);
+        methods.register(method);
+    }
+
+    public static IPaymentMethod unregister(String type) {
+        return methods.unregister(type);
     }
     
-    // ✅ Static registration
+    // ✅ Plugins listed in META-INF/services/interfaces.IPaymentMethod; each is built on first use
     static {
-        register(new implementations.CreditCardPayment());
-        register(new implementations.OnSitePayment()); // adding new feature by just adding one line the regestry class
+        for (LazyPlugin<IPaymentMethod> plugin : LazyPlugin.discover(IPaymentMethod.class, "payment",
+                implementations.CreditCardPayment.class, implementations.OnSitePayment.class)) {
+            register(new LazyPaymentMethod(plugin));
+        }
     }
     
     public static List<IPaymentMethod> getAll() {
-        return new ArrayList<>(methods);
+        return methods.getAll();
     }
     
+    // throws IllegalArgumentException for a type nobody registered
     public static IPaymentMethod findByType(String type) {
-        return methods.stream()
-            .filter(m -> m.getType().equalsIgnoreCase(type))
-            .findFirst()
-            .orElse(methods.get(0));
+        return methods.findByType(type);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package registries;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Startup cost of plugins: how long discovery of each service took and how
+ * long each plugin took to instantiate on first use.
+ * Run with -Dplugins.timing=true to have every entry printed as it happens.
+ */
+public final class PluginTimings {
+    private static final boolean PRINT = Boolean.getBoolean("plugins.timing");
+    private static final List<String> entries = new CopyOnWriteArrayList<>();
+
+    private PluginTimings() {}
+
+    static void recordDiscovery(String service, int plugins, boolean builtIn, long nanos) {
+        record(String.format(Locale.ROOT, "discovered %d %s plugin(s)%s in %.3f ms", plugins, service,
+            builtIn ? " (built-in, no META-INF/services on the classpath)" : "", nanos / 1e6));
+    }
+
+    static void recordInstantiation(String service, String plugin, long nanos) {
+        record(String.format(Locale.ROOT, "instantiated %s plugin '%s' in %.3f ms", service, plugin, nanos / 1e6));
+    }
+
+    public static List<String> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public static void print() {
+        for (String entry : entries) {
+            System.out.println("⏱️ " + entry);
+        }
+    }
+
+    private static void record(String entry) {
+        entries.add(entry);
+        if (PRINT) {
+            System.out.println("⏱️ " + entry);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package service;
+
+import model.Room;
+
+import java.util.List;
+
+/**
+ * Prices thousands of quotes in one pass over caller-owned primitive arrays
+ * (amounts in minor units), so a batch allocates nothing. The loops are plain
+ * counted loops over arrays with no calls or branches in the body, which the
+ * JIT unrolls and auto-vectorizes. Nightly rates and night counts of real
+ * stays are far below the range where the long products could overflow, so
+ * the loops skip the per-element overflow check that {@link model.Money} does.
+ */
+public final class BatchPricer {
+    private BatchPricer() {}
+
+    /** rates[i] = nightly price of rooms[i]; returns how many were loaded. */
+    public static int loadRates(List<Room> rooms, long[] rates) {
+        int count = Math.min(rooms.size(), rates.length);
+        for (int i = 0; i < count; i++) {
+            rates[i] = rooms.get(i).getPricePerNight().getMinorUnits();
+        }
+        return count;
+    }
+
+    /** totals[i] = nightlyRates[i] * nights[i] */
+    public static void totals(long[] nightlyRates, int[] nights, long[] totals, int count) {
+        for (int i = 0; i < count; i++) {
+            totals[i] = nightlyRates[i] * nights[i];
+        }
+    }
+
+    /** Same stay quoted for many rooms: totals[i] = nightlyRates[i] * nights */
+    public static void totals(long[] nightlyRates, long nights, long[] totals, int count) {
+        for (int i = 0; i < count; i++) {
+            totals[i] = nightlyRates[i] * nights;
+        }
+    }
+
+    public static long sum(long[] amounts, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += amounts[i];
+        }
+        return sum;
+    }
+}
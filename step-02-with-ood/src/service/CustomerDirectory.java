@@ -0,0 +1,158 @@
+package service;
+
+import interfaces.IReservationListener;
+import model.Customer;
+import model.Reservation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One {@link Customer} object per guest. Guests are interned by normalized
+ * email, or by phone number when no email is given or it is the one on
+ * file, and given dense int ids, which
+ * index straight into an array of their confirmed stays — "all bookings of
+ * this guest" is an array read, not a scan over every room.
+ * Lookups are lock-free; registering a new guest takes the directory lock.
+ */
+public class CustomerDirectory implements IReservationListener {
+    private static final class Entry {
+        final Customer customer;
+        final List<Reservation> stays = new CopyOnWriteArrayList<>();
+
+        Entry(Customer customer) {
+            this.customer = customer;
+        }
+    }
+
+    private final Map<String, Customer> byEmail = new ConcurrentHashMap<>();
+    private final Map<String, Customer> byPhone = new ConcurrentHashMap<>();
+    private volatile Entry[] entries = new Entry[64];
+    private volatile int size;
+
+    /** Returns the existing guest with this email or phone, or registers a new one. */
+    public Customer register(String name, String email, String phoneNumber) {
+        String emailKey = normalizeEmail(email);
+        String phoneKey = normalizePhone(phoneNumber);
+        Customer existing = lookup(emailKey, phoneKey);
+        if (existing != null) return existing;
+
+        synchronized (this) {
+            existing = lookup(emailKey, phoneKey);
+            if (existing != null) return existing;
+
+            int id = size;
+            Customer customer = new Customer(id, name.trim(), email.trim(), phoneNumber.trim());
+            Entry[] current = entries;
+            if (id == current.length) {
+                current = Arrays.copyOf(current, id * 2);
+            }
+            current[id] = new Entry(customer);
+            entries = current;
+            size = id + 1;
+            // published last, so whoever finds the guest also sees its entry
+            if (!emailKey.isEmpty()) byEmail.putIfAbsent(emailKey, customer);
+            if (!phoneKey.isEmpty()) byPhone.putIfAbsent(phoneKey, customer);
+            return customer;
+        }
+    }
+
+    /** The directory's instance for this guest (e.g. one decoded from the journal). */
+    public Customer intern(Customer customer) {
+        if (customer.getId() != Customer.UNREGISTERED && get(customer.getId()) == customer) {
+            return customer;
+        }
+        return register(customer.getName(), customer.getEmail(), customer.getPhoneNumber());
+    }
+
+    public Customer get(int id) {
+        Entry entry = entry(id);
+        return entry == null ? null : entry.customer;
+    }
+
+    public Customer findByEmail(String email) {
+        return byEmail.get(normalizeEmail(email));
+    }
+
+    public Customer findByPhone(String phoneNumber) {
+        return byPhone.get(normalizePhone(phoneNumber));
+    }
+
+    // رزروهای تأییدشده مهمان (نمای فقط‌خواندنی)
+    public List<Reservation> getStays(int customerId) {
+        Entry entry = entry(customerId);
+        return entry == null ? Collections.emptyList() : Collections.unmodifiableList(entry.stays);
+    }
+
+    public List<Reservation> getStays(Customer customer) {
+        return getStays(intern(customer).getId());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void onConfirmed(Reservation reservation) {
+        entry(intern(reservation.getCustomer()).getId()).stays.add(reservation);
+    }
+
+    @Override
+    public void onCancelled(Reservation reservation) {
+        entry(intern(reservation.getCustomer()).getId()).stays.remove(reservation);
+    }
+
+    @Override
+    public void onArchived(Reservation reservation) {
+        onCancelled(reservation);
+    }
+
+    private Entry entry(int id) {
+        int count = size; // read before entries: the array seen is at least as new as the count
+        Entry[] current = entries;
+        return id >= 0 && id < count ? current[id] : null;
+    }
+
+    // a shared phone (family, front desk) must not merge guests whose emails differ
+    private Customer lookup(String emailKey, String phoneKey) {
+        if (!emailKey.isEmpty()) {
+            Customer customer = byEmail.get(emailKey);
+            if (customer != null) return customer;
+        }
+        if (phoneKey.isEmpty()) return null;
+        Customer customer = byPhone.get(phoneKey);
+        if (customer != null && !emailKey.isEmpty() && !emailKey.equals(normalizeEmail(customer.getEmail()))) {
+            return null;
+        }
+        return customer;
+    }
+
+    /**
+     * The key a guest keeps across restarts, unlike its dense id: the
+     * normalized email, or the phone number when no email is given.
+     */
+    public static String guestKey(Customer customer) {
+        String emailKey = normalizeEmail(customer.getEmail());
+        return emailKey.isEmpty() ? "tel:" + normalizePhone(customer.getPhoneNumber()) : emailKey;
+    }
+
+    static String normalizeEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // فقط ارقام و + ابتدایی: "+98 912-000 1111" == "+989120001111"
+    static String normalizePhone(String phoneNumber) {
+        if (phoneNumber == null) return "";
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (Character.isDigit(c) || (c == '+' && digits.length() == 0)) digits.append(c);
+        }
+        return digits.toString();
+    }
+}
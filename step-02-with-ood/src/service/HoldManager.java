@@ -0,0 +1,137 @@
+package service;
+
+import model.Reservation;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Time-boxes tentative room holds. Every hold taken while a payment is in
+ * flight gets a TTL on a shared {@link TimingWheel}; when it lapses the room
+ * is released on the next tick. One ticker thread serves all holds, so the
+ * cost per hold is a single O(1) insert no matter how many are open.
+ *
+ * The same thread notices midnight and starts the daily tasks (calendar and
+ * analytics window roll, see {@link #onNewDay}) on the common pool, so a
+ * long task never delays an expiry.
+ */
+public class HoldManager {
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(2);
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+
+    // a hold and what to undo besides the room once it lapses
+    private static final class Hold {
+        final Reservation reservation;
+        final Consumer<Reservation> onExpired;
+
+        Hold(Reservation reservation, Consumer<Reservation> onExpired) {
+            this.reservation = reservation;
+            this.onExpired = onExpired;
+        }
+    }
+
+    private final TimingWheel<Hold> wheel = new TimingWheel<>();
+    private final long ttlTicks;
+    private final long tickNanos;
+    private final LongAdder expired = new LongAdder();
+    private final Thread ticker;
+    private final List<Consumer<LocalDate>> dailyTasks = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    public HoldManager() {
+        this(DEFAULT_TTL, DEFAULT_TICK);
+    }
+
+    public HoldManager(Duration ttl, Duration tick) {
+        this(ttl, tick, true);
+    }
+
+    // without the ticker thread nothing expires until advanceTo is called (tests)
+    HoldManager(Duration ttl, Duration tick, boolean startTicker) {
+        this.tickNanos = tick.toNanos();
+        this.ttlTicks = Math.max(1, ttl.toNanos() / tickNanos);
+        this.ticker = startTicker ? new Thread(this::run, "hold-timer") : null;
+        if (ticker != null) {
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    /** Starts the TTL for a hold; cancel the returned timeout once the hold is confirmed or released. */
+    public TimingWheel.Timeout<?> track(Reservation hold) {
+        return track(hold, expired -> { });
+    }
+
+    /** Same, and runs {@code onExpired} (on the timer thread) if the hold does lapse. */
+    public TimingWheel.Timeout<?> track(Reservation hold, Consumer<Reservation> onExpired) {
+        return wheel.schedule(new Hold(hold, onExpired), ttlTicks);
+    }
+
+    /** Runs {@code task} with the new date each time the local day changes. */
+    public void onNewDay(Consumer<LocalDate> task) {
+        dailyTasks.add(task);
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    public void stop() {
+        running = false;
+        if (ticker != null) ticker.interrupt();
+    }
+
+    // what the ticker does each tick; only for a manager created without one
+    void advanceTo(long tick) {
+        wheel.advanceTo(tick, this::expire);
+    }
+
+    private void run() {
+        long start = System.nanoTime();
+        long nextDayMillis = startOfDayAfter(LocalDate.now());
+        while (running) {
+            advanceTo((System.nanoTime() - start) / tickNanos);
+            if (System.currentTimeMillis() >= nextDayMillis) {
+                LocalDate today = LocalDate.now();
+                nextDayMillis = startOfDayAfter(today);
+                startDailyTasks(today);
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(tickNanos);
+            } catch (InterruptedException e) {
+                // stop() interrupts; the loop condition decides
+            }
+        }
+    }
+
+    private void startDailyTasks(LocalDate today) {
+        for (Consumer<LocalDate> task : dailyTasks) {
+            CompletableFuture.runAsync(() -> task.accept(today))
+                .exceptionally(e -> {
+                    System.out.println("⚠️ Daily task for " + today + " failed: " + e.getMessage());
+                    return null;
+                });
+        }
+    }
+
+    private static long startOfDayAfter(LocalDate day) {
+        return day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void expire(Hold entry) {
+        Reservation hold = entry.reservation;
+        if (hold.getRoom().expireHold(hold)) {
+            expired.increment();
+            entry.onExpired.accept(hold);
+            System.out.println("⌛ Hold on room " + hold.getRoom().getRoomNumber()
+                + " for " + hold.getCheckInDate() + " → " + hold.getCheckOutDate() + " expired");
+        }
+    }
+}
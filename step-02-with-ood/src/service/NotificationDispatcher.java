@@ -0,0 +1,221 @@
+package service;
+
+import interfaces.INotificationMethod;
+import metrics.BookingMetrics;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes notifications off the booking path.
+ * Each channel (email, sms, ...) gets its own bounded lock-free queue and one
+ * worker that drains it in batches. A full queue pushes back on the producer:
+ * the message is delivered inline on the caller's thread instead of being
+ * dropped. Failed deliveries are retried with exponential backoff, and
+ * everything still queued is flushed on {@link #shutdown()}, which the
+ * owner calls (Main does it from its single JVM shutdown hook).
+ */
+public class NotificationDispatcher {
+    // first retry after 100 ms, then 200, 400, ...
+    static final long RETRY_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int capacityPerChannel;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Map<String, ChannelBatcher> batchers = new ConcurrentHashMap<>();
+    private volatile boolean shutdown;
+    private volatile BookingMetrics metrics;
+
+    public NotificationDispatcher() {
+        this(10_000, 64, 3);
+    }
+
+    public NotificationDispatcher(int capacityPerChannel, int batchSize, int maxAttempts) {
+        this.capacityPerChannel = capacityPerChannel;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * @return true if the message was queued, false if the channel was full
+     *         or shut down and the message was delivered synchronously instead
+     */
+    public boolean dispatch(INotificationMethod method, String message, String recipient) {
+        Envelope envelope = new Envelope(message, recipient);
+        if (!shutdown) {
+            ChannelBatcher batcher = batchers.computeIfAbsent(method.getType(), type -> new ChannelBatcher(method));
+            if (batcher.offer(envelope)) {
+                // a batcher created while shutdown() was stopping the others may have been missed by it
+                if (shutdown) batcher.stop();
+                return true;
+            }
+        }
+        deliverInline(method, envelope);
+        return false;
+    }
+
+    // the caller's thread takes the retries (with the same backoff) when the queue cannot
+    private void deliverInline(INotificationMethod method, Envelope envelope) {
+        while (!deliver(method, envelope)) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(envelope.dueAt - System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.out.println("❌ " + method.getName() + " to " + envelope.recipient
+                    + " dropped after " + envelope.attempts + " attempts: interrupted");
+                return;
+            }
+        }
+    }
+
+    // delivery time per notification type goes here (the owning service's metrics)
+    public void setMetrics(BookingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void flush(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.awaitEmpty(deadline);
+        }
+    }
+
+    // a batcher added after this loop started is stopped by the dispatch that added it
+    public void shutdown() {
+        if (shutdown) return;
+        shutdown = true;
+        for (ChannelBatcher batcher : batchers.values()) {
+            batcher.stop();
+        }
+    }
+
+    public int pending() {
+        int total = 0;
+        for (ChannelBatcher batcher : batchers.values()) {
+            total += batcher.pending.get();
+        }
+        return total;
+    }
+
+    // true when the envelope is done with (sent or given up on), false when it should be retried at dueAt
+    private boolean deliver(INotificationMethod method, Envelope envelope) {
+        long start = System.nanoTime();
+        try {
+            method.sendMessage(envelope.message, envelope.recipient);
+            BookingMetrics metrics = this.metrics;
+            if (metrics != null) {
+                metrics.recordNotification(method.getType(), System.nanoTime() - start);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            envelope.attempts++;
+            if (envelope.attempts >= maxAttempts) {
+                System.out.println("❌ " + method.getName() + " to " + envelope.recipient
+                    + " dropped after " + envelope.attempts + " attempts: " + e.getMessage());
+                return true;
+            }
+            envelope.dueAt = System.nanoTime() + (RETRY_BACKOFF_NANOS << (envelope.attempts - 1));
+            return false;
+        }
+    }
+
+    private static final class Envelope {
+        final String message;
+        final String recipient;
+        int attempts;
+        long dueAt;
+
+        Envelope(String message, String recipient) {
+            this.message = message;
+            this.recipient = recipient;
+        }
+    }
+
+    private final class ChannelBatcher implements Runnable {
+        private final INotificationMethod method;
+        private final ConcurrentLinkedQueue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        // failed envelopes waiting out their backoff, earliest first; worker thread only
+        private final PriorityQueue<Envelope> retries = new PriorityQueue<>(Comparator.comparingLong(e -> e.dueAt));
+        // queued + in the batch currently being sent
+        private final AtomicInteger pending = new AtomicInteger();
+        private final Thread worker;
+        private volatile boolean running = true;
+
+        ChannelBatcher(INotificationMethod method) {
+            this.method = method;
+            this.worker = new Thread(this, "notify-" + method.getType());
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+
+        // false when full or stopped; the caller then delivers inline
+        boolean offer(Envelope envelope) {
+            if (pending.incrementAndGet() > capacityPerChannel) {
+                pending.decrementAndGet();
+                return false;
+            }
+            queue.offer(envelope);
+            // queued before reading running: if the worker was still running it will see the envelope
+            // before it exits; otherwise take it back, unless the last drain already did
+            if (!running && queue.remove(envelope)) {
+                pending.decrementAndGet();
+                return false;
+            }
+            LockSupport.unpark(worker);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            Envelope[] batch = new Envelope[batchSize];
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(50);
+            while (running || !queue.isEmpty() || !retries.isEmpty()) {
+                int count = 0;
+                long now = System.nanoTime();
+                while (count < batch.length && !retries.isEmpty() && retries.peek().dueAt - now <= 0) {
+                    batch[count++] = retries.poll();
+                }
+                Envelope next;
+                while (count < batch.length && (next = queue.poll()) != null) {
+                    batch[count++] = next;
+                }
+                if (count == 0) {
+                    long wait = retries.isEmpty() ? idleNanos : Math.min(idleNanos, retries.peek().dueAt - now);
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (deliver(method, batch[i])) {
+                        pending.decrementAndGet();
+                    } else {
+                        retries.add(batch[i]);
+                    }
+                    batch[i] = null;
+                }
+            }
+        }
+
+        void awaitEmpty(long deadlineNanos) {
+            while (pending.get() > 0 && System.nanoTime() < deadlineNanos) {
+                LockSupport.unpark(worker);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(worker);
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
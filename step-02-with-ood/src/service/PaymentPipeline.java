@@ -0,0 +1,126 @@
+package service;
+
+import interfaces.IAsyncPaymentProcessor;
+import model.Money;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Front door for gateway calls: caps the number of payments in flight,
+ * fails any payment that does not answer within the timeout, and hands the
+ * result back on the pipeline's executor so the gateway's own threads are
+ * never used for booking work.
+ *
+ * A payment keeps its slot until the gateway answers, even after the
+ * booking has given up on it, so the cap holds under a slow gateway. An
+ * approval that arrives after the timeout is voided through the processor.
+ *
+ * When every slot is taken a payment waits in a FIFO queue without holding
+ * a thread, and gives up if no slot frees up within the timeout; the
+ * caller is never blocked.
+ */
+public class PaymentPipeline {
+    private final Duration timeout;
+    private final Executor executor;
+    // guarded by this
+    private int permits;
+    private final ArrayDeque<CompletableFuture<Void>> waiting = new ArrayDeque<>();
+
+    public PaymentPipeline() {
+        this(256, Duration.ofSeconds(5), VirtualThreads.newPerTaskExecutor("payment"));
+    }
+
+    public PaymentPipeline(int maxInFlight, Duration timeout, Executor executor) {
+        this.permits = maxInFlight;
+        this.timeout = timeout;
+        this.executor = executor;
+    }
+
+    public CompletableFuture<Boolean> submit(IAsyncPaymentProcessor processor, Money amount, String customerName) {
+        return acquire().handle((slot, busy) -> busy == null)
+            .thenComposeAsync(acquired -> {
+                if (!acquired) {
+                    System.out.println("❌ Payment gateway busy, giving up after " + timeout.toMillis() + " ms");
+                    return CompletableFuture.completedFuture(false);
+                }
+                return pay(processor, amount, customerName);
+            }, executor);
+    }
+
+    private CompletableFuture<Boolean> pay(IAsyncPaymentProcessor processor, Money amount, String customerName) {
+        CompletableFuture<Boolean> payment;
+        try {
+            payment = processor.processPaymentAsync(amount, customerName);
+        } catch (RuntimeException e) {
+            payment = CompletableFuture.failedFuture(e);
+        }
+
+        // the caller's view of the payment: the gateway's answer or the timeout, whichever comes first
+        CompletableFuture<Boolean> answer = new CompletableFuture<>();
+        payment.whenComplete((approved, error) -> {
+            release();
+            boolean delivered = error == null ? answer.complete(approved) : answer.completeExceptionally(error);
+            if (!delivered && Boolean.TRUE.equals(approved)) {
+                voidLatePayment(processor, amount, customerName);
+            }
+        });
+
+        return answer
+            .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+            .handleAsync((approved, error) -> {
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    System.out.println(cause instanceof TimeoutException
+                        ? "❌ Payment timed out after " + timeout.toMillis() + " ms"
+                        : "❌ Payment error: " + cause.getMessage());
+                    return false;
+                }
+                return Boolean.TRUE.equals(approved);
+            }, executor);
+    }
+
+    // the booking was already rolled back, so the money must go back
+    private static void voidLatePayment(IAsyncPaymentProcessor processor, Money amount, String customerName) {
+        System.out.println("⚠️ Payment of " + amount + " for " + customerName + " approved after the timeout, voiding it");
+        CompletableFuture<Void> voided;
+        try {
+            voided = processor.voidPaymentAsync(amount, customerName);
+        } catch (RuntimeException e) {
+            voided = CompletableFuture.failedFuture(e);
+        }
+        voided.exceptionally(error -> {
+            System.out.println("❌ Void failed, refund " + amount + " to " + customerName + " by hand: " + error.getMessage());
+            return null;
+        });
+    }
+
+    // completes once a slot is ours, or exceptionally when the wait times out
+    private synchronized CompletableFuture<Void> acquire() {
+        if (permits > 0) {
+            permits--;
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> slot = new CompletableFuture<>();
+        waiting.add(slot);
+        slot.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        return slot;
+    }
+
+    // hands the slot to the oldest waiter that has not timed out yet
+    private synchronized void release() {
+        CompletableFuture<Void> next;
+        while ((next = waiting.poll()) != null) {
+            if (next.complete(null)) return;
+        }
+        permits++;
+    }
+
+    public synchronized int availablePermits() {
+        return permits;
+    }
+}
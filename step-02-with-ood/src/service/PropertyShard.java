@@ -0,0 +1,93 @@
+package service;
+
+import interfaces.INotificationMethod;
+import interfaces.IPaymentMethod;
+import model.Customer;
+import model.Reservation;
+import model.Room;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * One property of the chain: its own rooms, its own {@link ReservationService}
+ * (holds, pricing, metrics, listeners), its own executor and its own journal
+ * directory. Bookings in different properties never contend on a lock; only
+ * the hold timer and the payment pipeline are shared (see
+ * {@link ShardedReservationRouter}).
+ */
+public class PropertyShard {
+    private final String propertyId;
+    private final ReservationService service;
+    private final ExecutorService executor;
+    private final Path journalDirectory;
+
+    /** A stand-alone property with its own timer and payment pipeline, kept in memory only. */
+    public PropertyShard(String propertyId, RoomInventory inventory, int threads) {
+        this(propertyId, new ReservationService(inventory), threads, null);
+    }
+
+    PropertyShard(String propertyId, ReservationService service, int threads, Path journalDirectory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("A property needs at least one thread");
+        }
+        this.propertyId = propertyId;
+        this.service = service;
+        this.journalDirectory = journalDirectory;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "shard-" + propertyId + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Runs the booking on this property's executor; the payment still completes asynchronously. */
+    public CompletableFuture<Reservation> makeReservationAsync(Customer customer, int roomNumber,
+                                                               LocalDate checkInDate, LocalDate checkOutDate,
+                                                               IPaymentMethod paymentMethod,
+                                                               INotificationMethod notificationMethod) {
+        return CompletableFuture
+            .supplyAsync(() -> service.makeReservationAsync(customer, roomNumber, checkInDate, checkOutDate,
+                paymentMethod, notificationMethod), executor)
+            .thenCompose(Function.identity());
+    }
+
+    public CompletableFuture<Boolean> cancelReservationAsync(Reservation reservation) {
+        return CompletableFuture.supplyAsync(() -> service.cancelReservation(reservation), executor);
+    }
+
+    public CompletableFuture<List<Room>> searchRoomsAsync(RoomSearchCriteria criteria) {
+        return CompletableFuture.supplyAsync(() -> service.searchRooms(criteria), executor);
+    }
+
+    public String getPropertyId() {
+        return propertyId;
+    }
+
+    public ReservationService getService() {
+        return service;
+    }
+
+    /** Where this property's journal lives, or null when it is kept in memory only. */
+    public Path getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        service.shutdown();
+    }
+}
@@ -1,25 +1,108 @@
 package service;
 
+import analytics.OccupancyAnalytics;
 import interfaces.INotificationMethod;
 import interfaces.IPaymentMethod;
+import interfaces.IReservationJournal;
+import interfaces.IReservationListener;
+import metrics.BookingMetrics;
+import metrics.BookingMetrics.Stage;
 import model.Customer;
+import model.Money;
 import model.Reservation;
 import model.Room;
+import model.RoomTypeBooking;
+import model.RoomStay;
+import pricing.PricingEngine;
+import registries.MessageTemplateRegistry;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ReservationService {
-    private final Room[] availableRooms;
+    // below this many candidate rooms a plain loop beats fork-join overhead
+    static final int PARALLEL_SEARCH_THRESHOLD = 1024;
+
+    private final RoomInventory inventory;
+    private final PaymentPipeline paymentPipeline;
+    private final NotificationDispatcher notificationDispatcher;
+    private volatile IReservationJournal journal;
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+    private final Map<Long, Reservation> reservationsById = new ConcurrentHashMap<>();
+    private final HoldManager holdManager;
+    private final boolean ownsHoldManager;
+    private final PricingEngine pricingEngine;
+    private final OccupancyAnalytics analytics;
+    private final BookingMetrics metrics = new BookingMetrics();
+    private final CustomerDirectory customerDirectory = new CustomerDirectory();
+    private final RoomTypeAvailability roomTypeAvailability;
+    private final RoomAssignmentOptimizer assignmentOptimizer = new RoomAssignmentOptimizer();
+    // paid type bookings still waiting for a room, by id
+    private final Map<Long, RoomTypeBooking> unassignedBookings = new ConcurrentHashMap<>();
+    private final List<IReservationListener> listeners = new CopyOnWriteArrayList<>();
 
     public ReservationService() {
-        this.availableRooms = new Room[] {
-            new Room(101, "Luxury", 250.0),
-            new Room(102, "Deluxe", 180.0),
-            new Room(103, "Standard", 120.0),
-            new Room(201, "Luxury", 260.0),
-            new Room(202, "Deluxe", 190.0),
-            new Room(203, "Standard", 130.0)
-        };
+        this(sampleRooms());
+    }
+
+    // اتاق‌های نمونه هر هتل (منوی اصلی و هر property در حالت --chain)
+    public static RoomInventory sampleRooms() {
+        RoomInventory inventory = new RoomInventory();
+        inventory.addRoom(new Room(101, "Luxury", 250.0, 4));
+        inventory.addRoom(new Room(102, "Deluxe", 180.0, 3));
+        inventory.addRoom(new Room(103, "Standard", 120.0, 2));
+        inventory.addRoom(new Room(201, "Luxury", 260.0, 4));
+        inventory.addRoom(new Room(202, "Deluxe", 190.0, 3));
+        inventory.addRoom(new Room(203, "Standard", 130.0, 2));
+        return inventory;
+    }
+
+    public ReservationService(RoomInventory inventory) {
+        this(inventory, new PaymentPipeline(), new NotificationDispatcher());
+    }
+
+    public ReservationService(RoomInventory inventory, PaymentPipeline paymentPipeline,
+                              NotificationDispatcher notificationDispatcher) {
+        this(inventory, paymentPipeline, notificationDispatcher, new HoldManager(), true);
+    }
+
+    /**
+     * With a hold manager shared between services (e.g. the properties of a
+     * {@link ShardedReservationRouter}); whoever created it stops it, not
+     * {@link #shutdown()}.
+     */
+    public ReservationService(RoomInventory inventory, PaymentPipeline paymentPipeline,
+                              NotificationDispatcher notificationDispatcher, HoldManager holdManager) {
+        this(inventory, paymentPipeline, notificationDispatcher, holdManager, false);
+    }
+
+    private ReservationService(RoomInventory inventory, PaymentPipeline paymentPipeline,
+                               NotificationDispatcher notificationDispatcher, HoldManager holdManager,
+                               boolean ownsHoldManager) {
+        this.inventory = inventory;
+        this.paymentPipeline = paymentPipeline;
+        this.notificationDispatcher = notificationDispatcher;
+        this.holdManager = holdManager;
+        this.ownsHoldManager = ownsHoldManager;
+        this.pricingEngine = new PricingEngine(inventory);
+        this.analytics = new OccupancyAnalytics(inventory);
+        this.roomTypeAvailability = new RoomTypeAvailability(inventory);
+        notificationDispatcher.setMetrics(metrics);
+        listeners.add(pricingEngine);
+        listeners.add(customerDirectory);
+        listeners.add(analytics);
+        listeners.add(roomTypeAvailability);
+        holdManager.onNewDay(this::rollDay);
     }
 
     /**
@@ -30,80 +113,845 @@ public class ReservationService {
                                      LocalDate checkInDate, LocalDate checkOutDate,
                                      IPaymentMethod paymentMethod, 
                                      INotificationMethod notificationMethod) {
+        return makeReservationAsync(customer, roomNumber, checkInDate, checkOutDate,
+            paymentMethod, notificationMethod).join();
+    }
+
+    /**
+     * Same flow as {@link #makeReservation}, but the caller gets the room hold
+     * back immediately and the payment result arrives on the returned future
+     * (null when the booking was rejected or the payment failed).
+     */
+    public CompletableFuture<Reservation> makeReservationAsync(Customer customer, int roomNumber,
+                                                               LocalDate checkInDate, LocalDate checkOutDate,
+                                                               IPaymentMethod paymentMethod,
+                                                               INotificationMethod notificationMethod) {
+        long started = System.nanoTime();
+        metrics.bookingStarted();
         
         // اعتبارسنجی تاریخ
         if (!isValidDateRange(checkInDate, checkOutDate)) {
             System.out.println("❌ Invalid date range: Check-out must be after check-in");
-            return null;
+            return failed(started);
         }
+        long stageStart = metrics.record(Stage.VALIDATION, started);
 
         // پیدا کردن اتاق
         Room room = findRoomByNumber(roomNumber);
         if (room == null) {
             System.out.println("❌ Room " + roomNumber + " not found");
-            return null;
+            return failed(started);
         }
+        stageStart = metrics.record(Stage.ROOM_LOOKUP, stageStart);
 
         // بررسی در دسترس بودن
         if (!room.isAvailable(checkInDate, checkOutDate)) {
+            metrics.conflict();
             System.out.println("❌ Room " + roomNumber + " is not available for the selected dates");
             System.out.println("   Existing reservations:");
             printRoomReservations(room);
+            return failed(started);
+        }
+        stageStart = metrics.record(Stage.AVAILABILITY, stageStart);
+
+        // ایجاد رزرو — بررسی و درج به‌صورت اتمیک روی همان اتاق
+        Money total = quote(room, checkInDate, checkOutDate);
+        stageStart = metrics.record(Stage.PRICING, stageStart);
+        Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate, total);
+        // اتاق آزاد است، ولی ممکن است همه اتاق‌های این نوع به رزروهای نوعی قول داده شده باشند
+        if (!holdTypeUnit(reservation)) {
+            metrics.conflict();
+            System.out.println("❌ Every " + room.getRoomType() + " room is already promised for the selected dates");
+            return failed(started);
+        }
+        if (!room.tryHold(reservation)) {
+            releaseTypeUnit(reservation);
+            metrics.conflict();
+            System.out.println("❌ Room " + roomNumber + " was just booked by another guest for the selected dates");
+            return failed(started);
+        }
+
+        TimingWheel.Timeout<?> holdTimeout = holdManager.track(reservation, this::releaseTypeUnit);
+        long paymentStart = metrics.record(Stage.HOLD, stageStart);
+
+        // ✅ SUPER SIMPLE PAYMENT! (بدون بلاک شدن روی درگاه)
+        return paymentPipeline.submit(paymentMethod, reservation.getTotalAmount(), customer.getName())
+            .thenCompose(paymentSuccess -> {
+                holdTimeout.cancel();
+                long paymentEnd = metrics.record(Stage.PAYMENT, paymentStart);
+                metrics.recordPayment(paymentMethod.getType(), paymentEnd - paymentStart);
+                return completeReservation(reservation, paymentSuccess, notificationMethod, started);
+            })
+            .whenComplete((booked, error) -> {
+                if (error != null) metrics.record(Stage.TOTAL_FAILED, started);
+            });
+    }
+
+    public RoomTypeBooking makeTypeReservation(Customer customer, String roomType,
+                                               LocalDate checkInDate, LocalDate checkOutDate,
+                                               IPaymentMethod paymentMethod,
+                                               INotificationMethod notificationMethod) {
+        return makeTypeReservationAsync(customer, roomType, checkInDate, checkOutDate,
+            paymentMethod, notificationMethod).join();
+    }
+
+    /**
+     * Books "a room of this type": one unit of the type's nightly capacity is
+     * taken (overbooking limit included) and paid for; the concrete room is
+     * chosen later by {@link #assignRooms}. Completes with null when the type
+     * is sold out or the payment fails.
+     */
+    public CompletableFuture<RoomTypeBooking> makeTypeReservationAsync(Customer customer, String roomType,
+                                                                       LocalDate checkInDate, LocalDate checkOutDate,
+                                                                       IPaymentMethod paymentMethod,
+                                                                       INotificationMethod notificationMethod) {
+        long started = System.nanoTime();
+        metrics.bookingStarted();
+        if (!isValidDateRange(checkInDate, checkOutDate)) {
+            System.out.println("❌ Invalid date range: Check-out must be after check-in");
+            return failed(started);
+        }
+        List<Room> rooms = inventory.getByType(roomType);
+        if (rooms.isEmpty()) {
+            System.out.println("❌ Room type " + roomType + " not found");
+            return failed(started);
+        }
+        // نرخ ارزان‌ترین اتاق این نوع
+        Room cheapest = rooms.get(0);
+        if (!roomTypeAvailability.tryReserve(roomType, checkInDate, checkOutDate)) {
+            metrics.conflict();
+            System.out.println("❌ No " + cheapest.getRoomType() + " room left from " + checkInDate + " to " + checkOutDate);
+            return failed(started);
+        }
+        RoomTypeBooking booking = new RoomTypeBooking(customer, cheapest.getRoomType(), checkInDate, checkOutDate,
+            quote(cheapest, checkInDate, checkOutDate));
+
+        return paymentPipeline.submit(paymentMethod, booking.getTotalAmount(), customer.getName())
+            .thenCompose(paymentSuccess -> {
+                if (!paymentSuccess) {
+                    metrics.paymentFailed();
+                    roomTypeAvailability.release(roomType, checkInDate, checkOutDate);
+                    booking.cancel();
+                    System.out.println("❌ Payment failed!");
+                    return failed(started);
+                }
+                booking.confirm();
+                unassignedBookings.put(booking.getId(), booking);
+                metrics.bookingConfirmed();
+                IReservationJournal journal = this.journal;
+                if (journal == null) {
+                    return CompletableFuture.completedFuture(announceTypeBooked(booking, notificationMethod, started));
+                }
+                // مثل رزرو اتاق: تأییدیه فقط بعد از ثبت پایدار در journal
+                return journal.recordTypeBooked(booking)
+                    .exceptionally(error -> {
+                        System.out.println("⚠️ Type booking confirmed but not journaled: " + error.getMessage());
+                        return null;
+                    })
+                    .thenApply(durable -> announceTypeBooked(booking, notificationMethod, started));
+            })
+            .whenComplete((booked, error) -> {
+                if (error != null) metrics.record(Stage.TOTAL_FAILED, started);
+            });
+    }
+
+    private RoomTypeBooking announceTypeBooked(RoomTypeBooking booking, INotificationMethod notificationMethod,
+                                              long started) {
+        notificationDispatcher.dispatch(notificationMethod, buildTypeConfirmationMessage(booking),
+            notificationMethod.getRecipient(booking.getCustomer()));
+        metrics.record(Stage.TOTAL, started);
+        System.out.println("🎉 " + booking.getRoomType() + " booked; room number will be assigned before check-in");
+        return booking;
+    }
+
+    /**
+     * Places every unassigned type booking checking in on or before
+     * {@code checkInUpTo} into a concrete room, in check-in order (longest
+     * stays first on the same day), using {@link RoomAssignmentOptimizer}.
+     * Each placement is journaled like a booking. Bookings that find no free
+     * room (the type was oversold) stay unassigned and are reported.
+     *
+     * @return number of bookings placed
+     */
+    public synchronized int assignRooms(LocalDate checkInUpTo) {
+        List<RoomTypeBooking> due = new ArrayList<>();
+        for (RoomTypeBooking booking : unassignedBookings.values()) {
+            if (!booking.getCheckInDate().isAfter(checkInUpTo)) due.add(booking);
+        }
+        due.sort(Comparator.comparing(RoomTypeBooking::getCheckInDate)
+            .thenComparing(RoomTypeBooking::getCheckOutDate, Comparator.reverseOrder())
+            .thenComparingLong(RoomTypeBooking::getId));
+
+        IReservationJournal journal = this.journal;
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        int placed = 0;
+        for (RoomTypeBooking booking : due) {
+            Reservation reservation = placeInRoom(booking);
+            if (reservation == null) {
+                System.out.println("⚠️ No " + booking.getRoomType() + " room free for booking T-" + booking.getId()
+                    + " (" + booking.getCheckInDate() + " → " + booking.getCheckOutDate() + "); the guest must be relocated");
+                continue;
+            }
+            booking.assign(reservation);
+            unassignedBookings.remove(booking.getId());
+            // the confirmed reservation now counts for the type; drop the type-level hold
+            roomTypeAvailability.release(booking.getRoomType(), booking.getCheckInDate(), booking.getCheckOutDate());
+            if (journal != null) durable.add(journal.recordAssigned(booking, reservation));
+            placed++;
+        }
+        awaitJournal(CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])),
+            placed + " type bookings assigned");
+        return placed;
+    }
+
+    // a room picked by the optimizer can still be taken by a concurrent booking; then try the next best
+    private Reservation placeInRoom(RoomTypeBooking booking) {
+        List<Room> candidates = new ArrayList<>(inventory.getByType(booking.getRoomType()));
+        while (true) {
+            Room room = assignmentOptimizer.choose(candidates, booking.getCheckInDate(), booking.getCheckOutDate());
+            if (room == null) return null;
+            Reservation reservation = new Reservation(booking.getCustomer(), room, booking.getCheckInDate(),
+                booking.getCheckOutDate(), booking.getBookingTime(), booking.getTotalAmount());
+            if (room.tryHold(reservation) && room.confirmReservation(reservation)) {
+                reservationsById.put(reservation.getId(), reservation);
+                fireConfirmed(reservation);
+                return reservation;
+            }
+            room.releaseHold(reservation);
+            candidates.remove(room);
+        }
+    }
+
+    /** Cancels a type booking: frees its unit of capacity, or its room if one was assigned. */
+    public boolean cancelTypeReservation(RoomTypeBooking booking) {
+        synchronized (this) {
+            if (unassignedBookings.remove(booking.getId()) != null) {
+                booking.cancel();
+                roomTypeAvailability.release(booking.getRoomType(), booking.getCheckInDate(), booking.getCheckOutDate());
+                IReservationJournal journal = this.journal;
+                if (journal != null) {
+                    awaitJournal(journal.recordTypeCancelled(booking), "Booking T-" + booking.getId() + " cancelled");
+                }
+                System.out.println("🗑️ Booking T-" + booking.getId() + " cancelled");
+                return true;
+            }
+        }
+        Reservation assignment = booking.getAssignment();
+        if (assignment != null && cancelReservation(assignment)) {
+            booking.cancel();
+            return true;
+        }
+        System.out.println("❌ Booking T-" + booking.getId() + " is not active (" + booking.getStatus() + ")");
+        return false;
+    }
+
+    public RoomTypeBooking findTypeBooking(long bookingId) {
+        return unassignedBookings.get(bookingId);
+    }
+
+    /**
+     * Re-inserts a paid type booking that had no room yet (journal recovery).
+     * Its unit of capacity is taken back even beyond today's limits, since
+     * it was sold under the limits of its day. False if it is already known.
+     */
+    public synchronized boolean restoreTypeBooking(RoomTypeBooking booking) {
+        if (unassignedBookings.containsKey(booking.getId())) {
+            return false;
+        }
+        booking.confirm();
+        roomTypeAvailability.reserve(booking.getRoomType(), booking.getCheckInDate(), booking.getCheckOutDate());
+        unassignedBookings.put(booking.getId(), booking);
+        return true;
+    }
+
+    // used by recovery to drop a type booking cancelled in the journal without re-journaling it
+    public synchronized boolean forgetTypeBooking(long bookingId) {
+        RoomTypeBooking booking = unassignedBookings.remove(bookingId);
+        if (booking == null) return false;
+        booking.cancel();
+        roomTypeAvailability.release(booking.getRoomType(), booking.getCheckInDate(), booking.getCheckOutDate());
+        return true;
+    }
+
+    // used by recovery: the restored reservation is the room the booking was given
+    public synchronized boolean restoreAssignment(long bookingId, Reservation reservation) {
+        RoomTypeBooking booking = unassignedBookings.remove(bookingId);
+        if (booking == null) return false;
+        booking.assign(reservation);
+        roomTypeAvailability.release(booking.getRoomType(), booking.getCheckInDate(), booking.getCheckOutDate());
+        return true;
+    }
+
+    public List<RoomTypeBooking> getUnassignedBookings() {
+        List<RoomTypeBooking> bookings = new ArrayList<>(unassignedBookings.values());
+        bookings.sort(Comparator.comparing(RoomTypeBooking::getCheckInDate).thenComparingLong(RoomTypeBooking::getId));
+        return bookings;
+    }
+
+    public RoomTypeAvailability getRoomTypeAvailability() {
+        return roomTypeAvailability;
+    }
+
+    public List<Reservation> makeGroupReservation(Customer customer, List<RoomStay> stays,
+                                                  IPaymentMethod paymentMethod,
+                                                  INotificationMethod notificationMethod) {
+        return makeGroupReservationAsync(customer, stays, paymentMethod, notificationMethod).join();
+    }
+
+    /**
+     * All-or-nothing booking of many rooms: every stay is held first, then
+     * one aggregated charge is made and one consolidated confirmation sent.
+     * If any stay is unavailable or the payment fails, every hold taken so
+     * far is released and the future completes with null.
+     */
+    public CompletableFuture<List<Reservation>> makeGroupReservationAsync(Customer customer, List<RoomStay> stays,
+                                                                          IPaymentMethod paymentMethod,
+                                                                          INotificationMethod notificationMethod) {
+        long started = System.nanoTime();
+        metrics.bookingStarted();
+        if (stays.isEmpty()) {
+            return failed(started);
+        }
+
+        // اعتبارسنجی کل درخواست قبل از گرفتن هر اتاق
+        List<RoomStay> ordered = new ArrayList<>(stays);
+        ordered.sort(Comparator.comparingInt(RoomStay::getRoomNumber).thenComparing(RoomStay::getCheckInDate));
+        List<Reservation> reservations = new ArrayList<>(ordered.size());
+        for (RoomStay stay : ordered) {
+            if (!isValidDateRange(stay.getCheckInDate(), stay.getCheckOutDate())) {
+                System.out.println("❌ Invalid date range for room " + stay.getRoomNumber());
+                return failed(started);
+            }
+            Room room = findRoomByNumber(stay.getRoomNumber());
+            if (room == null) {
+                System.out.println("❌ Room " + stay.getRoomNumber() + " not found");
+                return failed(started);
+            }
+            reservations.add(new Reservation(customer, room, stay.getCheckInDate(), stay.getCheckOutDate(),
+                quote(room, stay.getCheckInDate(), stay.getCheckOutDate())));
+        }
+
+        // گرفتن همه اتاق‌ها؛ در صورت تداخل همه آزاد می‌شوند
+        Money total = Money.zero(reservations.get(0).getTotalAmount().getCurrency());
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            if (!holdTypeUnit(reservation)) {
+                metrics.conflict();
+                System.out.println("❌ Every " + reservation.getRoom().getRoomType() + " room is already promised from "
+                    + reservation.getCheckInDate() + " to " + reservation.getCheckOutDate());
+                releaseHolds(reservations.subList(0, i));
+                return failed(started);
+            }
+            if (!reservation.getRoom().tryHold(reservation)) {
+                releaseTypeUnit(reservation);
+                metrics.conflict();
+                System.out.println("❌ Room " + reservation.getRoom().getRoomNumber()
+                    + " is not available from " + reservation.getCheckInDate() + " to " + reservation.getCheckOutDate());
+                releaseHolds(reservations.subList(0, i));
+                return failed(started);
+            }
+            total = total.plus(reservation.getTotalAmount());
+        }
+        List<TimingWheel.Timeout<?>> holdTimeouts = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            holdTimeouts.add(holdManager.track(reservation, this::releaseTypeUnit));
+        }
+
+        long paymentStart = System.nanoTime();
+        return paymentPipeline.submit(paymentMethod, total, customer.getName())
+            .thenCompose(paymentSuccess -> {
+                holdTimeouts.forEach(TimingWheel.Timeout::cancel);
+                long paymentEnd = metrics.record(Stage.PAYMENT, paymentStart);
+                metrics.recordPayment(paymentMethod.getType(), paymentEnd - paymentStart);
+                return completeGroupReservation(reservations, paymentSuccess, notificationMethod, started);
+            })
+            .whenComplete((booked, error) -> {
+                if (error != null) metrics.record(Stage.TOTAL_FAILED, started);
+            });
+    }
+
+    private CompletableFuture<List<Reservation>> completeGroupReservation(List<Reservation> reservations,
+                                                                         boolean paymentSuccess,
+                                                                         INotificationMethod notificationMethod,
+                                                                         long started) {
+        if (!paymentSuccess) {
+            metrics.paymentFailed();
+            System.out.println("❌ Group payment failed! Releasing " + reservations.size() + " rooms");
+            releaseHolds(reservations);
+            return failed(started);
+        }
+
+        // holds keep everyone else out; the only way a confirm fails is an expired hold
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            if (!reservation.getRoom().confirmReservation(reservation)) {
+                metrics.holdExpired();
+                System.out.println("⌛ Hold on room " + reservation.getRoom().getRoomNumber()
+                    + " expired before payment completed; releasing the whole group, refund required");
+                for (Reservation confirmed : reservations.subList(0, i)) {
+                    // never announced to listeners, so only the hold-time unit to undo
+                    confirmed.getRoom().cancelReservation(confirmed);
+                    releaseTypeUnit(confirmed);
+                }
+                releaseHolds(reservations.subList(i + 1, reservations.size()));
+                return failed(started);
+            }
+        }
+
+        IReservationJournal journal = this.journal;
+        CompletableFuture<?>[] durable = new CompletableFuture<?>[reservations.size()];
+        for (int i = 0; i < reservations.size(); i++) {
+            Reservation reservation = reservations.get(i);
+            reservationsById.put(reservation.getId(), reservation);
+            fireConfirmed(reservation);
+            releaseTypeUnit(reservation);
+            durable[i] = journal == null
+                ? CompletableFuture.completedFuture(null)
+                : journal.recordConfirmed(reservation);
+        }
+
+        return CompletableFuture.allOf(durable)
+            .exceptionally(error -> {
+                System.out.println("⚠️ Group reservation confirmed but not fully journaled: " + error.getMessage());
+                return null;
+            })
+            .thenApply(ignored -> {
+                Customer customer = reservations.get(0).getCustomer();
+                String message = MessageTemplateRegistry.groupForType(notificationMethod.getType()).render(reservations);
+                notificationDispatcher.dispatch(notificationMethod, message, notificationMethod.getRecipient(customer));
+                metrics.bookingConfirmed();
+                metrics.record(Stage.TOTAL, started);
+                System.out.println("🎉 Group reservation of " + reservations.size() + " rooms completed successfully!");
+                return reservations;
+            });
+    }
+
+    // every booking ends in exactly one of TOTAL (confirmed) and TOTAL_FAILED
+    private <T> CompletableFuture<T> failed(long started) {
+        metrics.record(Stage.TOTAL_FAILED, started);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void releaseHolds(List<Reservation> held) {
+        IReservationJournal journal = this.journal;
+        for (Reservation reservation : held) {
+            metrics.rolledBack();
+            // an expired hold already gave its unit back
+            if (reservation.getRoom().releaseHold(reservation)) {
+                releaseTypeUnit(reservation);
+            }
+            if (journal != null) {
+                journal.recordRolledBack(reservation);
+            }
+        }
+    }
+
+    private CompletableFuture<Reservation> completeReservation(Reservation reservation, boolean paymentSuccess,
+                                                               INotificationMethod notificationMethod,
+                                                               long started) {
+        Room room = reservation.getRoom();
+        IReservationJournal journal = this.journal;
+
+        if (!paymentSuccess) {
+            metrics.paymentFailed();
+            metrics.rolledBack();
+            System.out.println("❌ Payment failed!");
+            // an expired hold already gave its unit back
+            if (room.releaseHold(reservation)) {
+                releaseTypeUnit(reservation);
+            }
+            if (journal != null) {
+                journal.recordRolledBack(reservation);
+            }
+            return failed(started);
+        }
+        long confirmStart = System.nanoTime();
+        if (!room.confirmReservation(reservation)) {
+            // hold lapsed while the gateway was answering
+            metrics.holdExpired();
+            metrics.rolledBack();
+            System.out.println("⌛ Hold on room " + room.getRoomNumber() + " expired before payment completed; refund required");
+            if (journal != null) {
+                journal.recordRolledBack(reservation);
+            }
+            return failed(started);
+        }
+
+        reservationsById.put(reservation.getId(), reservation);
+        fireConfirmed(reservation);
+        // the confirmed stay now counts for the type; drop the hold-time unit
+        releaseTypeUnit(reservation);
+        long journalStart = metrics.record(Stage.CONFIRM, confirmStart);
+        metrics.bookingConfirmed();
+        if (journal == null) {
+            return CompletableFuture.completedFuture(announceConfirmed(reservation, notificationMethod, started));
+        }
+        // تأییدیه فقط بعد از ثبت پایدار در journal ارسال می‌شود
+        return journal.recordConfirmed(reservation)
+            .exceptionally(error -> {
+                System.out.println("⚠️ Reservation confirmed but not journaled: " + error.getMessage());
+                return null;
+            })
+            .thenApply(durable -> {
+                metrics.record(Stage.JOURNAL, journalStart);
+                return announceConfirmed(reservation, notificationMethod, started);
+            });
+    }
+
+    private Reservation announceConfirmed(Reservation reservation, INotificationMethod notificationMethod,
+                                          long started) {
+        Customer customer = reservation.getCustomer();
+        long formatStart = System.nanoTime();
+        // پیام تأیید
+        String confirmationMessage = MessageTemplateRegistry.forType(notificationMethod.getType()).render(reservation);
+        long dispatchStart = metrics.record(Stage.FORMAT, formatStart);
+
+        // ✅ ULTRA TRANSPARENT NOTIFICATION!
+        // ✨ همه چیز خودکار از interface!
+        // ارسال در صف — مسیر رزرو منتظر ایمیل/پیامک نمی‌ماند
+        notificationDispatcher.dispatch(notificationMethod, confirmationMessage,
+            notificationMethod.getRecipient(customer));
+        metrics.record(Stage.NOTIFICATION, dispatchStart);
+        metrics.record(Stage.TOTAL, started);
+        
+        System.out.println("🎉 Reservation completed successfully!");
+        return reservation;
+    }
+
+    /**
+     * Re-inserts a previously confirmed reservation (e.g. during journal
+     * recovery). Returns false if the room already holds it or the nights
+     * are taken.
+     */
+    public boolean restoreReservation(Reservation reservation) {
+        Room room = reservation.getRoom();
+        if (!room.tryHold(reservation)) {
+            return false;
+        }
+        room.confirmReservation(reservation);
+        reservationsById.put(reservation.getId(), reservation);
+        fireConfirmed(reservation);
+        return true;
+    }
+
+    /**
+     * Inserts an already-settled reservation from a bulk load: the same
+     * atomic hold-and-confirm as a booking, journaled, but with no payment
+     * or notification. Returns null when the nights are taken, otherwise a
+     * future that completes once the reservation is durable.
+     */
+    public CompletableFuture<Void> importReservation(Reservation reservation) {
+        Room room = reservation.getRoom();
+        if (!holdTypeUnit(reservation)) {
+            metrics.conflict();
             return null;
         }
+        if (!room.tryHold(reservation) || !room.confirmReservation(reservation)) {
+            room.releaseHold(reservation);
+            releaseTypeUnit(reservation);
+            metrics.conflict();
+            return null;
+        }
+        reservationsById.put(reservation.getId(), reservation);
+        fireConfirmed(reservation);
+        releaseTypeUnit(reservation);
+        IReservationJournal journal = this.journal;
+        return journal == null ? CompletableFuture.completedFuture(null) : journal.recordConfirmed(reservation);
+    }
+
+    /** Drops a long-past stay from memory once the journal has moved it to the history store. */
+    public void archiveReservation(Reservation reservation) {
+        if (!reservation.getRoom().removeReservation(reservation)) return;
+        reservationsById.remove(reservation.getId());
+        for (IReservationListener listener : listeners) {
+            try {
+                listener.onArchived(reservation);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Reservation listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // used by recovery to drop a stay cancelled in the journal without re-journaling it
+    public void forgetReservation(Reservation reservation) {
+        reservationsById.remove(reservation.getId());
+        fireCancelled(reservation);
+    }
+
+    public Reservation findReservation(long reservationId) {
+        return reservationsById.get(reservationId);
+    }
+
+    public boolean cancelReservation(long reservationId) {
+        Reservation reservation = reservationsById.get(reservationId);
+        return reservation != null && cancelReservation(reservation);
+    }
+
+    /** CONFIRMED → CANCELLED; frees the nights and drops the stay from its room. */
+    public boolean cancelReservation(Reservation reservation) {
+        if (!reservation.getRoom().cancelReservation(reservation)) {
+            System.out.println("❌ Reservation #" + reservation.getId() + " is not active (" + reservation.getStatus() + ")");
+            return false;
+        }
+        reservationsById.remove(reservation.getId());
+        fireCancelled(reservation);
+        IReservationJournal journal = this.journal;
+        if (journal != null) {
+            awaitJournal(journal.recordCancelled(reservation), "Reservation #" + reservation.getId() + " cancelled");
+        }
+        System.out.println("🗑️ Reservation #" + reservation.getId() + " cancelled");
+        return true;
+    }
+
+    /**
+     * Moves a confirmed stay to new dates in the same room. The old stay is
+     * cancelled and a new confirmed reservation returned, or null (old stay
+     * untouched) when the new nights are not free. Any price difference is
+     * reported for the front desk to settle.
+     */
+    public Reservation modifyReservation(Reservation current, LocalDate newCheckIn, LocalDate newCheckOut) {
+        if (!isValidDateRange(newCheckIn, newCheckOut)) {
+            System.out.println("❌ Invalid date range: Check-out must be after check-in");
+            return null;
+        }
+        Room room = current.getRoom();
+        String roomType = room.getRoomType();
+        // nights the stay does not hold yet need a unit of the type, like any new hold
+        LocalDate earlyEnd = min(newCheckOut, current.getCheckInDate());
+        LocalDate lateStart = max(newCheckIn, current.getCheckOutDate());
+        if (!holdTypeNights(roomType, newCheckIn, earlyEnd)) {
+            System.out.println("❌ No " + roomType + " room left from " + newCheckIn + " to " + newCheckOut);
+            return null;
+        }
+        if (!holdTypeNights(roomType, lateStart, newCheckOut)) {
+            releaseTypeNights(roomType, newCheckIn, earlyEnd);
+            System.out.println("❌ No " + roomType + " room left from " + newCheckIn + " to " + newCheckOut);
+            return null;
+        }
+        Reservation replacement = new Reservation(current.getCustomer(), room, newCheckIn, newCheckOut,
+            quote(room, newCheckIn, newCheckOut));
+        if (!room.reschedule(current, replacement)) {
+            releaseTypeNights(roomType, newCheckIn, earlyEnd);
+            releaseTypeNights(roomType, lateStart, newCheckOut);
+            System.out.println("❌ Room " + room.getRoomNumber() + " is not available from "
+                + newCheckIn + " to " + newCheckOut);
+            return null;
+        }
+        reservationsById.remove(current.getId());
+        reservationsById.put(replacement.getId(), replacement);
+        fireCancelled(current);
+        fireConfirmed(replacement);
+        // the listener counts the new nights now
+        releaseTypeNights(roomType, newCheckIn, earlyEnd);
+        releaseTypeNights(roomType, lateStart, newCheckOut);
+
+        IReservationJournal journal = this.journal;
+        if (journal != null) {
+            awaitJournal(CompletableFuture.allOf(journal.recordCancelled(current), journal.recordConfirmed(replacement)),
+                "Reservation #" + current.getId() + " moved");
+        }
+        Money difference = replacement.getTotalAmount().minus(current.getTotalAmount());
+        System.out.printf("✏️ Reservation #%d moved to #%d (%s → %s), price difference %s%n",
+            current.getId(), replacement.getId(), newCheckIn, newCheckOut, difference);
+        return replacement;
+    }
+
+    /** Price of the stay under the current pricing rules. */
+    public Money quote(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        return pricingEngine.quote(room, checkInDate, checkOutDate);
+    }
+
+    public PricingEngine getPricingEngine() {
+        return pricingEngine;
+    }
+
+    public OccupancyAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    public CustomerDirectory getCustomerDirectory() {
+        return customerDirectory;
+    }
+
+    public void addReservationListener(IReservationListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeReservationListener(IReservationListener listener) {
+        listeners.remove(listener);
+    }
+
+    public BookingMetrics getMetrics() {
+        return metrics;
+    }
+
+    public HoldManager getHoldManager() {
+        return holdManager;
+    }
+
+    public void setJournal(IReservationJournal journal) {
+        this.journal = journal;
+    }
+
+    public String buildConfirmationMessage(Reservation reservation) {
+        return MessageTemplateRegistry.getDefault().render(reservation);
+    }
+
+    public String buildTypeConfirmationMessage(RoomTypeBooking booking) {
+        return new StringBuilder()
+            .append("✅ ").append(booking.getRoomType()).append(" room booked for ").append(booking.getCustomer().getName())
+            .append('\n').append("Booking: T-").append(booking.getId())
+            .append('\n').append("Check-in: ").append(booking.getCheckInDate())
+            .append('\n').append("Check-out: ").append(booking.getCheckOutDate())
+            .append('\n').append("Total: ").append(booking.getTotalAmount())
+            .append('\n').append("Your room number will be sent before check-in.")
+            .toString();
+    }
+
+    public String buildGroupConfirmationMessage(List<Reservation> reservations) {
+        return MessageTemplateRegistry.getGroupDefault().render(reservations);
+    }
+
+    /**
+     * Rooms free for the whole stay that match the criteria. With
+     * {@code cheapestFirst} the scan walks rooms in price order and stops as
+     * soon as the requested page is filled (or the price cap is passed);
+     * large inventories are evaluated on the fork-join pool.
+     */
+    public List<Room> searchRooms(RoomSearchCriteria criteria) {
+        if (!isValidDateRange(criteria.getCheckInDate(), criteria.getCheckOutDate())) {
+            return Collections.emptyList();
+        }
 
-        // ایجاد رزرو
-        Reservation reservation = new Reservation(customer, room, checkInDate, checkOutDate);
-        room.addReservation(reservation);
-
-        // ✅ SUPER SIMPLE PAYMENT!
-        boolean paymentSuccess = paymentMethod.processPayment(
-            reservation.getTotalAmount(), customer.getName());
-
-        if (paymentSuccess) {
-            reservation.confirm();
-            
-            // پیام تأیید
-            String confirmationMessage = String.format(
-                "✅ Reservation confirmed for %s\n" +
-                "Room: %d (%s)\n" +
-                "Check-in: %s\n" +
-                "Check-out: %s\n" +
-                "Total: $%.2f\n" +
-                "Booking Time: %s",
-                customer.getName(), 
-                room.getRoomNumber(),
-                room.getRoomType(),
-                reservation.getCheckInDate(),
-                reservation.getCheckOutDate(),
-                reservation.getTotalAmount(),
-                reservation.getBookingTime()
-            );
-
-            // ✅ ULTRA TRANSPARENT NOTIFICATION!
-            // ✨ همه چیز خودکار از interface!
-            notificationMethod.sendMessage(confirmationMessage, 
-                notificationMethod.getRecipient(customer));
-            
-            System.out.println("🎉 Reservation completed successfully!");
-            return reservation;
+        List<Room> candidates;
+        if (criteria.getRoomType() != null) {
+            candidates = inventory.getByType(criteria.getRoomType());
+        } else if (criteria.isCheapestFirst()) {
+            candidates = inventory.getAllByPrice();
         } else {
-            System.out.println("❌ Payment failed!");
-            room.getReservations().remove(reservation);
+            candidates = inventory.getAll();
+        }
+
+        Stream<Room> rooms = candidates.stream();
+        if (candidates.size() >= PARALLEL_SEARCH_THRESHOLD) {
+            rooms = rooms.parallel();
+        }
+        // candidates from the type index and the price index are already price-ordered
+        boolean priceOrdered = criteria.getRoomType() != null || criteria.isCheapestFirst();
+        long maxPrice = criteria.getMaxPricePerNight() != null
+            ? criteria.getMaxPricePerNight().getMinorUnits()
+            : Long.MAX_VALUE;
+        if (priceOrdered) {
+            rooms = rooms.takeWhile(room -> room.getPricePerNight().getMinorUnits() <= maxPrice);
+        }
+
+        return rooms
+            .filter(room -> room.getPricePerNight().getMinorUnits() <= maxPrice)
+            .filter(room -> room.getMaxGuests() >= criteria.getGuests())
+            .filter(room -> room.isAvailable(criteria.getCheckInDate(), criteria.getCheckOutDate()))
+            .skip(criteria.getOffset())
+            .limit(criteria.getLimit())
+            .collect(Collectors.toList());
+    }
+
+    public List<Room> getAvailableRooms() {
+        return inventory.getAll();
+    }
+
+    public RoomInventory getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Moves every room's occupancy calendar, the per-type counters, the
+     * pricing occupancy counts and the analytics window on to {@code today}.
+     * The hold timer calls it just after each midnight.
+     */
+    public void rollDay(LocalDate today) {
+        if (shutDown.get()) return;
+        for (Room room : inventory.getAll()) {
+            room.rollCalendar(today);
+        }
+        roomTypeAvailability.roll(today);
+        pricingEngine.roll(today);
+        long stays = analytics.rebuild();
+        System.out.println("📅 Calendars rolled to " + today + " (" + stays + " stays in the analytics window)");
+    }
+
+    // safe to call more than once (menu exit, then the JVM shutdown hook)
+    public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) return;
+        if (ownsHoldManager) {
+            holdManager.stop();
+        }
+        notificationDispatcher.shutdown();
+        metrics.unregisterMBean();
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    // متدهای کمکی
+
+    // a concrete hold takes a unit of its type too, so type bookings are never left without a room
+    private boolean holdTypeUnit(Reservation reservation) {
+        return roomTypeAvailability.tryReserveRoom(reservation.getRoom().getRoomType(),
+            reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+
+    private void releaseTypeUnit(Reservation reservation) {
+        roomTypeAvailability.release(reservation.getRoom().getRoomType(),
+            reservation.getCheckInDate(), reservation.getCheckOutDate());
+    }
+
+    // as holdTypeUnit, for the nights [from, to) of a stay; nothing to take when the range is empty
+    private boolean holdTypeNights(String roomType, LocalDate from, LocalDate to) {
+        return !from.isBefore(to) || roomTypeAvailability.tryReserveRoom(roomType, from, to);
+    }
+
+    private void releaseTypeNights(String roomType, LocalDate from, LocalDate to) {
+        if (from.isBefore(to)) {
+            roomTypeAvailability.release(roomType, from, to);
+        }
+    }
+
+    // the change already happened in memory, so a failed write is reported as on the confirm path, not thrown
+    private static void awaitJournal(CompletableFuture<?> write, String change) {
+        write.exceptionally(error -> {
+            System.out.println("⚠️ " + change + " but not journaled: " + error.getMessage());
             return null;
+        }).join();
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+    private void fireConfirmed(Reservation reservation) {
+        for (IReservationListener listener : listeners) {
+            try {
+                listener.onConfirmed(reservation);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Reservation listener failed: " + e.getMessage());
+            }
         }
     }
 
-    public Room[] getAvailableRooms() {
-        return availableRooms.clone();
+    private void fireCancelled(Reservation reservation) {
+        for (IReservationListener listener : listeners) {
+            try {
+                listener.onCancelled(reservation);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️ Reservation listener failed: " + e.getMessage());
+            }
+        }
     }
 
-    // متدهای کمکی (بدون تغییر)
     private Room findRoomByNumber(int roomNumber) {
-        for (Room room : availableRooms) {
-            if (room.getRoomNumber() == roomNumber) return room;
-        }
-        return null;
+        return inventory.findByNumber(roomNumber);
     }
 
     private boolean isValidDateRange(LocalDate checkIn, LocalDate checkOut) {
@@ -0,0 +1,68 @@
+package service;
+
+import model.Room;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Picks the concrete room for a stay booked by type, so that the calendar
+ * stays sellable. Among the rooms the stay fits in, it prefers the one
+ * where the stay closes gaps rather than opening them:
+ *
+ *   1. fewest new short gaps: a free run on either side shorter than the
+ *      look-around window is a fragment that is hard to sell later;
+ *   2. then the tightest fit (fewest free nights left around the stay);
+ *   3. then the cheaper room, then the lower room number.
+ *
+ * Stays are best placed in check-in order, longest first on the same day
+ * (see {@link ReservationService#assignRooms}).
+ */
+public class RoomAssignmentOptimizer {
+    public static final int DEFAULT_LOOKAROUND_NIGHTS = 28;
+
+    private final int lookaroundNights;
+
+    public RoomAssignmentOptimizer() {
+        this(DEFAULT_LOOKAROUND_NIGHTS);
+    }
+
+    public RoomAssignmentOptimizer(int lookaroundNights) {
+        if (lookaroundNights <= 0) {
+            throw new IllegalArgumentException("Look-around must be at least one night");
+        }
+        this.lookaroundNights = lookaroundNights;
+    }
+
+    /** The best room for the stay, or null when none of the candidates is free. */
+    public Room choose(Collection<Room> candidates, LocalDate checkInDate, LocalDate checkOutDate) {
+        Room best = null;
+        long bestScore = Long.MAX_VALUE;
+        for (Room room : candidates) {
+            int[] free = room.freeNightsAround(checkInDate, checkOutDate, lookaroundNights);
+            if (free == null) continue;
+            long score = score(free[0], free[1]);
+            if (score < bestScore || (score == bestScore && cheaperOrLower(room, best))) {
+                best = room;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // fragments dominate, leftover nights break ties
+    private long score(int freeBefore, int freeAfter) {
+        int fragments = (isFragment(freeBefore) ? 1 : 0) + (isFragment(freeAfter) ? 1 : 0);
+        return (long) fragments * (2L * lookaroundNights + 1) + freeBefore + freeAfter;
+    }
+
+    private boolean isFragment(int freeNights) {
+        return freeNights > 0 && freeNights < lookaroundNights;
+    }
+
+    private static boolean cheaperOrLower(Room room, Room current) {
+        long price = room.getPricePerNight().getMinorUnits();
+        long currentPrice = current.getPricePerNight().getMinorUnits();
+        return price < currentPrice || (price == currentPrice && room.getRoomNumber() < current.getRoomNumber());
+    }
+}
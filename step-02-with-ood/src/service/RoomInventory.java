@@ -0,0 +1,204 @@
+package service;
+
+import model.Money;
+import model.Room;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Room catalogue of one property.
+ * Lookup by room number goes through an open-addressing int → Room table
+ * (no boxing), and rooms are also indexed by type and by price band.
+ * Every list handed out is a read-only view, never a copy.
+ * Rooms are added rarely and read on every booking, so readers never
+ * lock and writers serialize on the inventory: the number table is filled
+ * in place and doubled when half full, the other indexes are copy-on-write.
+ */
+public class RoomInventory {
+    // in minor units ($50.00)
+    public static final long PRICE_BAND_WIDTH = 50_00;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    // grow once the table is half full
+    private static final int MAX_LOAD_PERCENT = 50;
+    private static final Comparator<Room> BY_PRICE =
+        Comparator.comparingLong((Room room) -> room.getPricePerNight().getMinorUnits()).thenComparingInt(Room::getRoomNumber);
+
+    /**
+     * Slots are written value first, then key, and read key first, so a
+     * reader that finds a key always sees its room. The EMPTY sentinel
+     * itself is a legal room number and lives in its own slot.
+     */
+    private static final class Table {
+        final AtomicIntegerArray keys;
+        final AtomicReferenceArray<Room> values;
+        volatile Room emptyKeyRoom;
+
+        Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) keys.set(i, EMPTY);
+        }
+
+        int capacity() {
+            return keys.length();
+        }
+    }
+
+    private volatile Table table;
+    private volatile int size;
+
+    private final List<Room> rooms = new CopyOnWriteArrayList<>();
+    private final List<Room> roomsView = Collections.unmodifiableList(rooms);
+    // both kept sorted by price; a write merges its rooms into a fresh copy
+    private final Map<String, List<Room>> byType = new ConcurrentHashMap<>();
+    private volatile List<Room> roomsByPrice = Collections.emptyList();
+    private final NavigableMap<Integer, List<Room>> byPriceBand = new ConcurrentSkipListMap<>();
+
+    public RoomInventory() {
+        this(16);
+    }
+
+    public RoomInventory(int expectedRooms) {
+        this.table = new Table(capacityFor(expectedRooms));
+    }
+
+    public void addRoom(Room room) {
+        addRooms(Collections.singletonList(room));
+    }
+
+    public synchronized void addRooms(Collection<Room> newRooms) {
+        Set<Integer> batch = new HashSet<>();
+        for (Room room : newRooms) {
+            if (findByNumber(room.getRoomNumber()) != null || !batch.add(room.getRoomNumber())) {
+                throw new IllegalArgumentException("Room " + room.getRoomNumber() + " already exists");
+            }
+        }
+
+        // doubling keeps a run of single-room adds at amortized O(1) per room
+        Table t = table;
+        if ((long) (size + newRooms.size()) * 100 > (long) t.capacity() * MAX_LOAD_PERCENT) {
+            Table next = new Table(Math.max(t.capacity() * 2, capacityFor(size + newRooms.size())));
+            for (Room room : rooms) insert(next, room);
+            t = next;
+        }
+        for (Room room : newRooms) insert(t, room);
+        table = t;
+        size += newRooms.size();
+
+        rooms.addAll(newRooms);
+        // only the batch is sorted; it is then merged into the existing lists in one pass
+        List<Room> added = new ArrayList<>(newRooms);
+        added.sort(BY_PRICE);
+        roomsByPrice = merge(roomsByPrice, added);
+        Map<String, List<Room>> addedByType = new HashMap<>();
+        for (Room room : added) {
+            addedByType.computeIfAbsent(normalizeType(room.getRoomType()), k -> new ArrayList<>()).add(room);
+            byPriceBand.computeIfAbsent(priceBand(room.getPricePerNight().getMinorUnits()), k -> new CopyOnWriteArrayList<>()).add(room);
+        }
+        addedByType.forEach((type, typeRooms) ->
+            byType.put(type, merge(byType.getOrDefault(type, Collections.emptyList()), typeRooms)));
+    }
+
+    public Room findByNumber(int roomNumber) {
+        Table t = table;
+        if (roomNumber == EMPTY) return t.emptyKeyRoom;
+        int mask = t.capacity() - 1;
+        int key;
+        for (int i = mix(roomNumber) & mask; (key = t.keys.get(i)) != EMPTY; i = (i + 1) & mask) {
+            if (key == roomNumber) return t.values.get(i);
+        }
+        return null;
+    }
+
+    public List<Room> getAll() {
+        return roomsView;
+    }
+
+    public List<Room> getAllByPrice() {
+        return roomsByPrice;
+    }
+
+    // cheapest first
+    public List<Room> getByType(String roomType) {
+        return byType.getOrDefault(normalizeType(roomType), Collections.emptyList());
+    }
+
+    public List<Room> getByPriceRange(Money minPricePerNight, Money maxPricePerNight) {
+        long minPrice = minPricePerNight.getMinorUnits();
+        long maxPrice = maxPricePerNight.getMinorUnits();
+        List<Room> matches = new ArrayList<>();
+        for (List<Room> band : byPriceBand.subMap(priceBand(minPrice), true, priceBand(maxPrice), true).values()) {
+            for (Room room : band) {
+                long price = room.getPricePerNight().getMinorUnits();
+                if (price >= minPrice && price <= maxPrice) matches.add(room);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // متدهای کمکی
+    private static void insert(Table t, Room room) {
+        int roomNumber = room.getRoomNumber();
+        if (roomNumber == EMPTY) {
+            t.emptyKeyRoom = room;
+            return;
+        }
+        int mask = t.capacity() - 1;
+        int i = mix(roomNumber) & mask;
+        while (t.keys.get(i) != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        t.values.set(i, room);
+        t.keys.set(i, roomNumber);
+    }
+
+    // two lists already in BY_PRICE order → a new read-only list in that order
+    private static List<Room> merge(List<Room> existing, List<Room> added) {
+        Room[] merged = new Room[existing.size() + added.size()];
+        int i = 0, j = 0, k = 0;
+        while (i < existing.size() && j < added.size()) {
+            merged[k++] = BY_PRICE.compare(added.get(j), existing.get(i)) < 0 ? added.get(j++) : existing.get(i++);
+        }
+        while (i < existing.size()) merged[k++] = existing.get(i++);
+        while (j < added.size()) merged[k++] = added.get(j++);
+        return Collections.unmodifiableList(Arrays.asList(merged));
+    }
+
+    private static int capacityFor(int rooms) {
+        return Integer.highestOneBit(Math.max(4, rooms * 2 - 1)) << 1;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int priceBand(long price) {
+        return (int) Math.floorDiv(price, PRICE_BAND_WIDTH);
+    }
+
+    public static String normalizeType(String roomType) {
+        return roomType.trim().toLowerCase(Locale.ROOT);
+    }
+}
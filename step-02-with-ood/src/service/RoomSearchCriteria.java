@@ -0,0 +1,72 @@
+package service;
+
+import model.Money;
+
+import java.time.LocalDate;
+
+/**
+ * Filters for {@link ReservationService#searchRooms}. Only the stay dates
+ * are required; everything else narrows the result when set.
+ */
+public class RoomSearchCriteria {
+    private final LocalDate checkInDate;
+    private final LocalDate checkOutDate;
+    private String roomType;
+    private Money maxPricePerNight; // null = no cap
+    private int guests;
+    private boolean cheapestFirst;
+    private int offset;
+    private int limit = Integer.MAX_VALUE;
+
+    public RoomSearchCriteria(LocalDate checkInDate, LocalDate checkOutDate) {
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+    }
+
+    public RoomSearchCriteria roomType(String roomType) {
+        this.roomType = roomType;
+        return this;
+    }
+
+    public RoomSearchCriteria maxPricePerNight(Money maxPricePerNight) {
+        this.maxPricePerNight = maxPricePerNight;
+        return this;
+    }
+
+    public RoomSearchCriteria guests(int guests) {
+        this.guests = guests;
+        return this;
+    }
+
+    public RoomSearchCriteria cheapestFirst() {
+        this.cheapestFirst = true;
+        return this;
+    }
+
+    public RoomSearchCriteria page(int offset, int limit) {
+        this.offset = offset;
+        this.limit = limit;
+        return this;
+    }
+
+    // same filters, different page (e.g. the first offset + limit rooms of one property)
+    RoomSearchCriteria withPage(int offset, int limit) {
+        RoomSearchCriteria copy = new RoomSearchCriteria(checkInDate, checkOutDate)
+            .roomType(roomType)
+            .maxPricePerNight(maxPricePerNight)
+            .guests(guests)
+            .page(offset, limit);
+        copy.cheapestFirst = cheapestFirst;
+        return copy;
+    }
+
+    // Getters
+    public LocalDate getCheckInDate() { return checkInDate; }
+    public LocalDate getCheckOutDate() { return checkOutDate; }
+    public String getRoomType() { return roomType; }
+    public Money getMaxPricePerNight() { return maxPricePerNight; }
+    public int getGuests() { return guests; }
+    public boolean isCheapestFirst() { return cheapestFirst; }
+    public int getOffset() { return offset; }
+    public int getLimit() { return limit; }
+}
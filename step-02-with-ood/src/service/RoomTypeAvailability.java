@@ -0,0 +1,292 @@
+package service;
+
+import interfaces.IReservationListener;
+import model.Reservation;
+import model.Room;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Nightly sold-count per room type: confirmed stays in concrete rooms (kept
+ * current as a reservation listener), plus type bookings that have not been
+ * given a room yet and holds on concrete rooms whose payment is in flight. "Is a Deluxe free tonight" is one array read against
+ * the number of Deluxe rooms; reserving a stay is a compare-and-set per
+ * night, with no lock on any room.
+ *
+ * A type may be oversold by a fixed number of rooms per night
+ * ({@link #setOverbookingLimit}); only type bookings may use that margin,
+ * a hold on a concrete room ({@link #tryReserveRoom}) never does. Nights
+ * outside the occupancy-calendar window cannot be booked by type.
+ *
+ * The window rolls with the room calendars ({@link #roll}). Concrete stays
+ * past its end are still counted, in a sparse map per type that is folded
+ * into the arrays as the window reaches those nights; nights before its
+ * start are not counted. Every update holds the read side of a lock that
+ * only a roll takes exclusively, so none lands on a shifted array.
+ */
+public class RoomTypeAvailability implements IReservationListener {
+    private final RoomInventory inventory;
+    private final int days;
+    private final ReadWriteLock window = new ReentrantReadWriteLock();
+    private volatile long baseDay;
+    private final Map<String, AtomicIntegerArray> soldByType = new ConcurrentHashMap<>();
+    // nights at or past baseDay + days
+    private final Map<String, Map<Long, Integer>> laterByType = new ConcurrentHashMap<>();
+    private final Map<String, Integer> overbookingLimits = new ConcurrentHashMap<>();
+
+    public RoomTypeAvailability(RoomInventory inventory) {
+        this.inventory = inventory;
+        this.baseDay = LocalDate.now().toEpochDay() - Room.CALENDAR_PAST_DAYS;
+        this.days = Room.CALENDAR_HORIZON_DAYS;
+    }
+
+    /** Extra rooms of this type that may be sold per night beyond the physical count. */
+    public void setOverbookingLimit(String roomType, int extraRooms) {
+        if (extraRooms < 0) {
+            throw new IllegalArgumentException("Overbooking limit cannot be negative");
+        }
+        overbookingLimits.put(RoomInventory.normalizeType(roomType), extraRooms);
+    }
+
+    public int getOverbookingLimit(String roomType) {
+        return overbookingLimits.getOrDefault(RoomInventory.normalizeType(roomType), 0);
+    }
+
+    public int getCapacity(String roomType) {
+        return inventory.getByType(roomType).size();
+    }
+
+    public int getSold(String roomType, LocalDate night) {
+        String type = RoomInventory.normalizeType(roomType);
+        window.readLock().lock();
+        try {
+            return sold(type, night.toEpochDay());
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    /** Rooms of this type still free on the night (negative when oversold). */
+    public int getAvailable(String roomType, LocalDate night) {
+        return getCapacity(roomType) - getSold(roomType, night);
+    }
+
+    /** Fewest free rooms of this type over the nights of a stay; 0 outside the window. */
+    public int getAvailable(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        String type = RoomInventory.normalizeType(roomType);
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        int capacity = getCapacity(roomType);
+        window.readLock().lock();
+        try {
+            if (!covers(from, to)) return 0;
+            int fewest = capacity;
+            for (long day = from; day < to; day++) {
+                fewest = Math.min(fewest, capacity - sold(type, day));
+            }
+            return fewest;
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    /**
+     * True when every night still has an unsold room of this type, not
+     * counting the overbooking margin. Stays outside the window cannot be
+     * booked by type and always pass.
+     */
+    public boolean hasUnsoldRoom(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        window.readLock().lock();
+        try {
+            return !covers(checkInDate.toEpochDay(), checkOutDate.toEpochDay())
+                || getAvailable(roomType, checkInDate, checkOutDate) > 0;
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes one unit of the type for every night of the stay, up to the
+     * room count plus the overbooking limit, or takes nothing.
+     */
+    public boolean tryReserve(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        String type = RoomInventory.normalizeType(roomType);
+        long from = checkInDate.toEpochDay();
+        long to = checkOutDate.toEpochDay();
+        window.readLock().lock();
+        try {
+            if (from >= to || !covers(from, to)) return false;
+            return tryReserve(type, from, to, getCapacity(roomType) + getOverbookingLimit(roomType));
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    /**
+     * Takes one unit of the type for a hold on a concrete room, up to the
+     * room count and never into the overbooking margin, so type bookings
+     * cannot be left without a room. Nights before the window are not
+     * counted; {@link #release} skips them as well.
+     */
+    public boolean tryReserveRoom(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        String type = RoomInventory.normalizeType(roomType);
+        window.readLock().lock();
+        try {
+            long from = Math.max(checkInDate.toEpochDay(), baseDay);
+            return tryReserve(type, from, checkOutDate.toEpochDay(), getCapacity(roomType));
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    // a type booking replayed from the journal keeps its unit even past today's limits
+    void reserve(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        add(roomType, checkInDate.toEpochDay(), checkOutDate.toEpochDay(), 1);
+    }
+
+    public void release(String roomType, LocalDate checkInDate, LocalDate checkOutDate) {
+        add(roomType, checkInDate.toEpochDay(), checkOutDate.toEpochDay(), -1);
+    }
+
+    /**
+     * Moves the window on to {@code today}, as {@link Room#rollCalendar}
+     * does for the rooms: nights that fell out of it are dropped and the
+     * new ones at the end are taken over from the sparse map.
+     */
+    public void roll(LocalDate today) {
+        long newBaseDay = today.toEpochDay() - Room.CALENDAR_PAST_DAYS;
+        window.writeLock().lock();
+        try {
+            long oldBaseDay = baseDay;
+            if (newBaseDay <= oldBaseDay) return;
+            for (Map.Entry<String, AtomicIntegerArray> entry : soldByType.entrySet()) {
+                AtomicIntegerArray old = entry.getValue();
+                Map<Long, Integer> later = laterByType.get(entry.getKey());
+                AtomicIntegerArray rolled = new AtomicIntegerArray(days);
+                for (int i = 0; i < days; i++) {
+                    long day = newBaseDay + i;
+                    if (day < oldBaseDay + days) {
+                        rolled.set(i, old.get((int) (day - oldBaseDay)));
+                    } else if (later != null) {
+                        Integer count = later.remove(day);
+                        if (count != null) rolled.set(i, count);
+                    }
+                }
+                entry.setValue(rolled);
+            }
+            baseDay = newBaseDay;
+            // types with no array yet
+            for (Map.Entry<String, Map<Long, Integer>> entry : laterByType.entrySet()) {
+                if (soldByType.containsKey(entry.getKey())) continue;
+                AtomicIntegerArray rolled = array(entry.getKey());
+                for (int i = 0; i < days; i++) {
+                    Integer count = entry.getValue().remove(newBaseDay + i);
+                    if (count != null) rolled.set(i, count);
+                }
+            }
+        } finally {
+            window.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onConfirmed(Reservation reservation) {
+        count(reservation, 1);
+    }
+
+    @Override
+    public void onCancelled(Reservation reservation) {
+        count(reservation, -1);
+    }
+
+    private void count(Reservation reservation, int delta) {
+        add(reservation.getRoom().getRoomType(),
+            reservation.getCheckInDate().toEpochDay(), reservation.getCheckOutDate().toEpochDay(), delta);
+    }
+
+    // callers hold the read lock
+    private boolean tryReserve(String type, long from, long to, int limit) {
+        for (long day = from; day < to; day++) {
+            if (!tryIncrement(type, day, limit)) {
+                addLocked(type, from, day, -1);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean tryIncrement(String type, long day, int limit) {
+        if (day < baseDay + days) {
+            AtomicIntegerArray sold = array(type);
+            int i = (int) (day - baseDay);
+            int current;
+            do {
+                current = sold.get(i);
+                if (current >= limit) return false;
+            } while (!sold.compareAndSet(i, current, current + 1));
+            return true;
+        }
+        Map<Long, Integer> later = later(type);
+        while (true) {
+            Integer current = later.get(day);
+            int count = current == null ? 0 : current;
+            if (count >= limit) return false;
+            if (current == null ? later.putIfAbsent(day, 1) == null : later.replace(day, current, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void add(String roomType, long fromDay, long toDay, int delta) {
+        String type = RoomInventory.normalizeType(roomType);
+        window.readLock().lock();
+        try {
+            addLocked(type, fromDay, toDay, delta);
+        } finally {
+            window.readLock().unlock();
+        }
+    }
+
+    private void addLocked(String type, long fromDay, long toDay, int delta) {
+        long windowEnd = baseDay + days;
+        long from = Math.max(fromDay, baseDay);
+        if (from < Math.min(toDay, windowEnd)) {
+            AtomicIntegerArray sold = array(type);
+            for (long day = from; day < Math.min(toDay, windowEnd); day++) {
+                sold.addAndGet((int) (day - baseDay), delta);
+            }
+        }
+        if (toDay > windowEnd) {
+            Map<Long, Integer> later = later(type);
+            for (long day = Math.max(from, windowEnd); day < toDay; day++) {
+                later.merge(day, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+    }
+
+    private int sold(String type, long day) {
+        if (day < baseDay) return 0;
+        if (day < baseDay + days) {
+            return array(type).get((int) (day - baseDay));
+        }
+        Map<Long, Integer> later = laterByType.get(type);
+        return later == null ? 0 : later.getOrDefault(day, 0);
+    }
+
+    private AtomicIntegerArray array(String type) {
+        return soldByType.computeIfAbsent(type, t -> new AtomicIntegerArray(days));
+    }
+
+    private Map<Long, Integer> later(String type) {
+        return laterByType.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+    }
+
+    private boolean covers(long fromDay, long toDay) {
+        return fromDay >= baseDay && toDay <= baseDay + days;
+    }
+}
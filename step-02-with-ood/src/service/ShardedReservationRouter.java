@@ -0,0 +1,183 @@
+package service;
+
+import interfaces.INotificationMethod;
+import interfaces.IPaymentMethod;
+import model.Customer;
+import model.Reservation;
+import model.Room;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Front door for a hotel chain: bookings go to the {@link PropertyShard}
+ * that owns the property, searches across the chain run on every shard at
+ * once and are merged. Each shard books on its own executor, so throughput
+ * grows with the number of properties (and cores) instead of funnelling
+ * through one service.
+ *
+ * All properties share one {@link HoldManager} (a single timer thread for
+ * every hold in the chain) and one {@link PaymentPipeline}, whose in-flight
+ * cap then applies to the gateway as a whole. With a data directory each
+ * property journals into its own sub-directory, named after the property;
+ * open them with {@code ReservationJournal.open(shard.getJournalDirectory(),
+ * shard.getService())}.
+ */
+public class ShardedReservationRouter {
+    /** A search hit: a free room and the property it belongs to. */
+    public static final class RoomMatch {
+        private final String propertyId;
+        private final Room room;
+
+        RoomMatch(String propertyId, Room room) {
+            this.propertyId = propertyId;
+            this.room = room;
+        }
+
+        public String getPropertyId() { return propertyId; }
+        public Room getRoom() { return room; }
+    }
+
+    // Money only compares within one currency: group by currency code, then cheapest first
+    private static final Comparator<RoomMatch> BY_PRICE =
+        Comparator.<RoomMatch, String>comparing(match -> match.room.getPricePerNight().getCurrency().getCurrencyCode())
+            .thenComparing(match -> match.room.getPricePerNight());
+    // property ids become directory names
+    private static final Pattern PROPERTY_ID = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final Map<String, PropertyShard> shards = new ConcurrentHashMap<>();
+    // registration order, for stable fan-out and merged results
+    private final List<PropertyShard> shardList = new CopyOnWriteArrayList<>();
+    private final int threadsPerShard;
+    private final Path dataDirectory;
+    private final HoldManager holdManager = new HoldManager();
+    private final PaymentPipeline paymentPipeline = new PaymentPipeline();
+
+    public ShardedReservationRouter() {
+        this(1);
+    }
+
+    public ShardedReservationRouter(int threadsPerShard) {
+        this(threadsPerShard, null);
+    }
+
+    /** @param dataDirectory parent of the per-property journal directories; null keeps the chain in memory */
+    public ShardedReservationRouter(int threadsPerShard, Path dataDirectory) {
+        this.threadsPerShard = threadsPerShard;
+        this.dataDirectory = dataDirectory;
+    }
+
+    public synchronized PropertyShard addProperty(String propertyId, RoomInventory inventory) {
+        if (!PROPERTY_ID.matcher(propertyId).matches()) {
+            throw new IllegalArgumentException("Property id may only use letters, digits, '-' and '_': " + propertyId);
+        }
+        if (shards.containsKey(propertyId)) {
+            throw new IllegalArgumentException("Property " + propertyId + " already exists");
+        }
+        ReservationService service = new ReservationService(inventory, paymentPipeline,
+            new NotificationDispatcher(), holdManager);
+        PropertyShard shard = new PropertyShard(propertyId, service, threadsPerShard,
+            dataDirectory == null ? null : dataDirectory.resolve(propertyId));
+        shards.put(propertyId, shard);
+        shardList.add(shard);
+        return shard;
+    }
+
+    public PropertyShard getShard(String propertyId) {
+        PropertyShard shard = shards.get(propertyId);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown property: " + propertyId);
+        }
+        return shard;
+    }
+
+    public List<PropertyShard> getShards() {
+        return Collections.unmodifiableList(shardList);
+    }
+
+    public Reservation makeReservation(String propertyId, Customer customer, int roomNumber,
+                                       LocalDate checkInDate, LocalDate checkOutDate,
+                                       IPaymentMethod paymentMethod, INotificationMethod notificationMethod) {
+        return makeReservationAsync(propertyId, customer, roomNumber, checkInDate, checkOutDate,
+            paymentMethod, notificationMethod).join();
+    }
+
+    public CompletableFuture<Reservation> makeReservationAsync(String propertyId, Customer customer, int roomNumber,
+                                                               LocalDate checkInDate, LocalDate checkOutDate,
+                                                               IPaymentMethod paymentMethod,
+                                                               INotificationMethod notificationMethod) {
+        return getShard(propertyId).makeReservationAsync(customer, roomNumber, checkInDate, checkOutDate,
+            paymentMethod, notificationMethod);
+    }
+
+    /** Reservation ids are unique across the chain, so any shard may hold it. */
+    public Reservation findReservation(long reservationId) {
+        for (PropertyShard shard : shardList) {
+            Reservation reservation = shard.getService().findReservation(reservationId);
+            if (reservation != null) return reservation;
+        }
+        return null;
+    }
+
+    public boolean cancelReservation(long reservationId) {
+        for (PropertyShard shard : shardList) {
+            Reservation reservation = shard.getService().findReservation(reservationId);
+            if (reservation != null) {
+                return shard.cancelReservationAsync(reservation).join();
+            }
+        }
+        return false;
+    }
+
+    public List<RoomMatch> searchRooms(RoomSearchCriteria criteria) {
+        return searchRoomsAsync(criteria).join();
+    }
+
+    /**
+     * Runs the search on every property in parallel. Each shard returns at
+     * most offset + limit rooms; the merge (price order when cheapest-first,
+     * otherwise property by property) then applies the page once.
+     */
+    public CompletableFuture<List<RoomMatch>> searchRoomsAsync(RoomSearchCriteria criteria) {
+        int perShardLimit = (int) Math.min(Integer.MAX_VALUE, (long) criteria.getOffset() + criteria.getLimit());
+        RoomSearchCriteria perShard = criteria.withPage(0, perShardLimit);
+
+        List<PropertyShard> targets = new ArrayList<>(shardList);
+        List<CompletableFuture<List<Room>>> searches = new ArrayList<>(targets.size());
+        for (PropertyShard shard : targets) {
+            searches.add(shard.searchRoomsAsync(perShard));
+        }
+        return CompletableFuture.allOf(searches.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> {
+                List<RoomMatch> merged = new ArrayList<>();
+                for (int i = 0; i < targets.size(); i++) {
+                    String propertyId = targets.get(i).getPropertyId();
+                    for (Room room : searches.get(i).join()) {
+                        merged.add(new RoomMatch(propertyId, room));
+                    }
+                }
+                if (criteria.isCheapestFirst()) {
+                    merged.sort(BY_PRICE);
+                }
+                int from = Math.min(criteria.getOffset(), merged.size());
+                int to = (int) Math.min(merged.size(), (long) from + criteria.getLimit());
+                return merged.subList(from, to);
+            });
+    }
+
+    public void shutdown() {
+        for (PropertyShard shard : shardList) {
+            shard.shutdown();
+        }
+        holdManager.stop();
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each level's slot
+ * spanning 64 slots of the level below. Scheduling and cancelling are O(1)
+ * and can be done from any thread (new timeouts go through a lock-free
+ * inbox); the wheel itself is only touched by the thread calling
+ * {@link #advanceTo}. A timeout far in the future sits in a coarse slot
+ * and cascades down a level each time its slot comes up.
+ */
+public class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    // furthest deadline the top level can hold without wrapping onto its current slot
+    private static final long MAX_DELAY = ((SLOTS - 1L) << (BITS * (LEVELS - 1))) - 1;
+
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() { return payload; }
+        public boolean isCancelled() { return cancelled; }
+
+        // the entry stays in its slot and is skipped when the slot fires
+        public void cancel() { cancelled = true; }
+    }
+
+    private final Timeout<T>[][] wheels = newWheels();
+    private final ConcurrentLinkedQueue<Timeout<T>> inbox = new ConcurrentLinkedQueue<>();
+    private volatile long currentTick;
+
+    // Java cannot create a generic array, so the raw one is cast once here
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Timeout<T>[][] newWheels() {
+        return (Timeout<T>[][]) new Timeout[LEVELS][SLOTS];
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public Timeout<T> schedule(T payload, long delayTicks) {
+        Timeout<T> timeout = new Timeout<>(payload, currentTick + Math.max(1, delayTicks));
+        inbox.add(timeout);
+        return timeout;
+    }
+
+    /** Fires, in tick order, every live timeout due up to and including {@code tick}. */
+    public void advanceTo(long tick, Consumer<T> onExpire) {
+        drainInbox();
+        while (currentTick < tick) {
+            long now = currentTick + 1;
+            currentTick = now;
+
+            // coarse levels first, so entries cascading down land in slots not yet processed
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+                    int slot = (int) ((now >>> (BITS * level)) & MASK);
+                    Timeout<T> list = wheels[level][slot];
+                    wheels[level][slot] = null;
+                    while (list != null) {
+                        Timeout<T> next = list.next;
+                        if (!list.cancelled) place(list, now);
+                        list = next;
+                    }
+                }
+            }
+
+            int slot = (int) (now & MASK);
+            Timeout<T> list = wheels[0][slot];
+            wheels[0][slot] = null;
+            while (list != null) {
+                Timeout<T> next = list.next;
+                list.next = null;
+                if (!list.cancelled) {
+                    if (list.deadlineTick <= now) onExpire.accept(list.payload);
+                    else place(list, now + 1); // beyond the wheel's span when scheduled
+                }
+                list = next;
+            }
+            drainInbox();
+        }
+    }
+
+    private void drainInbox() {
+        Timeout<T> timeout;
+        while ((timeout = inbox.poll()) != null) {
+            if (!timeout.cancelled) place(timeout, currentTick + 1);
+        }
+    }
+
+    // earliest: the first tick the entry may still fire on (overdue entries fire then)
+    private void place(Timeout<T> timeout, long earliest) {
+        long now = currentTick;
+        long deadline = Math.min(Math.max(timeout.deadlineTick, earliest), now + MAX_DELAY);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = BITS * level;
+            if ((deadline >>> shift) - (now >>> shift) < SLOTS) {
+                int slot = (int) ((deadline >>> shift) & MASK);
+                timeout.next = wheels[level][slot];
+                wheels[level][slot] = timeout;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package templates;
+
+import model.Money;
+import model.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confirmation for a group booking: a header, one line per room rendered
+ * with a {@link MessageTemplate}, and a footer. Header and footer know the
+ * whole group: {customer}, {rooms} (room count) and {total} (sum of the
+ * stays). Without a line template the message is a one-piece summary,
+ * e.g. for SMS.
+ */
+public class GroupMessageTemplate {
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private enum GroupField { CUSTOMER, ROOMS, TOTAL }
+
+    private static final class Part {
+        final String[] literals;
+        final GroupField[] fields;
+
+        Part(String source) {
+            List<String> literalParts = new ArrayList<>();
+            List<GroupField> fieldParts = new ArrayList<>();
+            int position = 0;
+            while (true) {
+                int open = source.indexOf('{', position);
+                if (open < 0) break;
+                int close = source.indexOf('}', open);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder at " + open + " in template: " + source);
+                }
+                literalParts.add(source.substring(position, open));
+                fieldParts.add(field(source.substring(open + 1, close)));
+                position = close + 1;
+            }
+            literalParts.add(source.substring(position));
+            this.literals = literalParts.toArray(new String[0]);
+            this.fields = fieldParts.toArray(new GroupField[0]);
+        }
+
+        void appendTo(List<Reservation> reservations, Money total, StringBuilder out) {
+            for (int i = 0; i < fields.length; i++) {
+                out.append(literals[i]);
+                switch (fields[i]) {
+                    case CUSTOMER -> out.append(reservations.get(0).getCustomer().getName());
+                    case ROOMS -> out.append(reservations.size());
+                    case TOTAL -> total.appendTo(out);
+                }
+            }
+            out.append(literals[fields.length]);
+        }
+
+        private static GroupField field(String key) {
+            return switch (key) {
+                case "customer" -> GroupField.CUSTOMER;
+                case "rooms" -> GroupField.ROOMS;
+                case "total" -> GroupField.TOTAL;
+                default -> throw new IllegalArgumentException("Unknown group template placeholder {" + key + "}");
+            };
+        }
+    }
+
+    private final Part header;
+    private final MessageTemplate line;
+    private final Part footer;
+    private final int maxLength;
+    private final boolean sms;
+
+    /** A summary only, with no per-room lines, that must fit one SMS segment (see {@link SmsEncoding}). */
+    public static GroupMessageTemplate forSms(String summary) {
+        return new GroupMessageTemplate(summary, null, "", SmsEncoding.GSM_7.getSegmentLength(), true);
+    }
+
+    public GroupMessageTemplate(String header, MessageTemplate line, String footer) {
+        this(header, line, footer, Integer.MAX_VALUE);
+    }
+
+    /** @param maxLength hard cap on the whole message; longer output is cut with "..." */
+    public GroupMessageTemplate(String header, MessageTemplate line, String footer, int maxLength) {
+        this(header, line, footer, maxLength, false);
+    }
+
+    private GroupMessageTemplate(String header, MessageTemplate line, String footer, int maxLength, boolean sms) {
+        if (maxLength <= 3) {
+            throw new IllegalArgumentException("Max length must leave room for \"...\": " + maxLength);
+        }
+        this.header = new Part(header);
+        this.line = line;
+        this.footer = new Part(footer);
+        this.maxLength = maxLength;
+        this.sms = sms;
+    }
+
+    public String render(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            throw new IllegalArgumentException("A group confirmation needs at least one reservation");
+        }
+        Money total = Money.zero(reservations.get(0).getTotalAmount().getCurrency());
+        for (Reservation reservation : reservations) {
+            total = total.plus(reservation.getTotalAmount());
+        }
+
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        header.appendTo(reservations, total, out);
+        if (line != null) {
+            for (Reservation reservation : reservations) {
+                line.renderTo(reservation, out);
+            }
+        }
+        footer.appendTo(reservations, total, out);
+        if (sms) {
+            SmsEncoding.fitToSegment(out, 0);
+        } else {
+            MessageTemplate.truncate(out, 0, maxLength);
+        }
+        return out.toString();
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+}
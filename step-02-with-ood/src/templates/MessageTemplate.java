@@ -0,0 +1,110 @@
+package templates;
+
+import model.Reservation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message template parsed once into literal text and {@link TemplateField}
+ * placeholders ({name} syntax). Rendering appends into a per-thread reusable
+ * StringBuilder, so the only allocation per message is the final String.
+ */
+public class MessageTemplate {
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String source;
+    private final String[] literals;
+    private final TemplateField[] fields;
+    private final int maxLength;
+    // capped at one SMS segment of whichever encoding the rendered text needs
+    private final boolean sms;
+
+    public MessageTemplate(String source) {
+        this(source, Integer.MAX_VALUE);
+    }
+
+    /** @param maxLength hard cap on the rendered length in chars; longer output is cut with "..." */
+    public MessageTemplate(String source, int maxLength) {
+        this(source, maxLength, false);
+    }
+
+    /** A template whose output must fit one SMS segment (see {@link SmsEncoding}). */
+    public static MessageTemplate forSms(String source) {
+        return new MessageTemplate(source, SmsEncoding.GSM_7.getSegmentLength(), true);
+    }
+
+    private MessageTemplate(String source, int maxLength, boolean sms) {
+        if (maxLength <= 3) {
+            throw new IllegalArgumentException("Max length must leave room for \"...\": " + maxLength);
+        }
+        this.source = source;
+        this.maxLength = maxLength;
+        this.sms = sms;
+
+        List<String> literalParts = new ArrayList<>();
+        List<TemplateField> fieldParts = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = source.indexOf('{', position);
+            if (open < 0) break;
+            int close = source.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in template: " + source);
+            }
+            literalParts.add(source.substring(position, open));
+            fieldParts.add(TemplateField.byKey(source.substring(open + 1, close)));
+            position = close + 1;
+        }
+        literalParts.add(source.substring(position));
+
+        this.literals = literalParts.toArray(new String[0]);
+        this.fields = fieldParts.toArray(new TemplateField[0]);
+    }
+
+    public String render(Reservation reservation) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(reservation, out);
+        return out.toString();
+    }
+
+    public void renderTo(Reservation reservation, StringBuilder out) {
+        int start = out.length();
+        for (int i = 0; i < fields.length; i++) {
+            out.append(literals[i]);
+            fields[i].append(reservation, out);
+        }
+        out.append(literals[fields.length]);
+        if (sms) {
+            SmsEncoding.fitToSegment(out, start);
+        } else {
+            truncate(out, start, maxLength);
+        }
+    }
+
+    // cuts what was appended since start down to maxLength chars, ending in "..." and never splitting a surrogate pair
+    static void truncate(StringBuilder out, int start, int maxLength) {
+        if (out.length() - start > maxLength) {
+            int end = start + maxLength - 3;
+            if (Character.isLowSurrogate(out.charAt(end)) && Character.isHighSurrogate(out.charAt(end - 1))) {
+                end--;
+            }
+            out.setLength(end);
+            out.append("...");
+        }
+    }
+
+    /** For SMS templates the GSM-7 segment; UCS-2 output is held to the shorter one. */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public boolean isSms() {
+        return sms;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
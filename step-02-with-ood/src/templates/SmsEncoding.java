@@ -0,0 +1,78 @@
+package templates;
+
+/**
+ * How an SMS body goes over the air, which decides how much of it fits in
+ * one segment: 160 septets when every character is in the GSM 03.38
+ * alphabet (the extension characters cost two), otherwise 70 UTF-16 units
+ * as UCS-2. A single Persian letter or emoji is enough to switch a message
+ * to UCS-2.
+ */
+public enum SmsEncoding {
+    GSM_7(160),
+    UCS_2(70);
+
+    private static final String GSM_BASIC =
+        "@£$¥èéùìòÇ\nØø\rÅåΔ_ΦΓΛΩΠΨΣΘΞÆæßÉ !\"#¤%&'()*+,-./0123456789:;<=>?" +
+        "¡ABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÑÜ§¿abcdefghijklmnopqrstuvwxyzäöñüà";
+    // sent as an escape plus the character
+    private static final String GSM_EXTENSION = "\f^{}\\[~]|€";
+    private static final String ELLIPSIS = "...";
+
+    private final int segmentLength;
+
+    SmsEncoding(int segmentLength) {
+        this.segmentLength = segmentLength;
+    }
+
+    public int getSegmentLength() {
+        return segmentLength;
+    }
+
+    /** The encoding a gateway would pick for {@code text} from {@code start} on. */
+    public static SmsEncoding of(CharSequence text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (GSM_BASIC.indexOf(c) < 0 && GSM_EXTENSION.indexOf(c) < 0) return UCS_2;
+        }
+        return GSM_7;
+    }
+
+    // septets for GSM-7, UTF-16 units for UCS-2
+    private int cost(int codePoint) {
+        if (this == UCS_2) return Character.charCount(codePoint);
+        return GSM_EXTENSION.indexOf(codePoint) >= 0 ? 2 : 1;
+    }
+
+    /**
+     * Cuts what was appended to {@code out} since {@code start} down to one
+     * segment of whichever encoding it needs, ending in "...". The cut falls
+     * between code points, never inside a surrogate pair.
+     */
+    static void fitToSegment(StringBuilder out, int start) {
+        SmsEncoding encoding = of(out, start);
+        int used = 0;
+        for (int i = start; i < out.length(); ) {
+            int codePoint = out.codePointAt(i);
+            used += encoding.cost(codePoint);
+            i += Character.charCount(codePoint);
+            if (used > encoding.segmentLength) {
+                cutWithEllipsis(out, start, encoding);
+                return;
+            }
+        }
+    }
+
+    private static void cutWithEllipsis(StringBuilder out, int start, SmsEncoding encoding) {
+        int budget = encoding.segmentLength - ELLIPSIS.length();
+        int end = start;
+        while (end < out.length()) {
+            int codePoint = out.codePointAt(end);
+            int cost = encoding.cost(codePoint);
+            if (cost > budget) break;
+            budget -= cost;
+            end += Character.charCount(codePoint);
+        }
+        out.setLength(end);
+        out.append(ELLIPSIS);
+    }
+}
@@ -0,0 +1,103 @@
+package templates;
+
+import model.Reservation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// placeholders a message template may use, e.g. "{customer} booked room {room}"
+public enum TemplateField {
+    RESERVATION_ID("id") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            out.append(reservation.getId());
+        }
+    },
+    CUSTOMER("customer") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            out.append(reservation.getCustomer().getName());
+        }
+    },
+    ROOM("room") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            out.append(reservation.getRoom().getRoomNumber());
+        }
+    },
+    ROOM_TYPE("roomType") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            out.append(reservation.getRoom().getRoomType());
+        }
+    },
+    CHECK_IN("checkIn") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            appendDate(reservation.getCheckInDate(), out);
+        }
+    },
+    CHECK_OUT("checkOut") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            appendDate(reservation.getCheckOutDate(), out);
+        }
+    },
+    NIGHTS("nights") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            out.append(reservation.getCheckOutDate().toEpochDay() - reservation.getCheckInDate().toEpochDay());
+        }
+    },
+    TOTAL("total") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            reservation.getTotalAmount().appendTo(out);
+        }
+    },
+    BOOKING_TIME("bookingTime") {
+        @Override
+        void append(Reservation reservation, StringBuilder out) {
+            LocalDateTime time = reservation.getBookingTime();
+            appendDate(time.toLocalDate(), out);
+            out.append('T');
+            appendTwoDigits(time.getHour(), out);
+            out.append(':');
+            appendTwoDigits(time.getMinute(), out);
+            out.append(':');
+            appendTwoDigits(time.getSecond(), out);
+        }
+    };
+
+    private final String key;
+
+    TemplateField(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    abstract void append(Reservation reservation, StringBuilder out);
+
+    static TemplateField byKey(String key) {
+        for (TemplateField field : values()) {
+            if (field.key.equals(key)) return field;
+        }
+        throw new IllegalArgumentException("Unknown template placeholder {" + key + "}");
+    }
+
+    // yyyy-MM-dd without going through DateTimeFormatter
+    static void appendDate(LocalDate date, StringBuilder out) {
+        out.append(date.getYear()).append('-');
+        appendTwoDigits(date.getMonthValue(), out);
+        out.append('-');
+        appendTwoDigits(date.getDayOfMonth(), out);
+    }
+
+    private static void appendTwoDigits(int value, StringBuilder out) {
+        if (value < 10) out.append('0');
+        out.append(value);
+    }
+}
@@ -0,0 +1,104 @@
+package analytics;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import org.junit.jupiter.api.Test;
+import service.RoomInventory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OccupancyAnalyticsTest {
+    private static final Customer GUEST = new Customer("Analytics Guest", "analytics@example.com", "+10000000000");
+    private static final LocalDate NIGHT = LocalDate.now().plusDays(10);
+
+    @Test
+    void rangeSumsMatchTheNightByNightFigures() {
+        long base = NIGHT.toEpochDay();
+        DailySeries series = new DailySeries(base, 30);
+        series.add(base + 2, base + 5, 1_000, 1);   // 334, 333, 333
+        series.add(base + 4, base + 40, 2_600, 1);  // 73 × 22 + 72 × 14, only 26 nights in the window
+        series.add(base - 3, base + 1, 400, 1);     // 100 a night, one inside
+        series.add(base + 2, base + 5, 1_000, -1);
+
+        long[] nights = new long[30];
+        long[] revenue = new long[30];
+        for (int i = 4; i < 30; i++) {
+            nights[i]++;
+            revenue[i] += i - 4 < 2_600 % 36 ? 73 : 72;
+        }
+        nights[0]++;
+        revenue[0] += 100;
+
+        for (int from = 0; from <= 30; from++) {
+            for (int to = from; to <= 30; to++) {
+                long expectedNights = 0;
+                long expectedRevenue = 0;
+                for (int i = from; i < to; i++) {
+                    expectedNights += nights[i];
+                    expectedRevenue += revenue[i];
+                }
+                assertEquals(expectedNights, series.nights(base + from, base + to));
+                assertEquals(expectedRevenue, series.revenue(base + from, base + to));
+            }
+        }
+        assertEquals(0, series.nights(base - 10, base));
+        assertEquals(1 + 26, series.nights(base - 10, base + 100));
+    }
+
+    @Test
+    void rebuildCountsAStayOnceEvenWhenItsEventAlsoArrives() {
+        RoomInventory inventory = new RoomInventory();
+        Room room = new Room(101, "Deluxe", 100.0);
+        inventory.addRooms(List.of(room, new Room(102, "Deluxe", 100.0)));
+        OccupancyAnalytics analytics = new OccupancyAnalytics(inventory);
+
+        Reservation stay = new Reservation(GUEST, room, NIGHT, NIGHT.plusDays(2), Money.of(200_00, Money.USD));
+        room.tryHold(stay);
+        room.confirmReservation(stay);
+        assertEquals(1, analytics.rebuild());
+        // the event of a booking the rebuild already saw
+        analytics.onConfirmed(stay);
+
+        assertEquals(2, analytics.nightsSold(null, NIGHT, NIGHT.plusDays(7)));
+        assertEquals(Money.of(200_00, Money.USD), analytics.revenue("deluxe", NIGHT, NIGHT.plusDays(7)));
+        assertEquals(0.5, analytics.occupancyRate(null, NIGHT));
+
+        room.cancelReservation(stay);
+        analytics.onCancelled(stay);
+        analytics.onCancelled(stay);
+        assertEquals(0, analytics.nightsSold(null, NIGHT, NIGHT.plusDays(7)));
+    }
+
+    @Test
+    void rebuildDoesNotKeepAStayCancelledWhileItIsBeingCounted() {
+        RoomInventory inventory = new RoomInventory();
+        Room room = new Room(101, "Deluxe", 100.0);
+        inventory.addRoom(room);
+        OccupancyAnalytics analytics = new OccupancyAnalytics(inventory);
+        boolean[] cancelling = new boolean[1];
+        // cancelled, event included, when the rebuild first puts it into its set:
+        // after the scan saw it confirmed and before its +1 lands
+        Reservation stay = new Reservation(GUEST, room, NIGHT, NIGHT.plusDays(2), Money.of(200_00, Money.USD)) {
+            @Override
+            public int hashCode() {
+                if (isConfirmed() && !cancelling[0]) {
+                    cancelling[0] = true;
+                    room.cancelReservation(this);
+                    analytics.onCancelled(this);
+                }
+                return super.hashCode();
+            }
+        };
+        room.tryHold(stay);
+        room.confirmReservation(stay);
+
+        assertEquals(0, analytics.rebuild());
+        assertEquals(0, analytics.nightsSold(null, NIGHT, NIGHT.plusDays(7)));
+        assertEquals(Money.of(0, Money.USD), analytics.revenue(null, NIGHT, NIGHT.plusDays(7)));
+    }
+}
@@ -0,0 +1,50 @@
+package http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.ReservationService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingHttpServerTest {
+    private ReservationService service;
+    private BookingHttpServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void start() throws IOException {
+        service = new ReservationService();
+        server = new BookingHttpServer(service, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop();
+        service.shutdown();
+    }
+
+    @Test
+    void refusesABodyOverTheLimit() throws Exception {
+        String padding = " ".repeat(BookingHttpServer.MAX_BODY_BYTES);
+        assertEquals(413, post("/cancel", "{\"id\": 1}" + padding).statusCode());
+        // at the limit the body is read and parsed as usual
+        String body = "{\"id\": 1}";
+        assertEquals(404, post("/cancel", body + padding.substring(body.length())).statusCode());
+        assertEquals(400, post("/cancel", "{\"id\": ").statusCode());
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
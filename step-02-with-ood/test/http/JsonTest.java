@@ -0,0 +1,75 @@
+package http;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonTest {
+
+    @Test
+    void parsesEveryKindOfFlatValue() {
+        Map<String, Object> parsed = Json.parseObject(
+            " { \"name\" : \"Ada\", \"room\": 101, \"total\": -12.50e1, \"vip\": true, \"late\": false, \"note\": null } ");
+
+        assertEquals("Ada", parsed.get("name"));
+        assertEquals(new BigDecimal("101"), parsed.get("room"));
+        assertEquals(0, new BigDecimal("-125").compareTo((BigDecimal) parsed.get("total")));
+        assertEquals(Boolean.TRUE, parsed.get("vip"));
+        assertEquals(Boolean.FALSE, parsed.get("late"));
+        assertNull(parsed.get("note"));
+        assertEquals(6, parsed.size());
+        assertEquals(Map.of(), Json.parseObject("{}"));
+    }
+
+    @Test
+    void decodesEscapes() {
+        Map<String, Object> parsed = Json.parseObject(
+            "{\"s\": \"q\\\" b\\\\ s\\/ n\\n r\\r t\\t b\\b f\\f \\u00e9\\u20AC\"}");
+        assertEquals("q\" b\\ s/ n\n r\r t\t b\b f\f é€", parsed.get("s"));
+    }
+
+    @Test
+    void writesNestedObjectsAndArraysWithEscapedStrings() {
+        String json = Json.writer().beginObject()
+            .field("name", "say \"hi\"\\\n\t\u0001")
+            .beginArray("rooms")
+                .beginObject().field("room", 101).field("vip", true).endObject()
+                .beginObject().field("room", 102).field("price", new BigDecimal("1E+2")).endObject()
+            .endArray()
+            .beginObject("guest").field("email", (String) null).endObject()
+            .endObject().toString();
+
+        assertEquals("{\"name\":\"say \\\"hi\\\"\\\\\\n\\t\\u0001\","
+            + "\"rooms\":[{\"room\":101,\"vip\":true},{\"room\":102,\"price\":100}],"
+            + "\"guest\":{\"email\":null}}", json);
+        // what the writer escapes the parser reads back
+        String text = "say \"hi\"\\\n\t\u0001";
+        assertEquals(text, Json.parseObject(Json.writer().beginObject().field("s", text).endObject().toString()).get("s"));
+    }
+
+    @Test
+    void rejectsNestedValues() {
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": {\"b\": 1}}"));
+        assertThrows(IllegalArgumentException.class, () -> Json.parseObject("{\"a\": [1, 2]}"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        String[] malformed = {
+            "", "   ", "[]", "{", "{\"a\"}", "{\"a\" 1}", "{\"a\": }", "{\"a\": 1,}", "{\"a\": 1 \"b\": 2}",
+            "{a: 1}", "{\"a\": 1} x", "{\"a\": \"open}", "{\"a\": tru}", "{\"a\": truex}",
+            "{\"a\": 1.2.3}", "{\"a\": -}", "{\"a\": \"\\x\"}", "{\"a\": \"\\u12\"}", "{\"a\": \"\\u-001\"}",
+            "{\"a\": \"\\u00g1\"}", "{\"a\": \"line\nbreak\"}", "{\"a\": \"\\",
+        };
+        for (String json : malformed) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Json.parseObject(json),
+                () -> "accepted " + json);
+            assertEquals(true, e.getMessage().startsWith("Invalid JSON"), () -> json + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+    private static final Currency CHF = Currency.getInstance("CHF");
+    private static final Currency JPY = Currency.getInstance("JPY");
+    private static final Currency BHD = Currency.getInstance("BHD");
+
+    @Test
+    void roundsMajorAmountsHalfUpToTheMinorUnit() {
+        assertEquals(30150, Money.ofMajor(301.5, Money.USD).getMinorUnits());
+        assertEquals(1, Money.ofMajor(0.005, Money.USD).getMinorUnits());
+        assertEquals(0, Money.ofMajor(0.0049, Money.USD).getMinorUnits());
+        // the double's shortest decimal form is rounded, not its binary value (2.67499999...)
+        assertEquals(268, Money.ofMajor(2.675, Money.USD).getMinorUnits());
+        assertEquals(-1, Money.ofMajor(-0.005, Money.USD).getMinorUnits());
+        assertEquals(13, Money.ofMajor(12.5, JPY).getMinorUnits());
+        assertEquals(1005, Money.ofMajor(1.0049, BHD).getMinorUnits());
+        assertThrows(ArithmeticException.class, () -> Money.ofMajor(1e20, Money.USD));
+    }
+
+    @Test
+    void refusesToMixCurrencies() {
+        Money dollars = Money.of(500, Money.USD);
+        Money francs = Money.of(500, CHF);
+
+        assertThrows(IllegalArgumentException.class, () -> dollars.plus(francs));
+        assertThrows(IllegalArgumentException.class, () -> dollars.minus(francs));
+        assertThrows(IllegalArgumentException.class, () -> dollars.compareTo(francs));
+        assertNotEquals(dollars, francs);
+        assertEquals(Money.of(1000, Money.USD), dollars.plus(Money.of(500, Money.USD)));
+        assertEquals(Money.of(1500, CHF), francs.times(3));
+    }
+
+    @Test
+    void formatsWithTheCurrencysSymbolAndFractionDigits() {
+        assertEquals("$301.50", Money.of(30150, Money.USD).toString());
+        assertEquals("-$5.00", Money.of(-500, Money.USD).toString());
+        assertEquals("$0.05", Money.of(5, Money.USD).toString());
+        assertEquals("-$0.05", Money.of(-5, Money.USD).toString());
+        assertEquals("$0.00", Money.zero(Money.USD).toString());
+        assertEquals("CHF 12.00", Money.of(1200, CHF).toString());
+        assertEquals("BHD 1.005", Money.of(1005, BHD).toString());
+        assertEquals("BHD 0.050", Money.of(50, BHD).toString());
+        assertEquals(JPY.getSymbol(Locale.US) + "1234", Money.of(1234, JPY).toString());
+        assertEquals("total: $1.10", Money.of(110, Money.USD).appendTo(new StringBuilder("total: ")).toString());
+        assertEquals(new BigDecimal("301.50"), Money.of(30150, Money.USD).toDecimal());
+    }
+
+    @Test
+    void handlesTheExtremesOfALong() {
+        assertEquals("$92233720368547758.07", Money.of(Long.MAX_VALUE, Money.USD).toString());
+        assertEquals("-$92233720368547758.08", Money.of(Long.MIN_VALUE, Money.USD).toString());
+        assertEquals("-" + JPY.getSymbol(Locale.US) + "9223372036854775808", Money.of(Long.MIN_VALUE, JPY).toString());
+        assertEquals("-BHD 9223372036854775.808", Money.of(Long.MIN_VALUE, BHD).toString());
+
+        Money max = Money.of(Long.MAX_VALUE, Money.USD);
+        Money min = Money.of(Long.MIN_VALUE, Money.USD);
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.of(1, Money.USD)));
+        assertThrows(ArithmeticException.class, () -> min.minus(Money.of(1, Money.USD)));
+        assertThrows(ArithmeticException.class, () -> min.times(-1));
+        assertTrue(min.isNegative());
+        assertTrue(min.compareTo(max) < 0);
+    }
+}
@@ -0,0 +1,152 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyCalendarTest {
+    private static final long BASE = 20_000;
+    // three full words and part of a fourth
+    private static final int HORIZON = 200;
+    private static final Customer GUEST = new Customer("Calendar Guest", "calendar@example.com", "+10000000001");
+
+    @Test
+    void marksAndClearsRangesThatStartOrEndOnWordBoundaries() {
+        OccupancyCalendar calendar = new OccupancyCalendar(BASE, HORIZON);
+        calendar.mark(BASE + 63, BASE + 65);
+        assertFalse(calendar.isFree(BASE + 63, BASE + 64));
+        assertFalse(calendar.isFree(BASE + 64, BASE + 65));
+        assertTrue(calendar.isFree(BASE + 62, BASE + 63));
+        assertTrue(calendar.isFree(BASE + 65, BASE + 66));
+        assertEquals(2, calendar.countBooked(BASE, BASE + HORIZON));
+
+        // a stay covering whole words, its last night the last bit of a word
+        calendar.mark(BASE + 64, BASE + 192);
+        assertEquals(129, calendar.countBooked(BASE, BASE + HORIZON));
+        assertFalse(calendar.isFree(BASE + 191, BASE + 192));
+        assertTrue(calendar.isFree(BASE + 192, BASE + HORIZON));
+
+        calendar.clear(BASE + 64, BASE + 128);
+        assertFalse(calendar.isFree(BASE + 63, BASE + 64));
+        assertTrue(calendar.isFree(BASE + 64, BASE + 128));
+        assertFalse(calendar.isFree(BASE + 127, BASE + 129));
+        assertEquals(65, calendar.countBooked(BASE, BASE + HORIZON));
+
+        // the window's first and last nights
+        calendar.mark(BASE, BASE + 1);
+        calendar.mark(BASE + HORIZON - 1, BASE + HORIZON);
+        assertFalse(calendar.isFree(BASE, BASE + 1));
+        assertFalse(calendar.isFree(BASE + HORIZON - 1, BASE + HORIZON));
+        assertEquals(67, calendar.countBooked(BASE, BASE + HORIZON));
+        // an empty range is always free
+        assertTrue(calendar.isFree(BASE + 100, BASE + 100));
+    }
+
+    @Test
+    void clipsMarksAndCountsToTheWindow() {
+        OccupancyCalendar calendar = new OccupancyCalendar(BASE, HORIZON);
+        calendar.mark(BASE - 10, BASE + 3);
+        calendar.mark(BASE + HORIZON - 2, BASE + HORIZON + 50);
+        assertEquals(5, calendar.countBooked(BASE - 100, BASE + HORIZON + 100));
+        assertTrue(calendar.covers(BASE, BASE + HORIZON));
+        assertFalse(calendar.covers(BASE - 1, BASE + 1));
+        assertFalse(calendar.covers(BASE + HORIZON - 1, BASE + HORIZON + 1));
+
+        int[] counts = new int[6];
+        calendar.addBookedNights(BASE - 2, counts);
+        assertArrayEquals(new int[] {0, 0, 1, 1, 1, 0}, counts);
+    }
+
+    @Test
+    void findsTheNextFreeNightAcrossFullWords() {
+        OccupancyCalendar calendar = new OccupancyCalendar(BASE, HORIZON);
+        calendar.mark(BASE + 10, BASE + 130);
+        assertEquals(BASE + 5, calendar.nextFreeNight(BASE + 5, BASE + HORIZON));
+        assertEquals(BASE + 130, calendar.nextFreeNight(BASE + 10, BASE + HORIZON));
+        assertEquals(BASE + 130, calendar.nextFreeNight(BASE + 64, BASE + 131));
+        // the free night is past the end of the range
+        assertEquals(-1, calendar.nextFreeNight(BASE + 10, BASE + 130));
+        assertEquals(-1, calendar.nextFreeNight(BASE + 20, BASE + 20));
+
+        calendar.mark(BASE + 130, BASE + HORIZON);
+        assertEquals(-1, calendar.nextFreeNight(BASE + 10, BASE + HORIZON + 30));
+        // before the window is unknown, not free
+        assertEquals(BASE, calendar.nextFreeNight(BASE - 30, BASE + 5));
+    }
+
+    @Test
+    void agreesWithANightByNightModel() {
+        OccupancyCalendar calendar = new OccupancyCalendar(BASE, HORIZON);
+        boolean[] booked = new boolean[HORIZON];
+        SplittableRandom random = new SplittableRandom(10);
+        for (int step = 0; step < 5_000; step++) {
+            int from = random.nextInt(HORIZON);
+            int to = from + random.nextInt(HORIZON - from + 1);
+            boolean mark = random.nextBoolean();
+            if (mark) calendar.mark(BASE + from, BASE + to);
+            else calendar.clear(BASE + from, BASE + to);
+            for (int night = from; night < to; night++) booked[night] = mark;
+
+            int a = random.nextInt(HORIZON);
+            int b = a + random.nextInt(HORIZON - a + 1);
+            int bookedNights = 0;
+            int firstFree = -1;
+            for (int night = a; night < b; night++) {
+                if (booked[night]) bookedNights++;
+                else if (firstFree < 0) firstFree = night;
+            }
+            assertEquals(bookedNights == 0, calendar.isFree(BASE + a, BASE + b), () -> "isFree " + a + ".." + b);
+            assertEquals(bookedNights, calendar.countBooked(BASE + a, BASE + b));
+            assertEquals(firstFree < 0 ? -1 : BASE + firstFree, calendar.nextFreeNight(BASE + a, BASE + b));
+        }
+    }
+
+    @Test
+    void rollingTheRoomCalendarKeepsItInStepWithTheIndex() {
+        Room room = new Room(301, "Standard", 100.0);
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusDays(Room.CALENDAR_PAST_DAYS);
+        List<Reservation> stays = new ArrayList<>();
+        // one stay that leaves the window after the roll, one straddling the new start, two inside
+        stays.add(confirm(room, windowStart.plusDays(2), windowStart.plusDays(5)));
+        stays.add(confirm(room, windowStart.plusDays(28), windowStart.plusDays(33)));
+        stays.add(confirm(room, today.plusDays(1), today.plusDays(4)));
+        stays.add(confirm(room, today.plusDays(Room.CALENDAR_HORIZON_DAYS - Room.CALENDAR_PAST_DAYS + 5),
+            today.plusDays(Room.CALENDAR_HORIZON_DAYS - Room.CALENDAR_PAST_DAYS + 8)));
+        Reservation cancelled = confirm(room, today.plusDays(10), today.plusDays(12));
+        assertTrue(room.cancelReservation(cancelled));
+
+        room.rollCalendar(today.plusDays(30));
+
+        for (Reservation stay : stays) {
+            assertFalse(room.isAvailable(stay.getCheckInDate(), stay.getCheckOutDate()), stay::toString);
+            assertFalse(room.isAvailable(stay.getCheckInDate(), stay.getCheckInDate().plusDays(1)), stay::toString);
+            assertTrue(room.isAvailable(stay.getCheckOutDate(), stay.getCheckOutDate().plusDays(1)), stay::toString);
+            assertEquals(stay, room.findConfirmed(stay.getCheckInDate()));
+        }
+        assertTrue(room.isAvailable(today.plusDays(10), today.plusDays(12)));
+        // the window now starts 30 days later: three nights of the straddling stay, then the two later stays
+        LocalDate newStart = windowStart.plusDays(30);
+        assertEquals(3 + 3 + 3, room.countBookedNights(newStart.minusDays(100), newStart.plusDays(Room.CALENDAR_HORIZON_DAYS)));
+        assertEquals(List.of(windowStart.plusDays(27), windowStart.plusDays(33)),
+            room.findFreeNights(windowStart.plusDays(27), windowStart.plusDays(34)));
+        // a stay made after the roll is marked in the new window
+        confirm(room, today.plusDays(10), today.plusDays(12));
+        assertFalse(room.isAvailable(today.plusDays(11), today.plusDays(12)));
+    }
+
+    private static Reservation confirm(Room room, LocalDate checkIn, LocalDate checkOut) {
+        Reservation reservation = new Reservation(GUEST, room, checkIn, checkOut);
+        assertTrue(room.tryHold(reservation));
+        assertTrue(room.confirmReservation(reservation));
+        return reservation;
+    }
+}
@@ -0,0 +1,87 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationIndexTest {
+    private static final Customer GUEST = new Customer("Index Guest", "index@example.com", "+10000000002");
+    private static final Room ROOM = new Room(401, "Standard", 100.0);
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 10);
+
+    private static Reservation stay(int fromOffset, int toOffset) {
+        return new Reservation(GUEST, ROOM, DAY.plusDays(fromOffset), DAY.plusDays(toOffset));
+    }
+
+    @Test
+    void aStayMayStartOnTheDayAnotherEnds() {
+        ReservationIndex index = new ReservationIndex();
+        Reservation middle = stay(5, 8);
+        assertTrue(index.add(middle));
+
+        // check-out on the check-in day and check-in on the check-out day do not overlap
+        assertTrue(index.isFree(DAY.plusDays(2), DAY.plusDays(5)));
+        assertTrue(index.isFree(DAY.plusDays(8), DAY.plusDays(10)));
+        assertTrue(index.add(stay(2, 5)));
+        assertTrue(index.add(stay(8, 10)));
+        assertEquals(3, index.size());
+
+        // one night into either neighbour does
+        assertFalse(index.isFree(DAY.plusDays(4), DAY.plusDays(6)));
+        assertFalse(index.isFree(DAY.plusDays(7), DAY.plusDays(9)));
+        assertSame(middle, index.findOverlap(DAY.plusDays(7), DAY.plusDays(8)));
+    }
+
+    @Test
+    void findsStaysThatContainOrAreContainedInTheRange() {
+        ReservationIndex index = new ReservationIndex();
+        Reservation longStay = stay(0, 10);
+        assertTrue(index.add(longStay));
+
+        // inside the stay, around it, and sharing only its first or last night
+        assertSame(longStay, index.findOverlap(DAY.plusDays(3), DAY.plusDays(4)));
+        assertSame(longStay, index.findOverlap(DAY.minusDays(5), DAY.plusDays(15)));
+        assertSame(longStay, index.findOverlap(DAY.minusDays(1), DAY.plusDays(1)));
+        assertSame(longStay, index.findOverlap(DAY.plusDays(9), DAY.plusDays(12)));
+        assertFalse(index.add(stay(3, 4)));
+        assertFalse(index.add(stay(-5, 15)));
+        assertFalse(index.add(stay(0, 10)));
+
+        assertNull(index.findOverlap(DAY.minusDays(3), DAY));
+        assertNull(index.findOverlap(DAY.plusDays(10), DAY.plusDays(11)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removesOnlyTheStayItHolds() {
+        ReservationIndex index = new ReservationIndex();
+        Reservation first = stay(0, 3);
+        Reservation second = stay(3, 6);
+        index.add(first);
+        index.add(second);
+
+        // another reservation with the same check-in is not the one indexed
+        assertFalse(index.remove(stay(0, 3)));
+        assertSame(first, index.get(DAY));
+
+        assertTrue(index.remove(first));
+        assertFalse(index.remove(first));
+        assertNull(index.get(DAY));
+        assertTrue(index.isFree(DAY, DAY.plusDays(3)));
+        assertFalse(index.isFree(DAY.plusDays(2), DAY.plusDays(4)));
+        assertEquals(List.of(second), List.copyOf(index.all()));
+
+        Reservation replacement = stay(1, 3);
+        assertTrue(index.add(replacement));
+        assertSame(replacement, index.get(DAY.plusDays(1)));
+        assertTrue(index.remove(second));
+        assertEquals(List.of(replacement), List.copyOf(index.all()));
+    }
+}
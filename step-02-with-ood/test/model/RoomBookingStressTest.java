@@ -0,0 +1,81 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads hold and confirm random stays on the same few rooms, half
+ * inside the occupancy-calendar window and half before it; afterwards no
+ * two confirmed stays of a room may overlap.
+ */
+class RoomBookingStressTest {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 5_000;
+    private static final Customer GUEST = new Customer("Stress Guest", "stress@example.com", "+10000000000");
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < 4; i++) rooms.add(new Room(100 + i, "Standard", 100.0));
+
+        LocalDate[] origins = {LocalDate.now(), LocalDate.now().minusYears(5)};
+        AtomicInteger confirmed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            workers.add(pool.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    Room room = rooms.get(random.nextInt(rooms.size()));
+                    LocalDate checkIn = origins[random.nextInt(2)].plusDays(random.nextInt(120));
+                    Reservation reservation = new Reservation(GUEST, room, checkIn, checkIn.plusDays(1 + random.nextInt(5)));
+                    if (!room.tryHold(reservation)) continue;
+                    // a third of the holds fail payment and are released
+                    if (random.nextInt(3) == 0) {
+                        room.releaseHold(reservation);
+                    } else if (room.confirmReservation(reservation)) {
+                        confirmed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) worker.get();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(confirmed.get() > 0, "no booking went through");
+        int total = 0;
+        for (Room room : rooms) {
+            List<Reservation> stays = room.getReservations();
+            for (int a = 0; a < stays.size(); a++) {
+                Reservation first = stays.get(a);
+                assertTrue(first.isConfirmed(), "left a pending or released stay in room " + room.getRoomNumber());
+                for (int b = a + 1; b < stays.size(); b++) {
+                    Reservation second = stays.get(b);
+                    assertFalse(first.overlapsWith(second.getCheckInDate(), second.getCheckOutDate()),
+                        "room " + room.getRoomNumber() + " double-booked: " + first + " / " + second);
+                }
+            }
+            total += stays.size();
+        }
+        assertTrue(total == confirmed.get(), "confirmed " + confirmed.get() + " stays but rooms hold " + total);
+    }
+}
@@ -0,0 +1,56 @@
+package persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarReservationStoreTest {
+    private static final int USD = 840;
+    private static final int EUR = 978;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsOnlyForcedRowsAcrossReopen() throws IOException {
+        try (ColumnarReservationStore store = new ColumnarReservationStore(directory)) {
+            store.append(101, 7, 100, 103, 1_000L, 300_00, USD);
+            store.append(102, 8, 101, 102, 2_000L, 90_00, EUR);
+            store.force();
+            store.append(103, 9, 102, 104, 3_000L, 250_00, USD);
+            store.truncate(2);
+        }
+        try (ColumnarReservationStore store = new ColumnarReservationStore(directory)) {
+            assertEquals(2, store.size());
+            assertEquals(300_00, store.revenue(USD, 0, 1_000));
+            assertEquals(90_00, store.revenue(EUR, 0, 1_000));
+            assertEquals(3, store.bookedNights(101));
+            assertFalse(store.isRoomFree(101, 102, 104));
+            assertTrue(store.isRoomFree(103, 102, 104));
+        }
+    }
+
+    @Test
+    void growsPastTheInitialMapping() throws IOException {
+        int rows = (1 << 16) + 10;
+        try (ColumnarReservationStore store = new ColumnarReservationStore(directory)) {
+            for (int i = 0; i < rows; i++) {
+                store.append(100 + i % 10, i, i, i + 1, i, 1, USD);
+            }
+            store.force();
+        }
+        try (ColumnarReservationStore store = new ColumnarReservationStore(directory)) {
+            assertEquals(rows, store.size());
+            assertEquals(rows, store.revenue(USD, 0, Integer.MAX_VALUE));
+            ReservationView last = store.newView().moveTo(rows - 1);
+            assertEquals(rows - 1, last.getCustomerId());
+            assertEquals(rows, last.getCheckOutEpochDay());
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package persistence;
+
+import implementations.EmailNotification;
+import implementations.OnSitePayment;
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import model.RoomTypeBooking;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import service.ReservationService;
+import service.RoomTypeAvailability;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationJournalTest {
+    private static final Customer GUEST = new Customer("Journal Guest", "journal@example.com", "+10000000000");
+
+    @TempDir
+    Path directory;
+
+    private final List<ReservationService> services = new ArrayList<>();
+    private final List<ReservationJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void shutDown() {
+        services.forEach(ReservationService::shutdown);
+    }
+
+    @Test
+    void recoversConfirmedStaysAfterRestart() throws IOException {
+        ReservationService first = open(10_000);
+        book(first, 101, 3);
+        book(first, 102, 5);
+        first.shutdown();
+
+        ReservationService second = open(10_000);
+        assertEquals(2, confirmedStays(second));
+        assertNotNull(second.getInventory().findByNumber(102).findConfirmed(LocalDate.now().plusDays(5)));
+    }
+
+    @Test
+    void recoversFromSnapshotPlusTail() throws IOException {
+        ReservationService first = open(2);
+        for (int i = 0; i < 5; i++) book(first, 101, 2 * i);
+        first.shutdown();
+
+        assertEquals(5, confirmedStays(open(2)));
+    }
+
+    @Test
+    void keepsReservationIdsAcrossRestart() throws IOException {
+        ReservationService first = open(2);
+        Reservation kept = book(first, 101, 3);
+        Reservation cancelled = book(first, 102, 3);
+        Reservation inTail = book(first, 103, 3);
+        assertTrue(first.cancelReservation(cancelled.getId()));
+        first.shutdown();
+
+        ReservationService second = open(2);
+        assertEquals(kept.getCheckInDate(), second.findReservation(kept.getId()).getCheckInDate());
+        assertEquals(103, second.findReservation(inTail.getId()).getRoom().getRoomNumber());
+        assertNull(second.findReservation(cancelled.getId()));
+        assertEquals(2, confirmedStays(second));
+        assertTrue(book(second, 101, 6).getId() > inTail.getId());
+    }
+
+    @Test
+    void keepsTypeBookingsAndTheirAssignmentsAcrossRestart() throws IOException {
+        LocalDate night = LocalDate.now().plusDays(8);
+        ReservationService first = open(3);
+        RoomTypeBooking assigned = bookType(first, night);
+        RoomTypeBooking cancelled = bookType(first, night.plusDays(1));
+        RoomTypeBooking waiting = bookType(first, night.plusDays(1));
+        assertEquals(1, first.assignRooms(night));
+        assertTrue(first.cancelTypeReservation(cancelled));
+        first.shutdown();
+
+        ReservationService second = open(3);
+        assertEquals(List.of(waiting.getId()), second.getUnassignedBookings().stream().map(RoomTypeBooking::getId).toList());
+        assertEquals(1, confirmedStays(second));
+        assertEquals(assigned.getAssignment().getId(), second.getInventory().findByNumber(
+            assigned.getAssignment().getRoom().getRoomNumber()).findConfirmed(night).getId());
+        // one Deluxe promised to the waiting booking, the other still free
+        assertEquals(1, second.getRoomTypeAvailability().getAvailable("Deluxe", night));
+        assertEquals(1, second.getRoomTypeAvailability().getAvailable("Deluxe", night.plusDays(1)));
+        assertTrue(bookType(second, night.plusDays(2)).getId() > waiting.getId());
+        assertEquals(1, second.assignRooms(night.plusDays(1)));
+        assertTrue(second.getUnassignedBookings().stream().noneMatch(booking -> booking.getId() == waiting.getId()));
+    }
+
+    @Test
+    void aConcreteHoldCannotTakeARoomPromisedToATypeBooking() throws IOException {
+        LocalDate night = LocalDate.now().plusDays(8);
+        ReservationService service = open(10_000);
+        bookType(service, night);
+        bookType(service, night);
+        assertNull(service.makeReservation(GUEST, 102, night, night.plusDays(1), new OnSitePayment(), new EmailNotification()));
+        assertFalse(service.getRoomTypeAvailability().hasUnsoldRoom("Deluxe", night, night.plusDays(1)));
+        // the refused hold gave nothing back that it did not take
+        assertEquals(0, service.getRoomTypeAvailability().getAvailable("Deluxe", night));
+        assertNotNull(service.makeReservation(GUEST, 101, night, night.plusDays(1), new OnSitePayment(), new EmailNotification()));
+        assertEquals(1, service.getRoomTypeAvailability().getSold("Luxury", night));
+    }
+
+    @Test
+    void aModifiedStayCannotMoveOntoARoomPromisedToATypeBooking() throws IOException {
+        LocalDate night = LocalDate.now().plusDays(8);
+        ReservationService service = open(10_000);
+        RoomTypeAvailability types = service.getRoomTypeAvailability();
+        Reservation stay = book(service, 102, 6);
+        bookType(service, night);
+        bookType(service, night);
+        assertNull(service.modifyReservation(stay, night, night.plusDays(1)));
+        assertTrue(stay.isConfirmed());
+        assertEquals(1, types.getSold("Deluxe", stay.getCheckInDate()));
+        assertEquals(2, types.getSold("Deluxe", night));
+
+        // nights the stay already holds need no new unit; the one it adds takes the last room
+        bookType(service, night.minusDays(1));
+        Reservation longer = service.modifyReservation(stay, stay.getCheckInDate(), night.minusDays(1).plusDays(1));
+        assertNotNull(longer);
+        assertEquals(1, types.getSold("Deluxe", longer.getCheckInDate()));
+        assertEquals(2, types.getSold("Deluxe", night.minusDays(1)));
+        assertNull(service.makeTypeReservation(GUEST, "Deluxe", night.minusDays(1), night,
+            new OnSitePayment(), new EmailNotification()));
+    }
+
+    @Test
+    void everyWriteRacingCloseIsCompleted() throws Exception {
+        ReservationService service = open(10_000);
+        ReservationJournal journal = journals.get(0);
+        Reservation stay = book(service, 101, 3);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        Thread appender = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                CompletableFuture<Void> write = journal.recordRolledBack(stay);
+                synchronized (writes) {
+                    writes.add(write);
+                }
+            }
+        });
+        appender.start();
+        Thread.sleep(5);
+        journal.close();
+        appender.join();
+
+        synchronized (writes) {
+            for (CompletableFuture<Void> write : writes) {
+                assertTrue(write.isDone());
+            }
+        }
+        // the stay is cancelled in memory; the failed write is reported, not thrown
+        assertTrue(service.cancelReservation(stay.getId()));
+        assertFalse(stay.isConfirmed());
+    }
+
+    @Test
+    void dropsOnlyAWriteCutShortAtTheEnd() throws IOException {
+        ReservationService first = open(10_000);
+        book(first, 101, 1);
+        book(first, 102, 1);
+        first.shutdown();
+
+        Path journal = directory.resolve(ReservationJournal.JOURNAL_FILE);
+        long intact = Files.size(journal);
+        // half of a frame: a length that runs past the end, then a few payload bytes
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 80, 1, 0, 0}));
+        }
+
+        assertEquals(2, confirmedStays(open(10_000)));
+        assertEquals(intact, Files.size(journal));
+    }
+
+    @Test
+    void refusesAJournalDamagedBeforeItsEnd() throws IOException {
+        ReservationService first = open(10_000);
+        book(first, 101, 1);
+        book(first, 102, 1);
+        first.shutdown();
+
+        Path journal = directory.resolve(ReservationJournal.JOURNAL_FILE);
+        byte[] bytes = Files.readAllBytes(journal);
+        // flip a byte inside the first record's payload (after header, generation and length);
+        // the second record follows it
+        bytes[ReservationCodec.HEADER_SIZE + Long.BYTES + Integer.BYTES + 6] ^= 0x7F;
+        Files.write(journal, bytes);
+
+        assertThrows(CorruptJournalException.class, () -> open(10_000));
+        assertArrayEquals(bytes, Files.readAllBytes(journal));
+    }
+
+    @Test
+    void refusesAFileFromANewerVersion() throws IOException {
+        open(10_000).shutdown();
+        Path journal = directory.resolve(ReservationJournal.JOURNAL_FILE);
+        ByteBuffer header = ByteBuffer.allocate(ReservationCodec.HEADER_SIZE);
+        header.putInt(ReservationCodec.JOURNAL_MAGIC).putInt(ReservationCodec.FORMAT_VERSION + 1).flip();
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+        }
+
+        assertThrows(CorruptJournalException.class, () -> open(10_000));
+    }
+
+    @Test
+    void movesLongPastStaysIntoTheHistoryStoreOnce() throws IOException {
+        ReservationService first = open(10_000);
+        book(first, 101, -400);
+        book(first, 101, -399);
+        book(first, 102, 3);
+        first.shutdown();
+
+        ReservationService second = open(10_000);
+        assertEquals(1, confirmedStays(second));
+        assertEquals(2, journals.get(journals.size() - 1).getHistory().size());
+        second.shutdown();
+
+        ReservationService third = open(10_000);
+        assertEquals(1, confirmedStays(third));
+        assertEquals(2, journals.get(journals.size() - 1).getHistory().size());
+    }
+
+    @Test
+    void resolvesTheGuestOfAnArchivedStayAfterRestart() throws IOException {
+        Customer other = new Customer("Other Guest", "other@example.com", "+10000000001");
+        ReservationService first = open(10_000);
+        // a second spelling of GUEST's email and a guest the directory has never seen
+        first.getCustomerDirectory().register("Journal Guest", "JOURNAL@example.com ", "+10000000000");
+        book(first, 101, -400);
+        Room room = first.getInventory().findByNumber(102);
+        LocalDate checkIn = LocalDate.now().minusDays(399);
+        first.importReservation(new Reservation(other, room, checkIn, checkIn.plusDays(1))).join();
+        book(first, 103, -398);
+        first.shutdown();
+
+        open(10_000).shutdown();
+        ReservationService third = open(10_000);
+        ColumnarReservationStore history = journals.get(journals.size() - 1).getHistory();
+        assertEquals(3, history.size());
+        assertEquals(2, history.guestCount());
+        int[] ids = new int[3];
+        String[] emails = new String[3];
+        history.forEach(view -> {
+            ids[view.getRoomNumber() - 101] = view.getCustomerId();
+            emails[view.getRoomNumber() - 101] = view.getCustomer().getEmail();
+        });
+        assertEquals(ids[0], ids[2]);
+        assertFalse(ids[0] == ids[1]);
+        assertEquals("other@example.com", emails[1]);
+        Customer resolved = third.getCustomerDirectory().intern(history.guest(ids[0]));
+        assertEquals(third.getCustomerDirectory().findByEmail(GUEST.getEmail()), resolved);
+    }
+
+    @Test
+    void upgradesHeaderlessFilesFromBeforeVersioning() throws IOException {
+        LocalDate checkIn = LocalDate.now().plusDays(4);
+        // the first layout kept a double in dollars, the next minor units plus currency
+        Files.write(directory.resolve(ReservationJournal.SNAPSHOT_FILE), legacyFrame(101, checkIn, true));
+        Files.write(directory.resolve(ReservationJournal.JOURNAL_FILE), legacyFrame(102, checkIn, false));
+
+        ReservationService first = open(10_000);
+        assertEquals(2, confirmedStays(first));
+        Reservation fromSnapshot = first.getInventory().findByNumber(101).findConfirmed(checkIn);
+        assertEquals(Money.of(250_00, Money.USD), fromSnapshot.getTotalAmount());
+        first.shutdown();
+
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(directory.resolve(ReservationJournal.SNAPSHOT_FILE)));
+        assertEquals(ReservationCodec.FORMAT_VERSION, ReservationCodec.readHeader(ReservationCodec.SNAPSHOT_MAGIC, snapshot));
+        assertEquals(2, confirmedStays(open(10_000)));
+    }
+
+    private static byte[] legacyFrame(int roomNumber, LocalDate checkIn, boolean doubleAmount) {
+        ByteBuffer payload = ByteBuffer.allocate(256);
+        payload.put(ReservationCodec.CONFIRMED).putInt(roomNumber)
+            .putInt((int) checkIn.toEpochDay()).putInt((int) checkIn.plusDays(1).toEpochDay())
+            .putLong(1_700_000_000L).putInt(0);
+        if (doubleAmount) {
+            payload.putDouble(250.0);
+        } else {
+            payload.putLong(250_00).put("USD".getBytes(StandardCharsets.US_ASCII));
+        }
+        for (String field : new String[] {GUEST.getName(), GUEST.getEmail(), GUEST.getPhoneNumber()}) {
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            payload.putShort((short) bytes.length).put(bytes);
+        }
+        payload.flip();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer frame = ByteBuffer.allocate(4 + payload.remaining() + 4);
+        frame.putInt(payload.remaining()).put(payload).putInt((int) crc.getValue());
+        return frame.array();
+    }
+
+    private ReservationService open(int snapshotEvery) throws IOException {
+        ReservationService service = new ReservationService();
+        services.add(service);
+        journals.add(ReservationJournal.open(directory, service, snapshotEvery));
+        return service;
+    }
+
+    private static Reservation book(ReservationService service, int roomNumber, int daysFromToday) {
+        Room room = service.getInventory().findByNumber(roomNumber);
+        LocalDate checkIn = LocalDate.now().plusDays(daysFromToday);
+        Reservation reservation = new Reservation(GUEST, room, checkIn, checkIn.plusDays(1));
+        service.importReservation(reservation).join();
+        return reservation;
+    }
+
+    private static RoomTypeBooking bookType(ReservationService service, LocalDate checkIn) {
+        RoomTypeBooking booking = service.makeTypeReservation(GUEST, "Deluxe", checkIn, checkIn.plusDays(1),
+            new OnSitePayment(), new EmailNotification());
+        assertNotNull(booking);
+        return booking;
+    }
+
+    private static int confirmedStays(ReservationService service) {
+        int count = 0;
+        for (Room room : service.getInventory().getAll()) {
+            for (Reservation reservation : room.getReservations()) {
+                assertTrue(reservation.isConfirmed());
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,71 @@
+package pricing;
+
+import model.Customer;
+import model.Money;
+import model.Reservation;
+import model.Room;
+import org.junit.jupiter.api.Test;
+import service.RoomInventory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PricingEngineTest {
+    private static final Customer GUEST = new Customer("Pricing Guest", "pricing@example.com", "+10000000000");
+    private static final LocalDate NIGHT = LocalDate.now().plusDays(10);
+
+    @Test
+    void repricesOnlyTheNightsOfAConfirmedStay() {
+        RoomInventory inventory = new RoomInventory();
+        Room first = new Room(101, "Deluxe", 100.0);
+        inventory.addRooms(List.of(first, new Room(102, "deluxe ", 100.0)));
+        PricingEngine engine = new PricingEngine(inventory);
+        engine.addRule(new OccupancyPricingRule("High demand", 50, 12_000));
+
+        assertEquals(Money.of(300_00, Money.USD), engine.quote(first, NIGHT, NIGHT.plusDays(3)));
+        long rebuilds = engine.getTableRebuilds();
+
+        Reservation stay = new Reservation(GUEST, first, NIGHT.plusDays(1), NIGHT.plusDays(2));
+        engine.onConfirmed(stay);
+        // only the middle night is half booked
+        assertEquals(Money.of(320_00, Money.USD), engine.quote(first, NIGHT, NIGHT.plusDays(3)));
+
+        engine.onCancelled(stay);
+        assertEquals(Money.of(300_00, Money.USD), engine.quote(first, NIGHT, NIGHT.plusDays(3)));
+        assertEquals(rebuilds, engine.getTableRebuilds());
+    }
+
+    @Test
+    void rebuildsWhenRoomsOfTheTypeAreAdded() {
+        RoomInventory inventory = new RoomInventory();
+        Room first = new Room(101, "Deluxe", 100.0);
+        inventory.addRoom(first);
+        PricingEngine engine = new PricingEngine(inventory);
+        engine.addRule(new OccupancyPricingRule("High demand", 100, 12_000));
+        engine.onConfirmed(new Reservation(GUEST, first, NIGHT, NIGHT.plusDays(1)));
+        assertEquals(Money.of(120_00, Money.USD), engine.quote(first, NIGHT, NIGHT.plusDays(1)));
+
+        inventory.addRoom(new Room(102, "Deluxe", 100.0));
+        assertEquals(Money.of(100_00, Money.USD), engine.quote(first, NIGHT, NIGHT.plusDays(1)));
+    }
+
+    @Test
+    void keepsCountingStaysPastTheWindowAcrossARoll() {
+        RoomInventory inventory = new RoomInventory();
+        Room room = new Room(101, "Deluxe", 100.0);
+        inventory.addRoom(room);
+        PricingEngine engine = new PricingEngine(inventory);
+        engine.addRule(new OccupancyPricingRule("High demand", 100, 12_000));
+        LocalDate night = LocalDate.now().minusDays(Room.CALENDAR_PAST_DAYS).plusDays(Room.CALENDAR_HORIZON_DAYS + 2);
+        Reservation stay = new Reservation(GUEST, room, night, night.plusDays(1));
+
+        engine.onConfirmed(stay);
+        assertEquals(Money.of(120_00, Money.USD), engine.quote(room, night, night.plusDays(1)));
+        engine.roll(LocalDate.now().plusDays(5));
+        assertEquals(Money.of(120_00, Money.USD), engine.quote(room, night, night.plusDays(1)));
+        engine.onCancelled(stay);
+        assertEquals(Money.of(100_00, Money.USD), engine.quote(room, night, night.plusDays(1)));
+    }
+}
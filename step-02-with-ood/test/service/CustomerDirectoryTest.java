@@ -0,0 +1,33 @@
+package service;
+
+import model.Customer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CustomerDirectoryTest {
+
+    @Test
+    void doesNotMergeGuestsThatShareOnlyAPhone() {
+        CustomerDirectory directory = new CustomerDirectory();
+        Customer ali = directory.register("Ali", "ali@x.com", "0912 000 1111");
+        Customer sara = directory.register("Sara", "sara@y.com", "09120001111");
+
+        assertNotSame(ali, sara);
+        assertEquals("Sara", sara.getName());
+        assertEquals(2, directory.size());
+        assertSame(sara, directory.findByEmail("SARA@y.com"));
+    }
+
+    @Test
+    void matchesByPhoneWhenTheEmailIsMissingOrTheSame() {
+        CustomerDirectory directory = new CustomerDirectory();
+        Customer ali = directory.register("Ali", "ali@x.com", "+98 912-000 1111");
+
+        assertSame(ali, directory.register("Ali", "", "+989120001111"));
+        assertSame(ali, directory.register("Ali R.", " Ali@X.com ", "+989120001111"));
+        assertEquals(1, directory.size());
+    }
+}
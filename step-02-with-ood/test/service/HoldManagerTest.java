@@ -0,0 +1,56 @@
+package service;
+
+import implementations.CreditCardPayment;
+import implementations.EmailNotification;
+import model.Customer;
+import model.Reservation;
+import model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HoldManagerTest {
+
+    @Test
+    void anExpiredHoldFreesTheRoomAndItsTypeUnit() {
+        RoomInventory inventory = new RoomInventory();
+        Room room = new Room(101, "Deluxe", 150.0);
+        inventory.addRoom(room);
+        // 1 s TTL at 100 ms ticks: the hold lapses on tick 10, and only when the test says so
+        HoldManager holds = new HoldManager(Duration.ofSeconds(1), Duration.ofMillis(100), false);
+        ReservationService service = new ReservationService(inventory,
+            new PaymentPipeline(1, Duration.ofMinutes(5), Runnable::run), new NotificationDispatcher(), holds);
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+        LocalDate checkOut = checkIn.plusDays(2);
+        try {
+            // the gateway never answers, so the hold is left to the timer
+            CompletableFuture<Reservation> booking = service.makeReservationAsync(
+                new Customer("Ada", "ada@example.com", "555-0100"), 101, checkIn, checkOut,
+                new CreditCardPayment((amount, name) -> new CompletableFuture<>()), new EmailNotification());
+            RoomTypeAvailability types = service.getRoomTypeAvailability();
+            assertEquals(1, types.getSold("Deluxe", checkIn));
+            assertFalse(types.tryReserve("Deluxe", checkIn, checkOut));
+
+            holds.advanceTo(9);
+            assertFalse(room.isAvailable(checkIn, checkOut));
+            assertEquals(0, holds.getExpiredCount());
+
+            holds.advanceTo(10);
+            assertEquals(1, holds.getExpiredCount());
+            assertTrue(room.isAvailable(checkIn, checkOut));
+            assertEquals(0, types.getSold("Deluxe", checkIn));
+            assertEquals(0, types.getSold("Deluxe", checkOut.minusDays(1)));
+            assertTrue(types.tryReserve("Deluxe", checkIn, checkOut));
+            assertFalse(booking.isDone());
+        } finally {
+            service.shutdown();
+            holds.stop();
+        }
+    }
+}
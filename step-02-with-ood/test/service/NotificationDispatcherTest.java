@@ -0,0 +1,137 @@
+package service;
+
+import interfaces.INotificationMethod;
+import model.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NotificationDispatcherTest {
+
+    @Test
+    void retriesFailedDeliveriesWithBackoff() {
+        FlakyChannel channel = new FlakyChannel(2);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(16, 8, 3);
+        try {
+            assertTrue(dispatcher.dispatch(channel, "hello", "guest@example.com"));
+            dispatcher.flush(5, TimeUnit.SECONDS);
+
+            assertEquals(List.of("hello"), channel.delivered);
+            assertEquals(3, channel.attemptTimes.size());
+            long firstGap = channel.attemptTimes.get(1) - channel.attemptTimes.get(0);
+            long secondGap = channel.attemptTimes.get(2) - channel.attemptTimes.get(1);
+            assertTrue(firstGap >= NotificationDispatcher.RETRY_BACKOFF_NANOS, "retried after " + firstGap + " ns");
+            assertTrue(secondGap >= 2 * NotificationDispatcher.RETRY_BACKOFF_NANOS, "retried after " + secondGap + " ns");
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    void retriesInlineDeliveriesAfterShutdown() {
+        FlakyChannel channel = new FlakyChannel(1);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(16, 8, 3);
+        dispatcher.shutdown();
+
+        assertFalse(dispatcher.dispatch(channel, "late", "guest@example.com"));
+        assertEquals(List.of("late"), channel.delivered);
+        assertEquals(2, channel.attemptTimes.size());
+    }
+
+    @Test
+    void deliversAMessageWhoseDispatchRacesShutdown() throws InterruptedException {
+        // the channel already has a batcher, and a new one would be created after shutdown
+        for (boolean warmedUp : new boolean[] {true, false}) {
+            GatedChannel channel = new GatedChannel();
+            NotificationDispatcher dispatcher = new NotificationDispatcher(16, 8, 3);
+            if (warmedUp) {
+                dispatcher.dispatch(channel, "early", "guest@example.com");
+            }
+            channel.arm();
+            Thread sender = new Thread(() -> dispatcher.dispatch(channel, "racing", "guest@example.com"));
+            sender.start();
+            // the sender has seen the dispatcher running and is about to pick its batcher
+            assertTrue(channel.entered.await(5, TimeUnit.SECONDS));
+            dispatcher.shutdown();
+            channel.gate.countDown();
+            sender.join();
+
+            assertTrue(channel.delivered.contains("racing"), "lost with warmedUp=" + warmedUp);
+            assertEquals(0, dispatcher.pending());
+        }
+    }
+
+    // getType() waits at the gate once armed, i.e. inside dispatch() after its shutdown check
+    private static final class GatedChannel implements INotificationMethod {
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        private volatile boolean armed;
+
+        void arm() {
+            armed = true;
+        }
+
+        @Override
+        public void sendMessage(String message, String recipient) {
+            delivered.add(message);
+        }
+
+        @Override
+        public String getName() { return "Gated"; }
+
+        @Override
+        public String getType() {
+            if (armed) {
+                armed = false;
+                entered.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "gated";
+        }
+
+        @Override
+        public String getRecipient(Customer customer) { return customer.getEmail(); }
+    }
+
+    // fails the first n sends, then delivers
+    private static final class FlakyChannel implements INotificationMethod {
+        final AtomicInteger failuresLeft;
+        final List<Long> attemptTimes = new CopyOnWriteArrayList<>();
+        final List<String> delivered = new CopyOnWriteArrayList<>();
+
+        FlakyChannel(int failures) {
+            this.failuresLeft = new AtomicInteger(failures);
+        }
+
+        @Override
+        public void sendMessage(String message, String recipient) {
+            attemptTimes.add(System.nanoTime());
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new IllegalStateException("gateway down");
+            }
+            delivered.add(message);
+        }
+
+        @Override
+        public String getName() { return "Flaky"; }
+
+        @Override
+        public String getType() { return "flaky"; }
+
+        @Override
+        public String getRecipient(Customer customer) { return customer.getEmail(); }
+    }
+}
@@ -0,0 +1,70 @@
+package service;
+
+import interfaces.IAsyncPaymentProcessor;
+import model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentPipelineTest {
+    private static final Money AMOUNT = Money.of(120_00, Money.USD);
+
+    @Test
+    void aTimedOutPaymentKeepsItsSlotAndALateApprovalIsVoided() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentPipeline pipeline = new PaymentPipeline(1, Duration.ofMillis(50), Runnable::run);
+
+        assertFalse(pipeline.submit(gateway, AMOUNT, "Slow Guest").join());
+        // the gateway is still working on it, so the only slot stays taken
+        assertEquals(0, pipeline.availablePermits());
+        assertFalse(pipeline.submit(gateway, AMOUNT, "Queued Guest").join());
+        assertEquals(1, gateway.pending.size());
+
+        gateway.pending.get(0).complete(true);
+        assertEquals(1, pipeline.availablePermits());
+        assertEquals(1, gateway.voids.get());
+    }
+
+    @Test
+    void anAnswerInTimeIsDeliveredAndNotVoided() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentPipeline pipeline = new PaymentPipeline(1, Duration.ofSeconds(5), Runnable::run);
+
+        CompletableFuture<Boolean> approved = pipeline.submit(gateway, AMOUNT, "Guest");
+        gateway.pending.get(0).complete(true);
+        assertTrue(approved.join());
+
+        CompletableFuture<Boolean> declined = pipeline.submit(gateway, AMOUNT, "Guest");
+        gateway.pending.get(1).complete(false);
+        assertFalse(declined.join());
+        assertEquals(1, pipeline.availablePermits());
+        assertEquals(0, gateway.voids.get());
+    }
+
+    // answers only when the test completes its future
+    private static final class ManualGateway implements IAsyncPaymentProcessor {
+        final List<CompletableFuture<Boolean>> pending = new CopyOnWriteArrayList<>();
+        final AtomicInteger voids = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<Boolean> processPaymentAsync(Money amount, String customerName) {
+            CompletableFuture<Boolean> payment = new CompletableFuture<>();
+            pending.add(payment);
+            return payment;
+        }
+
+        @Override
+        public CompletableFuture<Void> voidPaymentAsync(Money amount, String customerName) {
+            voids.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package service;
+
+import model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomInventoryTest {
+
+    @Test
+    void rejectsDuplicateNumbersWithinOneBatch() {
+        RoomInventory inventory = new RoomInventory();
+        List<Room> batch = List.of(new Room(101, "Standard", 100.0), new Room(102, "Deluxe", 150.0),
+            new Room(101, "Suite", 300.0));
+
+        assertThrows(IllegalArgumentException.class, () -> inventory.addRooms(batch));
+        assertEquals(0, inventory.size());
+        assertNull(inventory.findByNumber(101));
+        assertTrue(inventory.getByType("Standard").isEmpty());
+    }
+
+    @Test
+    void rejectsNumberAlreadyInInventory() {
+        RoomInventory inventory = new RoomInventory();
+        inventory.addRoom(new Room(101, "Standard", 100.0));
+
+        assertThrows(IllegalArgumentException.class, () -> inventory.addRoom(new Room(101, "Deluxe", 150.0)));
+        assertEquals(1, inventory.size());
+    }
+
+    @Test
+    void storesTheSentinelRoomNumber() {
+        RoomInventory inventory = new RoomInventory();
+        Room room = new Room(Integer.MIN_VALUE, "Standard", 100.0);
+        inventory.addRoom(room);
+
+        assertSame(room, inventory.findByNumber(Integer.MIN_VALUE));
+        assertNull(inventory.findByNumber(0));
+        assertThrows(IllegalArgumentException.class,
+            () -> inventory.addRoom(new Room(Integer.MIN_VALUE, "Deluxe", 150.0)));
+    }
+
+    @Test
+    void lookupsStayCorrectWhileTheTableGrows() throws Exception {
+        int roomCount = 5_000;
+        RoomInventory inventory = new RoomInventory(1);
+        AtomicInteger added = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+
+        Thread[] readers = new Thread[4];
+        for (int r = 0; r < readers.length; r++) {
+            long seed = r;
+            readers[r] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                while (added.get() < roomCount && failures.isEmpty()) {
+                    int published = added.get();
+                    int number = random.nextInt(roomCount);
+                    Room room = inventory.findByNumber(number);
+                    if (room != null && room.getRoomNumber() != number) {
+                        failures.add("looked up " + number + ", got " + room.getRoomNumber());
+                    } else if (room == null && number < published) {
+                        failures.add("room " + number + " missing after it was added");
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        for (int number = 0; number < roomCount; number++) {
+            inventory.addRoom(new Room(number, number % 2 == 0 ? "Standard" : "Deluxe", 100.0 + number % 50));
+            added.set(number + 1);
+        }
+        for (Thread reader : readers) reader.join();
+
+        assertTrue(failures.isEmpty(), String.valueOf(failures.peek()));
+        assertEquals(roomCount, inventory.size());
+        for (int number = 0; number < roomCount; number++) {
+            assertEquals(number, inventory.findByNumber(number).getRoomNumber());
+        }
+    }
+
+    @Test
+    void keepsPriceOrderAcrossBatches() {
+        RoomInventory inventory = new RoomInventory();
+        inventory.addRooms(List.of(new Room(101, "Standard", 120.0), new Room(102, "Deluxe", 200.0)));
+        inventory.addRooms(List.of(new Room(103, "standard ", 80.0), new Room(104, "Deluxe", 200.0),
+            new Room(100, "Standard", 120.0)));
+        inventory.addRoom(new Room(105, "Suite", 90.0));
+
+        assertEquals(List.of(103, 105, 100, 101, 102, 104), numbers(inventory.getAllByPrice()));
+        assertEquals(List.of(103, 100, 101), numbers(inventory.getByType("Standard")));
+        assertEquals(List.of(102, 104), numbers(inventory.getByType("deluxe")));
+    }
+
+    private static List<Integer> numbers(List<Room> rooms) {
+        return rooms.stream().map(Room::getRoomNumber).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package service;
+
+import model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomTypeAvailabilityTest {
+    private static final LocalDate TODAY = LocalDate.now();
+    // the first night past the window of a counter created today
+    private static final LocalDate WINDOW_END =
+        TODAY.minusDays(Room.CALENDAR_PAST_DAYS).plusDays(Room.CALENDAR_HORIZON_DAYS);
+
+    private static RoomTypeAvailability deluxeRooms(int count) {
+        RoomInventory inventory = new RoomInventory();
+        for (int i = 0; i < count; i++) {
+            inventory.addRoom(new Room(101 + i, "Deluxe", 150.0));
+        }
+        return new RoomTypeAvailability(inventory);
+    }
+
+    @Test
+    void keepsCountingHoldsPastTheWindowAndFoldsThemInWhenItRolls() {
+        RoomTypeAvailability types = deluxeRooms(2);
+        LocalDate night = WINDOW_END.plusDays(3);
+        assertFalse(types.tryReserve("Deluxe", night, night.plusDays(1)));
+        assertTrue(types.tryReserveRoom("Deluxe", night, night.plusDays(1)));
+        assertTrue(types.tryReserveRoom("Deluxe", night, night.plusDays(1)));
+        assertFalse(types.tryReserveRoom("Deluxe", night, night.plusDays(1)));
+        types.release("Deluxe", night, night.plusDays(1));
+        assertEquals(1, types.getSold("Deluxe", night));
+
+        types.roll(TODAY.plusDays(10));
+        assertEquals(1, types.getSold("Deluxe", night));
+        assertEquals(1, types.getAvailable("Deluxe", night, night.plusDays(1)));
+        assertTrue(types.tryReserve("Deluxe", night, night.plusDays(1)));
+        assertFalse(types.tryReserve("Deluxe", night, night.plusDays(1)));
+        // the hold taken before the roll gives back exactly what it took
+        types.release("Deluxe", night, night.plusDays(1));
+        assertEquals(1, types.getSold("Deluxe", night));
+    }
+
+    @Test
+    void rollingKeepsNightsStillInTheWindowAndDropsPastOnes() {
+        RoomTypeAvailability types = deluxeRooms(1);
+        LocalDate lastNight = WINDOW_END.minusDays(1);
+        assertTrue(types.tryReserve("Deluxe", lastNight, lastNight.plusDays(1)));
+        LocalDate firstNight = TODAY.minusDays(Room.CALENDAR_PAST_DAYS);
+        assertTrue(types.tryReserveRoom("Deluxe", firstNight, firstNight.plusDays(1)));
+        // not bookable by type until the window reaches it
+        assertFalse(types.tryReserve("Deluxe", WINDOW_END, WINDOW_END.plusDays(1)));
+
+        types.roll(TODAY.plusDays(1));
+        assertEquals(1, types.getSold("Deluxe", lastNight));
+        assertEquals(0, types.getSold("Deluxe", firstNight));
+        assertTrue(types.tryReserve("Deluxe", WINDOW_END, WINDOW_END.plusDays(1)));
+        // rolling back to an earlier day changes nothing
+        types.roll(TODAY);
+        assertEquals(1, types.getSold("Deluxe", WINDOW_END));
+        assertEquals(1, types.getSold("Deluxe", lastNight));
+    }
+}
@@ -0,0 +1,46 @@
+package service;
+
+import model.Money;
+import model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ShardedReservationRouterTest {
+    private static final Currency EUR = Currency.getInstance("EUR");
+    private static final LocalDate NIGHT = LocalDate.now().plusDays(10);
+
+    @Test
+    void sortsCheapestFirstWithinEachCurrency() {
+        ShardedReservationRouter router = new ShardedReservationRouter(1, Paths.get("data"));
+        try {
+            RoomInventory paris = new RoomInventory();
+            paris.addRooms(List.of(new Room(1, "Deluxe", Money.of(90_00, EUR), 2), new Room(2, "Deluxe", Money.of(300_00, EUR), 2)));
+            RoomInventory boston = new RoomInventory();
+            boston.addRooms(List.of(new Room(1, "Deluxe", Money.of(150_00, Money.USD), 2), new Room(2, "Deluxe", Money.of(80_00, Money.USD), 2)));
+            PropertyShard parisShard = router.addProperty("paris", paris);
+            PropertyShard bostonShard = router.addProperty("boston", boston);
+
+            List<ShardedReservationRouter.RoomMatch> matches =
+                router.searchRooms(new RoomSearchCriteria(NIGHT, NIGHT.plusDays(1)).cheapestFirst());
+            assertEquals(List.of("EUR 90.00", "EUR 300.00", "USD 80.00", "USD 150.00"), matches.stream()
+                .map(match -> match.getRoom().getPricePerNight())
+                .map(price -> price.getCurrency() + " " + price.toDecimal())
+                .toList());
+
+            assertEquals(Paths.get("data", "paris"), parisShard.getJournalDirectory());
+            assertEquals(Paths.get("data", "boston"), bostonShard.getJournalDirectory());
+            assertSame(parisShard.getService().getHoldManager(), bostonShard.getService().getHoldManager());
+            assertThrows(IllegalArgumentException.class, () -> router.addProperty("../paris", new RoomInventory()));
+        } finally {
+            router.shutdown();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    // one level spans 64 ticks of the level below
+    private static final long L1 = 64;
+    private static final long L2 = 64 * 64;
+    private static final long L3 = 64 * 64 * 64;
+
+    @Test
+    void firesEachTimeoutOnItsDeadlineTickAfterCascadingThroughEveryLevel() {
+        TimingWheel<Long> wheel = new TimingWheel<>();
+        // start off a slot boundary so cascades happen part-way through a coarse slot
+        wheel.advanceTo(12_345, delay -> { });
+        long start = wheel.getCurrentTick();
+        long[] delays = {1, 2, L1 - 1, L1, L1 + 1, L2 - 1, L2, L2 + 1, L3 - 1, L3, L3 + 1,
+            5 * L3 + 17, 62 * L3, 63 * L3 + 5};
+        for (long delay : delays) wheel.schedule(delay, delay);
+
+        Map<Long, Long> firedAt = new LinkedHashMap<>();
+        wheel.advanceTo(start + 64 * L3, delay -> firedAt.put(delay, wheel.getCurrentTick()));
+
+        assertEquals(delays.length, firedAt.size());
+        long previous = 0;
+        for (long delay : delays) {
+            assertEquals(start + delay, firedAt.get(delay), "delay " + delay);
+        }
+        // and in tick order
+        for (long tick : firedAt.values()) {
+            assertTrue(tick >= previous);
+            previous = tick;
+        }
+    }
+
+    @Test
+    void doesNotFireBeforeTheDeadlineWhenAdvancedInSteps() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        wheel.schedule("hold", L2 + 3);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(L1, fired::add);
+        wheel.advanceTo(L2, fired::add);
+        wheel.advanceTo(L2 + 2, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advanceTo(L2 + 3, fired::add);
+        assertEquals(List.of("hold"), fired);
+        wheel.advanceTo(2 * L2, fired::add);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    void aDelayPastTheTopLevelStillFiresOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        long delay = 64 * L3 + 100;
+        wheel.schedule("far", delay);
+        List<Long> firedAt = new ArrayList<>();
+
+        wheel.advanceTo(delay + L1, payload -> firedAt.add(wheel.getCurrentTick()));
+        assertEquals(List.of(delay), firedAt);
+    }
+
+    @Test
+    void cancelledTimeoutsAreSkippedWhereverTheyWait() {
+        TimingWheel<String> wheel = new TimingWheel<>();
+        // still in the inbox
+        wheel.schedule("inbox", 5).cancel();
+        TimingWheel.Timeout<String> level0 = wheel.schedule("level 0", 10);
+        TimingWheel.Timeout<String> level2 = wheel.schedule("level 2", 2 * L2);
+        TimingWheel.Timeout<String> cascaded = wheel.schedule("cascaded", L2 + 10);
+        wheel.schedule("kept", L2 + 10);
+        wheel.schedule("sibling", 10);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advanceTo(1, fired::add);
+        level0.cancel();
+        level2.cancel();
+        // past the level 1 boundary: "cascaded" now waits in level 0
+        wheel.advanceTo(L2 + 1, fired::add);
+        cascaded.cancel();
+        wheel.advanceTo(3 * L2, fired::add);
+
+        assertEquals(List.of("sibling", "kept"), fired);
+        assertTrue(level0.isCancelled());
+    }
+}
@@ -0,0 +1,57 @@
+package templates;
+
+import model.Customer;
+import model.Reservation;
+import model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 10);
+
+    @Test
+    void keepsAGsmMessageToOneFullSegment() {
+        String sms = MessageTemplate.forSms("{customer}").render(booking("x".repeat(200)));
+
+        assertEquals(160, sms.length());
+        assertTrue(sms.endsWith("..."));
+        assertEquals(SmsEncoding.GSM_7, SmsEncoding.of(sms, 0));
+    }
+
+    @Test
+    void countsGsmExtensionCharactersTwice() {
+        String sms = MessageTemplate.forSms("{customer}").render(booking("[".repeat(100)));
+
+        assertEquals("[".repeat(78) + "...", sms);
+    }
+
+    @Test
+    void fallsBackToTheUcs2SegmentForPersianText() {
+        String name = "علی" + " رضایی".repeat(20);
+        String sms = MessageTemplate.forSms("Thank you, {customer}!").render(booking(name));
+
+        assertEquals(70, sms.length());
+        assertEquals(SmsEncoding.UCS_2, SmsEncoding.of(sms, 0));
+    }
+
+    @Test
+    void neverSplitsASurrogatePair() {
+        String name = "😀".repeat(50);
+        String sms = MessageTemplate.forSms("{customer}").render(booking(name));
+        String capped = new MessageTemplate("a{customer}", 10).render(booking(name));
+
+        assertEquals("😀".repeat(33) + "...", sms);
+        assertEquals("a" + "😀".repeat(3) + "...", capped);
+        assertFalse(Character.isHighSurrogate(capped.charAt(capped.length() - 4)));
+    }
+
+    private static Reservation booking(String guest) {
+        Customer customer = new Customer(guest, "guest@example.com", "+10000000000");
+        return new Reservation(customer, new Room(101, "Deluxe", 150.0), CHECK_IN, CHECK_IN.plusDays(2));
+    }
+}